@@ -0,0 +1,183 @@
+package org.junit.contrib.java.lang.system.benchmarks;
+
+import static java.lang.System.getSecurityManager;
+import static java.lang.System.setSecurityManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.security.Permission;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.contrib.java.lang.system.internal.NoExitSecurityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the costs of operations that are checked by a security manager.
+ * Each operation is measured
+ * <ul>
+ * <li>without a security manager ({@code none}). This is the situation of
+ * a test that doesn't use {@code ExpectedSystemExit} or that runs with the
+ * exit interception agent.</li>
+ * <li>with the {@code NoExitSecurityManager} that is installed by
+ * {@code ExpectedSystemExit} ({@code noExit}).</li>
+ * <li>with the {@code NoExitSecurityManager} that delegates to an original
+ * security manager ({@code noExitWithOriginal}).</li>
+ * </ul>
+ *
+ * <p>Java 18 and later don't allow installing a security manager unless the
+ * JVM is started with {@code -Djava.security.manager=allow}. Provide it by
+ * JMH's option {@code -jvmArgsAppend}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ExitInterceptionBenchmark {
+	private static final String PROPERTY = "java.version";
+
+	@Param({ "none", "noExit", "noExitWithOriginal" })
+	public String securityManager;
+
+	private SecurityManager originalSecurityManager;
+	private File file;
+	private final byte[] buffer = new byte[1024];
+	private Method method;
+	private byte[] classFile;
+
+	@Setup(Level.Trial)
+	public void installSecurityManager() throws Exception {
+		createFile();
+		method = Sample.class.getDeclaredMethod("value");
+		classFile = readClassFile(Sample.class);
+		originalSecurityManager = getSecurityManager();
+		if ("noExit".equals(securityManager))
+			setSecurityManager(new NoExitSecurityManager(null));
+		else if ("noExitWithOriginal".equals(securityManager))
+			setSecurityManager(new NoExitSecurityManager(
+				new PermissiveSecurityManager()));
+	}
+
+	@TearDown(Level.Trial)
+	public void restoreSecurityManager() {
+		setSecurityManager(originalSecurityManager);
+		file.delete();
+	}
+
+	@Benchmark
+	public int readFile() throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return in.read(buffer);
+		} finally {
+			in.close();
+		}
+	}
+
+	@Benchmark
+	public boolean fileExists() {
+		return file.exists();
+	}
+
+	@Benchmark
+	public Object invokeMethodByReflection() throws Exception {
+		Method value = Sample.class.getDeclaredMethod("value");
+		value.setAccessible(true);
+		return value.invoke(null);
+	}
+
+	@Benchmark
+	public Object invokeCachedMethodByReflection() throws Exception {
+		return method.invoke(null);
+	}
+
+	@Benchmark
+	public Class<?> loadClass() throws Exception {
+		return new SingleClassLoader(Sample.class.getName(), classFile)
+			.loadClass(Sample.class.getName());
+	}
+
+	@Benchmark
+	public String readProperty() {
+		return System.getProperty(PROPERTY);
+	}
+
+	private void createFile() throws IOException {
+		file = File.createTempFile("benchmark", ".txt");
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(new byte[buffer.length]);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static byte[] readClassFile(Class<?> type) throws IOException {
+		InputStream in = type.getResourceAsStream(
+			"/" + type.getName().replace('.', '/') + ".class");
+		try {
+			ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int length;
+			while ((length = in.read(buffer)) != -1)
+				classFile.write(buffer, 0, length);
+			return classFile.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	public static class Sample {
+		public static int value() {
+			return 42;
+		}
+	}
+
+	private static class PermissiveSecurityManager extends SecurityManager {
+		@Override
+		public void checkPermission(Permission perm) {
+		}
+
+		@Override
+		public void checkPermission(Permission perm, Object context) {
+		}
+	}
+
+	private static class SingleClassLoader extends ClassLoader {
+		private final String name;
+		private final byte[] classFile;
+
+		SingleClassLoader(String name, byte[] classFile) {
+			super(ExitInterceptionBenchmark.class.getClassLoader());
+			this.name = name;
+			this.classFile = classFile;
+		}
+
+		@Override
+		protected synchronized Class<?> loadClass(String className,
+				boolean resolve) throws ClassNotFoundException {
+			if (name.equals(className))
+				return defineClass(name, classFile, 0, classFile.length);
+			else
+				return super.loadClass(className, resolve);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package org.junit.contrib.java.lang.system.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the {@link ExitInterceptionBenchmark} and fails if the exit
+ * interception has become slower than its baseline. The absolute scores
+ * depend on the machine, therefore the check compares the ratio of the
+ * score with the {@code NoExitSecurityManager} ({@code noExit}) to the
+ * score without a security manager ({@code none}) for each operation. The
+ * maximum ratios are stored in {@code exit-interception-baseline.properties}.
+ *
+ * <p>The arguments are JMH's command line options, e.g.
+ * {@code -jvmArgsAppend -Djava.security.manager=allow}. The check exits
+ * with status 1 if an operation exceeds its maximum ratio.
+ */
+public class ExitInterceptionRegressionCheck {
+	private static final String BASELINE = "exit-interception-baseline.properties";
+
+	public static void main(String[] args) throws Exception {
+		Properties baseline = readBaseline();
+		Options options = new OptionsBuilder()
+			.parent(new CommandLineOptions(args))
+			.include(ExitInterceptionBenchmark.class.getName() + "\\.")
+			.param("securityManager", "none", "noExit")
+			.build();
+		Collection<RunResult> results = new Runner(options).run();
+		boolean regression = false;
+		for (Map.Entry<String, Double> ratio : ratios(results).entrySet()) {
+			String maximum = baseline.getProperty(ratio.getKey());
+			if (maximum == null)
+				throw new IllegalStateException("The baseline has no maximum ratio"
+					+ " for the operation " + ratio.getKey() + ".");
+			boolean exceeded = ratio.getValue() > Double.parseDouble(maximum);
+			System.out.printf("%-32s noExit/none = %.2f (maximum %s)%s%n",
+				ratio.getKey(), ratio.getValue(), maximum,
+				exceeded ? " REGRESSION" : "");
+			regression |= exceeded;
+		}
+		if (regression)
+			System.exit(1);
+	}
+
+	private static Properties readBaseline() throws IOException {
+		InputStream is = ExitInterceptionRegressionCheck.class
+			.getResourceAsStream(BASELINE);
+		try {
+			Properties baseline = new Properties();
+			baseline.load(is);
+			return baseline;
+		} finally {
+			is.close();
+		}
+	}
+
+	private static Map<String, Double> ratios(Collection<RunResult> results) {
+		Map<String, Double> scoresWithoutSecurityManager = new HashMap<String, Double>();
+		Map<String, Double> scoresWithNoExit = new HashMap<String, Double>();
+		for (RunResult result : results) {
+			String benchmark = result.getParams().getBenchmark();
+			String operation = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+			double score = result.getPrimaryResult().getScore();
+			if ("none".equals(result.getParams().getParam("securityManager")))
+				scoresWithoutSecurityManager.put(operation, score);
+			else
+				scoresWithNoExit.put(operation, score);
+		}
+		Map<String, Double> ratios = new HashMap<String, Double>();
+		for (Map.Entry<String, Double> score : scoresWithNoExit.entrySet())
+			ratios.put(score.getKey(),
+				score.getValue() / scoresWithoutSecurityManager.get(score.getKey()));
+		return ratios;
+	}
+}
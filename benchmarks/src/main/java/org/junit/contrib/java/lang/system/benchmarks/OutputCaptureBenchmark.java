@@ -0,0 +1,166 @@
+package org.junit.contrib.java.lang.system.benchmarks;
+
+import static java.util.Arrays.fill;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a test that writes to {@code System.out} while it is captured
+ * by a {@code SystemOutRule}. Each operation is a complete test: a new rule
+ * is created and applied to a statement that writes
+ * {@value #WRITES_PER_THREAD} times from each thread. The parameters are
+ * <ul>
+ * <li>{@code write}: a single byte ({@code byte}), a line of 80 characters
+ * by {@code println} ({@code line}) or a block of 64 KB ({@code block}).</li>
+ * <li>{@code mode}: the configuration of the rule. All modes record the
+ * log, so that {@code getLog} measures the same work for each of them.
+ * {@code mute} and {@code muteForSuccessfulTests} don't write the text to
+ * the original {@code System.out}. {@code enableLog} writes it there, too.
+ * The original stream is replaced by a stream that discards the text while
+ * the benchmark is running.</li>
+ * <li>{@code threads}: the number of threads that write concurrently. All
+ * but the benchmark's thread are taken from a pool that is created once.</li>
+ * <li>{@code getLog}: whether the log is never read, read once after the
+ * test or read after each write.</li>
+ * </ul>
+ * The benchmark has many combinations of parameters. Select some of them by
+ * JMH's option {@code -p}, e.g. {@code -p write=block -p threads=1}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OutputCaptureBenchmark {
+	private static final int WRITES_PER_THREAD = 100;
+	private static final Description TEST = Description.createTestDescription(
+		OutputCaptureBenchmark.class, "test");
+
+	@Param({ "byte", "line", "block" })
+	public String write;
+
+	@Param({ "mute", "enableLog", "muteForSuccessfulTests" })
+	public String mode;
+
+	@Param({ "1", "4" })
+	public int threads;
+
+	@Param({ "never", "onceAfterTest", "afterEachWrite" })
+	public String getLog;
+
+	private final byte[] block = new byte[64 * 1024];
+	private String line;
+	private PrintStream originalOut;
+	private ExecutorService pool;
+
+	@Setup(Level.Trial)
+	public void replaceSystemOut() {
+		fill(block, (byte) 'x');
+		line = new String(block, 0, 80);
+		originalOut = System.out;
+		System.setOut(new PrintStream(new DiscardingOutputStream()));
+		if (threads > 1)
+			pool = Executors.newFixedThreadPool(threads - 1);
+	}
+
+	@TearDown(Level.Trial)
+	public void restoreSystemOut() {
+		System.setOut(originalOut);
+		if (pool != null)
+			pool.shutdown();
+	}
+
+	@Benchmark
+	public int captureOutputOfTest() throws Throwable {
+		final SystemOutRule rule = createRule();
+		final int[] readCharacters = new int[1];
+		rule.apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				readCharacters[0] = writeFromAllThreads(rule);
+			}
+		}, TEST).evaluate();
+		if ("onceAfterTest".equals(getLog))
+			readCharacters[0] += rule.getLog().length();
+		return readCharacters[0];
+	}
+
+	private SystemOutRule createRule() {
+		if ("mute".equals(mode))
+			return new SystemOutRule().mute().enableLog();
+		else if ("enableLog".equals(mode))
+			return new SystemOutRule().enableLog();
+		else
+			return new SystemOutRule().muteForSuccessfulTests().enableLog();
+	}
+
+	private int writeFromAllThreads(final SystemOutRule rule) throws Exception {
+		List<Future<Integer>> writers = new ArrayList<Future<Integer>>();
+		for (int i = 1; i < threads; ++i)
+			writers.add(pool.submit(new Callable<Integer>() {
+				public Integer call() {
+					return writeAndReadLog(rule);
+				}
+			}));
+		int readCharacters = writeAndReadLog(rule);
+		for (Future<Integer> writer : writers)
+			readCharacters += writer.get();
+		return readCharacters;
+	}
+
+	private int writeAndReadLog(SystemOutRule rule) {
+		boolean readLogAfterEachWrite = "afterEachWrite".equals(getLog);
+		int readCharacters = 0;
+		for (int i = 0; i < WRITES_PER_THREAD; ++i) {
+			writeOnce();
+			if (readLogAfterEachWrite)
+				readCharacters += rule.getLog().length();
+		}
+		return readCharacters;
+	}
+
+	private void writeOnce() {
+		if ("byte".equals(write))
+			System.out.write('x');
+		else if ("line".equals(write))
+			System.out.println(line);
+		else
+			System.out.write(block, 0, block.length);
+	}
+
+	private static class DiscardingOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * Captures {@code System.err} while the test is executed. The text is
+ * provided by a parameter of type {@code SystemErrRule}. The test holds the
+ * lock {@link SystemResources#SYSTEM_ERR}.
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(SystemRulesExtension.class)
+@ResourceLock(SystemResources.SYSTEM_ERR)
+public @interface CaptureSystemErr {
+	/**
+	 * Whether the text is not written to the original {@code System.err}.
+	 */
+	boolean mute() default false;
+}
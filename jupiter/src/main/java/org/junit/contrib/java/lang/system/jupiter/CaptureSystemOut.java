@@ -0,0 +1,39 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * Captures {@code System.out} while the test is executed. The text is
+ * provided by a parameter of type {@code SystemOutRule}.
+ * <pre>
+ * &#064;Test
+ * &#064;CaptureSystemOut
+ * void printsGreeting(SystemOutRule systemOut) {
+ *   System.out.print("hello");
+ *   assertEquals("hello", systemOut.getLog());
+ * }
+ * </pre>
+ * The test holds the lock {@link SystemResources#SYSTEM_OUT}.
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(SystemRulesExtension.class)
+@ResourceLock(SystemResources.SYSTEM_OUT)
+public @interface CaptureSystemOut {
+	/**
+	 * Whether the text is not written to the original {@code System.out}.
+	 */
+	boolean mute() default false;
+}
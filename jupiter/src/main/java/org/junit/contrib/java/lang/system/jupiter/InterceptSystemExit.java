@@ -0,0 +1,36 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * Prevents {@code System.exit} from stopping the JVM while the test is
+ * executed. Expectations are set by a parameter of type
+ * {@code ExpectedSystemExit}.
+ * <pre>
+ * &#064;Test
+ * &#064;InterceptSystemExit
+ * void exitsWithError(ExpectedSystemExit exit) {
+ *   exit.expectSystemExitWithStatus(1);
+ *   System.exit(1);
+ * }
+ * </pre>
+ * The test holds the lock {@link SystemResources#SYSTEM_EXIT}.
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(SystemRulesExtension.class)
+@ResourceLock(SystemResources.SYSTEM_EXIT)
+public @interface InterceptSystemExit {
+}
@@ -0,0 +1,35 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * Replaces {@code System.in} while the test is executed. The text is set by
+ * a parameter of type {@code TextFromStandardInputStream}.
+ * <pre>
+ * &#064;Test
+ * &#064;ProvideSystemIn
+ * void readsName(TextFromStandardInputStream systemIn) {
+ *   systemIn.provideLines("Alice");
+ *   assertEquals("Alice", new Scanner(System.in).nextLine());
+ * }
+ * </pre>
+ * The test holds the lock {@link SystemResources#SYSTEM_IN}.
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(SystemRulesExtension.class)
+@ResourceLock(SystemResources.SYSTEM_IN)
+public @interface ProvideSystemIn {
+}
@@ -0,0 +1,26 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * Restores the system properties after the test. The test holds the lock
+ * {@link SystemResources#SYSTEM_PROPERTIES}.
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(SystemRulesExtension.class)
+@ResourceLock(SystemResources.SYSTEM_PROPERTIES)
+public @interface RestoreSystemProperties {
+}
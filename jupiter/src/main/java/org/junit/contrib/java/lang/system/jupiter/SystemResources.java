@@ -0,0 +1,42 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.jupiter.api.parallel.Resources;
+
+/**
+ * The names of the global resources that are changed by System Rules. Use
+ * them with {@link ResourceLock} for tests that read these resources
+ * without an annotation of this library, e.g.
+ * {@code @ResourceLock(value = SystemResources.SYSTEM_IN, mode = READ)}.
+ */
+public final class SystemResources {
+	/**
+	 * {@code System.out}. The same name as {@link Resources#SYSTEM_OUT}.
+	 */
+	public static final String SYSTEM_OUT = Resources.SYSTEM_OUT;
+
+	/**
+	 * {@code System.err}. The same name as {@link Resources#SYSTEM_ERR}.
+	 */
+	public static final String SYSTEM_ERR = Resources.SYSTEM_ERR;
+
+	/**
+	 * {@code System.in}.
+	 */
+	public static final String SYSTEM_IN = "java.lang.System.in";
+
+	/**
+	 * The handling of {@code System.exit}: the security manager or the
+	 * interceptor of the exit interception agent.
+	 */
+	public static final String SYSTEM_EXIT = "java.lang.System.exit";
+
+	/**
+	 * The system properties. The same name as
+	 * {@link Resources#SYSTEM_PROPERTIES}.
+	 */
+	public static final String SYSTEM_PROPERTIES = Resources.SYSTEM_PROPERTIES;
+
+	private SystemResources() {
+	}
+}
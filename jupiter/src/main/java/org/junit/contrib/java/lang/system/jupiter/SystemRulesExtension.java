@@ -0,0 +1,181 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import org.junit.contrib.java.lang.system.ExpectedSystemExit;
+import org.junit.contrib.java.lang.system.SystemErrRule;
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.contrib.java.lang.system.SystemRules;
+import org.junit.contrib.java.lang.system.TextFromStandardInputStream;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * The {@code SystemRulesExtension} applies the rules of System Rules to
+ * JUnit Jupiter tests. It is registered by the annotations
+ * {@link CaptureSystemOut}, {@link CaptureSystemErr},
+ * {@link ProvideSystemIn}, {@link InterceptSystemExit} and
+ * {@link RestoreSystemProperties}. Each annotation enables a rule and
+ * declares a {@code ResourceLock} for the global state that is changed by
+ * the rule. Therefore tests with these annotations can be executed in
+ * parallel: the Jupiter engine only serializes the tests that need the
+ * same resource.
+ * <pre>
+ * &#064;Execution(CONCURRENT)
+ * class AppTest {
+ *   &#064;Test
+ *   &#064;CaptureSystemOut
+ *   &#064;ProvideSystemIn
+ *   void echoesInput(SystemOutRule systemOut, TextFromStandardInputStream systemIn) {
+ *     systemIn.provideLines("hello");
+ *     App.main();
+ *     assertEquals("hello", systemOut.getLog());
+ *   }
+ *
+ *   &#064;Test
+ *   void computesSum() {
+ *     assertEquals(3, App.sum(1, 2));
+ *   }
+ * }
+ * </pre>
+ * The rules are parameters of the test method. They are created for each
+ * test and stored in its {@code ExtensionContext}, so the extension itself
+ * has no state. The rules are applied around the test method only, not
+ * around {@code @BeforeEach} and {@code @AfterEach} methods. They are
+ * applied in the order of {@link SystemRules}.
+ *
+ * <p>Tests that write to {@code System.out} without capturing it should
+ * declare {@code @ResourceLock(SystemResources.SYSTEM_OUT)}, too.
+ * Otherwise their output may be captured by a test that runs at the same
+ * time.
+ */
+public class SystemRulesExtension implements ParameterResolver,
+		InvocationInterceptor {
+	private static final Namespace NAMESPACE
+		= Namespace.create(SystemRulesExtension.class);
+
+	@Override
+	public boolean supportsParameter(ParameterContext parameterContext,
+			ExtensionContext extensionContext) {
+		Class<?> type = parameterContext.getParameter().getType();
+		return extensionContext.getTestMethod().isPresent()
+			&& (type == SystemOutRule.class
+				|| type == SystemErrRule.class
+				|| type == TextFromStandardInputStream.class
+				|| type == ExpectedSystemExit.class);
+	}
+
+	@Override
+	public Object resolveParameter(ParameterContext parameterContext,
+			ExtensionContext extensionContext) {
+		Class<?> type = parameterContext.getParameter().getType();
+		SystemRules rules = rulesOf(extensionContext);
+		try {
+			if (type == SystemOutRule.class)
+				return rules.systemOut();
+			else if (type == SystemErrRule.class)
+				return rules.systemErr();
+			else if (type == TextFromStandardInputStream.class)
+				return rules.systemIn();
+			else
+				return rules.exit();
+		} catch (IllegalStateException e) {
+			throw new ParameterResolutionException("The parameter of type "
+				+ type.getSimpleName() + " needs the annotation @"
+				+ annotationFor(type).getSimpleName()
+				+ " at the test method or the test class.", e);
+		}
+	}
+
+	@Override
+	public void interceptTestMethod(Invocation<Void> invocation,
+			ReflectiveInvocationContext<Method> invocationContext,
+			ExtensionContext extensionContext) throws Throwable {
+		applyRules(invocation, extensionContext);
+	}
+
+	@Override
+	public void interceptTestTemplateMethod(Invocation<Void> invocation,
+			ReflectiveInvocationContext<Method> invocationContext,
+			ExtensionContext extensionContext) throws Throwable {
+		applyRules(invocation, extensionContext);
+	}
+
+	private void applyRules(final Invocation<Void> invocation,
+			ExtensionContext context) throws Throwable {
+		Statement test = new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				invocation.proceed();
+			}
+		};
+		Description description = Description.createTestDescription(
+			context.getRequiredTestClass(), context.getDisplayName());
+		rulesOf(context).apply(test, description).evaluate();
+	}
+
+	private SystemRules rulesOf(ExtensionContext context) {
+		return context.getStore(NAMESPACE).getOrComputeIfAbsent(
+			SystemRules.class, key -> createRules(context), SystemRules.class);
+	}
+
+	private SystemRules createRules(ExtensionContext context) {
+		SystemRules.Builder builder = SystemRules.builder();
+		Optional<CaptureSystemOut> captureSystemOut
+			= findAnnotationOfTest(context, CaptureSystemOut.class);
+		if (captureSystemOut.isPresent())
+			builder.captureSystemOut(captureSystemOut.get().mute()
+				? new SystemOutRule().mute().enableLog()
+				: new SystemOutRule().enableLog());
+		Optional<CaptureSystemErr> captureSystemErr
+			= findAnnotationOfTest(context, CaptureSystemErr.class);
+		if (captureSystemErr.isPresent())
+			builder.captureSystemErr(captureSystemErr.get().mute()
+				? new SystemErrRule().mute().enableLog()
+				: new SystemErrRule().enableLog());
+		if (findAnnotationOfTest(context, ProvideSystemIn.class).isPresent())
+			builder.provideSystemIn();
+		if (findAnnotationOfTest(context, InterceptSystemExit.class).isPresent())
+			builder.interceptSystemExit();
+		if (findAnnotationOfTest(context, RestoreSystemProperties.class).isPresent())
+			builder.restoreSystemProperties();
+		return builder.build();
+	}
+
+	/**
+	 * Searches the test method first, then the test class and its enclosing
+	 * classes.
+	 */
+	private <A extends Annotation> Optional<A> findAnnotationOfTest(
+			ExtensionContext context, Class<A> annotationType) {
+		Optional<A> annotation = findAnnotation(
+			context.getTestMethod(), annotationType);
+		for (Optional<Class<?>> type = context.getTestClass();
+				!annotation.isPresent() && type.isPresent();
+				type = Optional.ofNullable(type.get().getEnclosingClass()))
+			annotation = findAnnotation(type, annotationType);
+		return annotation;
+	}
+
+	private Class<? extends Annotation> annotationFor(Class<?> parameterType) {
+		if (parameterType == SystemOutRule.class)
+			return CaptureSystemOut.class;
+		else if (parameterType == SystemErrRule.class)
+			return CaptureSystemErr.class;
+		else if (parameterType == TextFromStandardInputStream.class)
+			return ProvideSystemIn.class;
+		else
+			return InterceptSystemExit.class;
+	}
+}
@@ -0,0 +1,218 @@
+package org.junit.contrib.java.lang.system.jupiter;
+
+import static java.lang.System.getProperty;
+import static java.lang.System.setProperty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.testkit.engine.EventConditions.finishedWithFailure;
+import static org.junit.platform.testkit.engine.EventConditions.test;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.instanceOf;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.message;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.contrib.java.lang.system.ExpectedSystemExit;
+import org.junit.contrib.java.lang.system.SystemErrRule;
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.contrib.java.lang.system.TextFromStandardInputStream;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.testkit.engine.Events;
+
+class SystemRulesExtensionTest {
+	@Test
+	void capturesOutputOfTest() {
+		PrintStream originalOut = System.out;
+		PrintStream originalErr = System.err;
+		executeTests(CaptureOutput.class).assertStatistics(
+			stats -> stats.succeeded(1).failed(0));
+		assertSame(originalOut, System.out);
+		assertSame(originalErr, System.err);
+	}
+
+	@Test
+	void providesTextToSystemIn() {
+		executeTests(ReadSystemIn.class).assertStatistics(
+			stats -> stats.succeeded(1).failed(0));
+	}
+
+	@Test
+	void interceptsSystemExit() {
+		SecurityManager originalSecurityManager = System.getSecurityManager();
+		executeTests(CallSystemExit.class).assertStatistics(
+			stats -> stats.succeeded(1).failed(1));
+		assertSame(originalSecurityManager, System.getSecurityManager());
+	}
+
+	@Test
+	void restoresSystemProperties() {
+		executeTests(ChangeSystemProperty.class).assertStatistics(
+			stats -> stats.succeeded(1).failed(0));
+		assertNull(getProperty("system-rules.jupiter.property"));
+	}
+
+	@Test
+	void annotationAtClassEnablesRuleForEveryTest() {
+		executeTests(CaptureOutputOfClass.class).assertStatistics(
+			stats -> stats.succeeded(3).failed(0));
+	}
+
+	@Test
+	void parameterWithoutAnnotationIsRejected() {
+		executeTests(ParameterWithoutAnnotation.class).assertThatEvents().haveExactly(1,
+			finishedWithFailure(instanceOf(ParameterResolutionException.class),
+				message("The parameter of type SystemOutRule needs the"
+					+ " annotation @CaptureSystemOut at the test method or"
+					+ " the test class.")));
+	}
+
+	@Test
+	void testsThatCaptureOutputAreNotExecutedConcurrently() {
+		CaptureOutputConcurrently.maxNumberOfActiveTests.set(0);
+		executeTestsInParallel(CaptureOutputConcurrently.class).assertStatistics(
+			stats -> stats.succeeded(8).failed(0));
+		assertEquals(1, CaptureOutputConcurrently.maxNumberOfActiveTests.get());
+	}
+
+	@Test
+	void testsWithoutLocksAreExecutedConcurrently() {
+		ConcurrentTestsWithoutLock.maxNumberOfActiveTests.set(0);
+		ConcurrentTestsWithoutLock.numberOfActiveTests.set(0);
+		executeTestsInParallel(ConcurrentTestsWithoutLock.class).assertStatistics(
+			stats -> stats.succeeded(2).failed(0));
+		assertEquals(2, ConcurrentTestsWithoutLock.maxNumberOfActiveTests.get());
+	}
+
+	private static Events executeTests(Class<?> testClass) {
+		return EngineTestKit.engine("junit-jupiter")
+			.selectors(selectClass(testClass))
+			.execute()
+			.testEvents();
+	}
+
+	private static Events executeTestsInParallel(Class<?> testClass) {
+		return EngineTestKit.engine("junit-jupiter")
+			.configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+			.configurationParameter("junit.jupiter.execution.parallel.config.strategy", "fixed")
+			.configurationParameter("junit.jupiter.execution.parallel.config.fixed.parallelism", "4")
+			.selectors(selectClass(testClass))
+			.execute()
+			.testEvents();
+	}
+
+	private static void recordActiveTest(AtomicInteger numberOfActiveTests,
+			AtomicInteger maxNumberOfActiveTests) throws InterruptedException {
+		int active = numberOfActiveTests.incrementAndGet();
+		maxNumberOfActiveTests.accumulateAndGet(active, Math::max);
+		Thread.sleep(100);
+		numberOfActiveTests.decrementAndGet();
+	}
+
+	static class CaptureOutput {
+		@Test
+		@CaptureSystemOut(mute = true)
+		@CaptureSystemErr(mute = true)
+		void test(SystemOutRule systemOut, SystemErrRule systemErr) {
+			System.out.print("output");
+			System.err.print("error");
+			assertEquals("output", systemOut.getLog());
+			assertEquals("error", systemErr.getLog());
+		}
+	}
+
+	static class ReadSystemIn {
+		@Test
+		@ProvideSystemIn
+		void test(TextFromStandardInputStream systemIn) throws Exception {
+			systemIn.provideLines("arbitrary text");
+			BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+			assertEquals("arbitrary text", reader.readLine());
+		}
+	}
+
+	static class CallSystemExit {
+		@Test
+		@InterceptSystemExit
+		void expectedExit(ExpectedSystemExit exit) {
+			exit.expectSystemExitWithStatus(2);
+			System.exit(2);
+		}
+
+		@Test
+		@InterceptSystemExit
+		void unexpectedExit() {
+			System.exit(2);
+		}
+	}
+
+	static class ChangeSystemProperty {
+		@Test
+		@RestoreSystemProperties
+		void test() {
+			setProperty("system-rules.jupiter.property", "arbitrary value");
+		}
+	}
+
+	@CaptureSystemOut(mute = true)
+	static class CaptureOutputOfClass {
+		@Test
+		void test(SystemOutRule systemOut) {
+			System.out.print("output");
+			assertEquals("output", systemOut.getLog());
+		}
+
+		@RepeatedTest(2)
+		void repeatedTest(SystemOutRule systemOut) {
+			System.out.print("output");
+			assertEquals("output", systemOut.getLog());
+		}
+	}
+
+	@ExtendWith(SystemRulesExtension.class)
+	static class ParameterWithoutAnnotation {
+		@Test
+		void test(SystemOutRule systemOut) {
+		}
+	}
+
+	@Execution(ExecutionMode.CONCURRENT)
+	static class CaptureOutputConcurrently {
+		static final AtomicInteger numberOfActiveTests = new AtomicInteger();
+		static final AtomicInteger maxNumberOfActiveTests = new AtomicInteger();
+
+		@RepeatedTest(8)
+		@CaptureSystemOut(mute = true)
+		void test(SystemOutRule systemOut) throws Exception {
+			String text = Thread.currentThread().getName();
+			System.out.print(text);
+			recordActiveTest(numberOfActiveTests, maxNumberOfActiveTests);
+			assertEquals(text, systemOut.getLog());
+		}
+	}
+
+	@Execution(ExecutionMode.CONCURRENT)
+	static class ConcurrentTestsWithoutLock {
+		static final AtomicInteger numberOfActiveTests = new AtomicInteger();
+		static final AtomicInteger maxNumberOfActiveTests = new AtomicInteger();
+
+		@Test
+		void first() throws Exception {
+			recordActiveTest(numberOfActiveTests, maxNumberOfActiveTests);
+		}
+
+		@Test
+		void second() throws Exception {
+			recordActiveTest(numberOfActiveTests, maxNumberOfActiveTests);
+		}
+	}
+}
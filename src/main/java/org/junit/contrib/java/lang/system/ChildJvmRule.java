@@ -0,0 +1,206 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.getProperty;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.contrib.java.lang.system.internal.ChildJvmPool;
+import org.junit.contrib.java.lang.system.internal.ChildJvmResult;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * The {@code ChildJvmRule} runs the main method of a class in a separate
+ * JVM. Use it for programs that cannot be tested by the other rules, e.g.
+ * because they write to the file descriptors of the standard streams
+ * directly or because they change global state that cannot be restored.
+ * <pre>
+ * public class AppTest {
+ *   &#064;Rule
+ *   public final ChildJvmRule childJvm = new ChildJvmRule();
+ *
+ *   &#064;Test
+ *   public void exitsWithStatus1() throws Exception {
+ *     childJvm.expectSystemExitWithStatus(1);
+ *     childJvm.runMain(App.class, "--fail");
+ *     assertEquals("failed\n", childJvm.getLogWithNormalizedLineSeparator());
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>The rule has the same methods for specifying the expected
+ * {@code System.exit} call as {@link ExpectedSystemExit} and the same
+ * methods for accessing the output as {@link SystemOutRule} and
+ * {@link SystemErrRule}.
+ *
+ * <p>Starting a JVM takes some time. Therefore the rule keeps a pool of
+ * JVMs that are already started. Each JVM is used for a single run only
+ * and a new one is started in the background whenever a JVM is taken from
+ * the pool. The size of the pool is specified by the system property
+ * {@code systemRules.childJvmPoolSize} and defaults to 2. The JVMs use the
+ * class path, the encoding ({@code file.encoding}) and the {@code java}
+ * command of the current JVM.
+ *
+ * @since 1.13.0
+ */
+public class ChildJvmRule implements TestRule {
+	private final List<String> jvmOptions = new ArrayList<String>();
+	private final Collection<Assertion> assertions = new ArrayList<Assertion>();
+	private boolean expectExit = false;
+	private Integer expectedStatus = null;
+	private ChildJvmResult result = null;
+
+	/**
+	 * Adds options for the {@code java} command, e.g. {@code -Xmx64m}. JVMs
+	 * with different options are kept in different pools.
+	 *
+	 * @param options the options.
+	 * @return the rule itself.
+	 */
+	public ChildJvmRule withJvmOptions(String... options) {
+		jvmOptions.addAll(asList(options));
+		return this;
+	}
+
+	public void expectSystemExitWithStatus(int status) {
+		expectSystemExit();
+		expectedStatus = status;
+	}
+
+	public void expectSystemExit() {
+		expectExit = true;
+	}
+
+	public void checkAssertionAfterwards(Assertion assertion) {
+		assertions.add(assertion);
+	}
+
+	/**
+	 * Runs the main method of the specified class in a separate JVM and
+	 * waits until the JVM terminated.
+	 *
+	 * @param mainClass the class with the main method.
+	 * @param arguments the arguments of the main method.
+	 * @throws IllegalArgumentException if the JVM cannot find the class or
+	 * its main method.
+	 * @throws Exception if the JVM cannot be started or if the current
+	 * thread is interrupted while waiting for the JVM.
+	 */
+	public void runMain(Class<?> mainClass, String... arguments)
+			throws Exception {
+		result = pool().run(mainClass.getName(), arguments);
+	}
+
+	/**
+	 * Returns the status of the {@code System.exit} call. An uncaught
+	 * exception of the main method is reported as status 1, like the
+	 * {@code java} command does.
+	 *
+	 * @return the exit status or {@code null} if {@code System.exit} has
+	 * not been called.
+	 */
+	public Integer getExitStatus() {
+		return (result == null) ? null : result.getExitStatus();
+	}
+
+	/**
+	 * Returns the text that is written to {@code System.out} by the main
+	 * method.
+	 *
+	 * @return the text that is written to {@code System.out}.
+	 */
+	public String getLog() {
+		return (result == null) ? "" : decode(result.getOut());
+	}
+
+	/**
+	 * Returns the text that is written to {@code System.out} by the main
+	 * method. New line characters are replaced with a single {@code \n}.
+	 *
+	 * @return the normalized log.
+	 */
+	public String getLogWithNormalizedLineSeparator() {
+		return normalizeLineSeparator(getLog());
+	}
+
+	/**
+	 * Returns the text that is written to {@code System.err} by the main
+	 * method.
+	 *
+	 * @return the text that is written to {@code System.err}.
+	 */
+	public String getErrorLog() {
+		return (result == null) ? "" : decode(result.getErr());
+	}
+
+	/**
+	 * Returns the text that is written to {@code System.err} by the main
+	 * method. New line characters are replaced with a single {@code \n}.
+	 *
+	 * @return the normalized log.
+	 */
+	public String getErrorLogWithNormalizedLineSeparator() {
+		return normalizeLineSeparator(getErrorLog());
+	}
+
+	public Statement apply(final Statement base, Description description) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				pool().warmUp();
+				base.evaluate();
+				checkSystemExit();
+				checkAssertions();
+			}
+		};
+	}
+
+	private ChildJvmPool pool() {
+		return ChildJvmPool.withOptions(jvmOptions);
+	}
+
+	private String decode(byte[] bytes) {
+		try {
+			return new String(bytes, getProperty("file.encoding"));
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private String normalizeLineSeparator(String text) {
+		String lineSeparator = getProperty("line.separator");
+		return text.replace(lineSeparator, "\n");
+	}
+
+	private void checkSystemExit() {
+		Integer status = getExitStatus();
+		if (status == null)
+			handleMissingSystemExit();
+		else
+			handleSystemExitWithStatus(status);
+	}
+
+	private void handleMissingSystemExit() {
+		if (expectExit)
+			fail("System.exit has not been called.");
+	}
+
+	private void handleSystemExitWithStatus(int status) {
+		if (!expectExit)
+			fail("Unexpected call of System.exit(" + status + ").");
+		else if (expectedStatus != null)
+			assertEquals("Wrong exit status", expectedStatus, Integer.valueOf(status));
+	}
+
+	private void checkAssertions() throws Exception {
+		for (Assertion assertion : assertions)
+			assertion.checkAssertion();
+	}
+}
@@ -1,7 +1,21 @@
 package org.junit.contrib.java.lang.system;
 
+import static java.lang.System.getProperties;
+import static java.util.Arrays.asList;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.addOverlayForCurrentThread;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.removeOverlay;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.junit.contrib.java.lang.system.internal.OverheadMeasurement;
+import org.junit.contrib.java.lang.system.internal.PropertyNameFilter;
 import org.junit.contrib.java.lang.system.internal.RestoreSpecificSystemProperties;
+import org.junit.contrib.java.lang.system.internal.ThreadOverlays.Overlay;
 import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
 
 /**
  * The {@code ClearSystemProperties} rule clears a set of system
@@ -30,6 +44,18 @@ import org.junit.rules.ExternalResource;
  * public final TestRule clearSystemProperties
  *   = new ClearSystemProperties("first", "second", "third");
  * </pre>
+ * <p>Whole namespaces of properties can be cleared by a prefix, a glob
+ * pattern ({@code *} matches any characters, {@code ?} a single
+ * character) or a regular expression:
+ * <pre>
+ * &#064;Rule
+ * public final TestRule clearSystemProperties = new ClearSystemProperties()
+ *   .andPropertiesWithPrefix("app.")
+ *   .andPropertiesMatching("db.*.url")
+ *   .andPropertiesMatchingRegex("proxy\\.(host|port)");
+ * </pre>
+ * The names are resolved when the test starts by a single scan over the
+ * names of the current properties.
  * <h2>Clear property for a single test</h2>
  * <p>If you want to clear a property for a single test then you can
  * use
@@ -45,10 +71,23 @@ import org.junit.rules.ExternalResource;
  *   System.clearProperty("YourProperty");
  *   ...
  * }</pre>
+ * <h2>Parallel Tests</h2>
+ * <p>By default the rule clears the properties for the whole JVM. Tests
+ * that are executed in parallel need their own properties. This is
+ * provided by {@link #routePerThread()}: the properties are cleared for
+ * the test's thread and every thread that is created by it only.
+ * <pre>
+ * &#064;Rule
+ * public final TestRule clearSystemProperties
+ *   = new ClearSystemProperties("YourProperty").routePerThread();
+ * </pre>
  */
 public class ClearSystemProperties extends ExternalResource {
 	private final RestoreSpecificSystemProperties restoreSystemProperty = new RestoreSpecificSystemProperties();
 	private final String[] properties;
+	private final PropertyNameFilter filter = new PropertyNameFilter();
+	private boolean routePerThread = false;
+	private Overlay overlay;
 
 	/**
 	 * Creates a {@code ClearSystemProperties} rule that clears the specified
@@ -96,21 +135,94 @@ public class ClearSystemProperties extends ExternalResource {
 		System.clearProperty(property);
 	}
 
+	/**
+	 * Clears all properties whose names start with the specified prefix.
+	 *
+	 * @param prefix the prefix, e.g. {@code app.}.
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public ClearSystemProperties andPropertiesWithPrefix(String prefix) {
+		filter.addPrefix(prefix);
+		return this;
+	}
+
+	/**
+	 * Clears all properties whose names match the specified glob pattern.
+	 * The pattern {@code *} matches any number of characters and the
+	 * pattern {@code ?} matches a single character.
+	 *
+	 * @param glob the pattern, e.g. {@code db.*.url}.
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public ClearSystemProperties andPropertiesMatching(String glob) {
+		filter.addGlob(glob);
+		return this;
+	}
+
+	/**
+	 * Clears all properties whose names match the specified regular
+	 * expression. The whole name has to match the expression.
+	 *
+	 * @param regex the regular expression.
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public ClearSystemProperties andPropertiesMatchingRegex(String regex) {
+		filter.addRegex(Pattern.compile(regex));
+		return this;
+	}
+
+	/**
+	 * Clears the properties for the test's thread and its child threads
+	 * only. Threads that are created before the test starts (e.g. the
+	 * threads of a shared thread pool) see the original values. All changes
+	 * of system properties by these threads are discarded after the test.
+	 *
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public ClearSystemProperties routePerThread() {
+		routePerThread = true;
+		return this;
+	}
+
+	@Override
+	public Statement apply(Statement base, Description description) {
+		OverheadMeasurement measurement = OverheadMeasurement.of("ClearSystemProperties");
+		return measurement.around(super.apply(measurement.inside(base), description));
+	}
+
 	@Override
 	protected void before() throws Throwable {
+		if (routePerThread)
+			overlay = addOverlayForCurrentThread();
 		clearProperties();
 	}
 
 	@Override
 	protected void after() {
-		restoreOriginalValue();
+		if (routePerThread)
+			removeOverlay(overlay);
+		else
+			restoreOriginalValue();
 	}
 
 	private void clearProperties() {
-		for (String property : properties)
+		for (String property : propertiesToClear())
 			clearProperty(property);
 	}
 
+	private Set<String> propertiesToClear() {
+		Set<String> names = new LinkedHashSet<String>(asList(properties));
+		if (!filter.isEmpty())
+			for (String name : getProperties().stringPropertyNames())
+				if (filter.accepts(name))
+					names.add(name);
+		return names;
+	}
+
 	private void restoreOriginalValue() {
 		restoreSystemProperty.restore();
 	}
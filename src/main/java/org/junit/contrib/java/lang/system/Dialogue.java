@@ -0,0 +1,168 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.getProperty;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.contrib.java.lang.system.internal.OutputObserver;
+
+/**
+ * A {@code Dialogue} scripts the input of an interactive program. It
+ * connects a {@link SystemOutRule} (or a {@link SystemErrRule}) with a
+ * {@link TextFromStandardInputStream} and provides an answer as soon as the
+ * program writes the corresponding prompt.
+ *
+ * <pre>
+ * public class InteractiveTest {
+ *   &#064;Rule
+ *   public final SystemOutRule systemOutRule = new SystemOutRule().enableLog();
+ *
+ *   &#064;Rule
+ *   public final TextFromStandardInputStream systemInMock
+ *     = emptyStandardInputStream();
+ *
+ *   &#064;Test
+ *   public void test() {
+ *     new Dialogue(systemOutRule, systemInMock)
+ *       .answerLine("Name: ", "Alice")
+ *       .answerLine("Age: ", "42");
+ *     AskForNameAndAge.main();
+ *     assertEquals("Name: Age: Alice is 42.", systemOutRule.getLog());
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>The prompts are expected in the order of the script. The answer is
+ * released by the write of the prompt itself. Therefore the program gets
+ * the answer with its next read from {@code System.in} without any waiting,
+ * even if the prompt is written by a sequence of writes.
+ *
+ * @since 1.13.0
+ */
+public class Dialogue {
+	private final TextFromStandardInputStream systemInMock;
+	private final List<Step> steps = new ArrayList<Step>();
+	private int indexOfCurrentStep = 0;
+
+	/**
+	 * Creates a {@code Dialogue} that listens for prompts on
+	 * {@code System.out}.
+	 *
+	 * @param systemOutRule the rule that captures {@code System.out}.
+	 * @param systemInMock the rule that provides the answers.
+	 */
+	public Dialogue(SystemOutRule systemOutRule,
+			TextFromStandardInputStream systemInMock) {
+		this.systemInMock = systemInMock;
+		systemOutRule.addObserver(new PromptDetector());
+	}
+
+	/**
+	 * Creates a {@code Dialogue} that listens for prompts on
+	 * {@code System.err}.
+	 *
+	 * @param systemErrRule the rule that captures {@code System.err}.
+	 * @param systemInMock the rule that provides the answers.
+	 */
+	public Dialogue(SystemErrRule systemErrRule,
+			TextFromStandardInputStream systemInMock) {
+		this.systemInMock = systemInMock;
+		systemErrRule.addObserver(new PromptDetector());
+	}
+
+	/**
+	 * Provides the text to {@code System.in} when the prompt has been
+	 * written.
+	 *
+	 * @param prompt the text that is written by the program.
+	 * @param text the text that is returned by {@code System.in}
+	 * afterwards.
+	 * @return the dialogue itself.
+	 */
+	public synchronized Dialogue answerText(String prompt, String text) {
+		if (prompt.length() == 0)
+			throw new IllegalArgumentException("The prompt must not be empty.");
+		steps.add(new Step(prompt, text));
+		return this;
+	}
+
+	/**
+	 * Provides the line to {@code System.in} when the prompt has been
+	 * written. {@code System.getProperty("line.separator")} is used for the
+	 * end of line.
+	 *
+	 * @param prompt the text that is written by the program.
+	 * @param line the line that is returned by {@code System.in}
+	 * afterwards.
+	 * @return the dialogue itself.
+	 */
+	public Dialogue answerLine(String prompt, String line) {
+		return answerText(prompt, line + getProperty("line.separator"));
+	}
+
+	/**
+	 * Returns {@code true} if every prompt of the dialogue has been written.
+	 *
+	 * @return {@code true} if every prompt of the dialogue has been written.
+	 */
+	public synchronized boolean isComplete() {
+		return indexOfCurrentStep == steps.size();
+	}
+
+	private synchronized void written(byte[] buffer, int offset, int length) {
+		for (int i = offset; i < offset + length && !isComplete(); ++i) {
+			Step step = steps.get(indexOfCurrentStep);
+			if (step.isPromptCompletedBy(buffer[i])) {
+				systemInMock.appendText(step.answer);
+				++indexOfCurrentStep;
+			}
+		}
+	}
+
+	private class PromptDetector implements OutputObserver {
+		public void written(byte[] buffer, int offset, int length) {
+			Dialogue.this.written(buffer, offset, length);
+		}
+	}
+
+	/**
+	 * A step matches its prompt incrementally (Knuth-Morris-Pratt), so that
+	 * each written byte is inspected only once.
+	 */
+	private static class Step {
+		final byte[] prompt;
+		final int[] fallback;
+		final String answer;
+		int matchedBytes = 0;
+
+		Step(String prompt, String answer) {
+			/* The captured PrintStream writes with the default encoding. */
+			this.prompt = prompt.getBytes(Charset.defaultCharset());
+			this.fallback = createFallbackTable(this.prompt);
+			this.answer = answer;
+		}
+
+		boolean isPromptCompletedBy(byte b) {
+			while (matchedBytes > 0 && prompt[matchedBytes] != b)
+				matchedBytes = fallback[matchedBytes - 1];
+			if (prompt[matchedBytes] == b)
+				++matchedBytes;
+			return matchedBytes == prompt.length;
+		}
+
+		private static int[] createFallbackTable(byte[] pattern) {
+			int[] table = new int[pattern.length];
+			int length = 0;
+			for (int i = 1; i < pattern.length; ++i) {
+				while (length > 0 && pattern[i] != pattern[length])
+					length = table[length - 1];
+				if (pattern[i] == pattern[length])
+					++length;
+				table[i] = length;
+			}
+			return table;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedEnvironment.addOverlayForCurrentThread;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedEnvironment.removeOverlay;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.contrib.java.lang.system.internal.EditableEnvironment;
+import org.junit.contrib.java.lang.system.internal.OverheadMeasurement;
+import org.junit.contrib.java.lang.system.internal.ThreadOverlays.Overlay;
+import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * The {@code EnvironmentVariables} rule allows you to set environment
+ * variables within your test. All changes to environment variables are
+ * reverted after the test.
+ * <pre>
+ * public class EnvironmentVariablesTest {
+ *   &#064;Rule
+ *   public final EnvironmentVariables environmentVariables
+ *     = new EnvironmentVariables().set("name", "value");
+ *
+ *   &#064;Test
+ *   public void test() {
+ *     assertEquals("value", System.getenv("name"));
+ *     environmentVariables.set("other", "other value");
+ *     assertEquals("other value", System.getenv("other"));
+ *   }
+ * }
+ * </pre>
+ * <p>Variables that are set before the test starts are provided to the
+ * test. Variables that are set while the test is running are changed
+ * immediately. {@link #clear(String...)} removes variables.
+ *
+ * <p>The environment variables are changed within the current JVM only,
+ * so that there is no need for starting a separate JVM. Child processes
+ * that are started by the test inherit the changed variables. Java 16 and
+ * later require the JVM options
+ * {@code --add-opens java.base/java.lang=ALL-UNNAMED} and
+ * {@code --add-opens java.base/java.util=ALL-UNNAMED} or the option
+ * {@code -javaagent:path/to/system-rules.jar}.
+ *
+ * <h2>Parallel Tests</h2>
+ * <p>By default the rule changes the environment variables of the whole
+ * JVM. Tests that are executed in parallel need their own variables. This
+ * is provided by {@link #routePerThread()}: the test's thread and every
+ * thread that is created by it see the variables of the rule. All other
+ * threads see the original variables. Child processes don't inherit
+ * variables that are routed per thread and on Windows only
+ * {@code System.getenv()} provides them, but not
+ * {@code System.getenv(String)}.
+ */
+public class EnvironmentVariables extends ExternalResource {
+	private final Map<String, String> variablesOfTest
+		= new LinkedHashMap<String, String>();
+	private boolean routePerThread = false;
+	private boolean testIsRunning = false;
+	private Overlay overlay;
+	private EditableEnvironment.Snapshot snapshot;
+
+	/**
+	 * Sets the value of an environment variable. The variable is set when
+	 * the test starts or immediately if the test is already running.
+	 *
+	 * @param name the name of the environment variable.
+	 * @param value the new value or {@code null} for removing the variable.
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public EnvironmentVariables set(String name, String value) {
+		if (testIsRunning)
+			EditableEnvironment.set(name, value);
+		else
+			variablesOfTest.put(name, value);
+		return this;
+	}
+
+	/**
+	 * Removes environment variables. They are removed when the test starts
+	 * or immediately if the test is already running.
+	 *
+	 * @param names the names of the environment variables.
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public EnvironmentVariables clear(String... names) {
+		for (String name : names)
+			set(name, null);
+		return this;
+	}
+
+	/**
+	 * Provides the variables to the test's thread and its child threads
+	 * only. Threads that are created before the test starts (e.g. the
+	 * threads of a shared thread pool) see the original variables. All
+	 * changes of environment variables by these threads are discarded after
+	 * the test.
+	 *
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public EnvironmentVariables routePerThread() {
+		routePerThread = true;
+		return this;
+	}
+
+	@Override
+	public Statement apply(Statement base, Description description) {
+		OverheadMeasurement measurement = OverheadMeasurement.of("EnvironmentVariables");
+		return measurement.around(super.apply(measurement.inside(base), description));
+	}
+
+	@Override
+	protected void before() throws Throwable {
+		if (routePerThread)
+			overlay = addOverlayForCurrentThread();
+		else
+			snapshot = EditableEnvironment.takeSnapshot();
+		testIsRunning = true;
+		for (Map.Entry<String, String> variable : variablesOfTest.entrySet())
+			EditableEnvironment.set(variable.getKey(), variable.getValue());
+	}
+
+	@Override
+	protected void after() {
+		testIsRunning = false;
+		if (overlay != null) {
+			removeOverlay(overlay);
+			overlay = null;
+		}
+		if (snapshot != null) {
+			snapshot.restore();
+			snapshot = null;
+		}
+	}
+}
@@ -1,14 +1,26 @@
 package org.junit.contrib.java.lang.system;
 
 import static java.lang.System.getSecurityManager;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.junit.contrib.java.lang.system.internal.ExitHook.getInterceptor;
+import static org.junit.contrib.java.lang.system.internal.ExitHook.setInterceptor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.contrib.java.lang.system.internal.CheckExitCalled;
+import org.junit.contrib.java.lang.system.internal.ExitHook;
+import org.junit.contrib.java.lang.system.internal.ExitInterceptionAgent;
+import org.junit.contrib.java.lang.system.internal.ExitLog;
+import org.junit.contrib.java.lang.system.internal.NoExitInterceptor;
 import org.junit.contrib.java.lang.system.internal.NoExitSecurityManager;
+import org.junit.contrib.java.lang.system.internal.OverheadMeasurement;
+import org.junit.contrib.java.lang.system.internal.ShutdownHooks;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
@@ -28,7 +40,19 @@ import org.junit.runners.model.Statement;
  * <p>
  * Some care must be taken if your system under test creates a new thread and
  * this thread calls {@code System.exit()}. In this case you have to ensure that
- * the test does not finish before {@code System.exit()} is called.
+ * the test does not finish before {@code System.exit()} is called. The rule
+ * does this for you if you tell it how long to wait for the call.
+ * <pre>
+ *   exit.awaitSystemExit(5, TimeUnit.SECONDS);
+ * </pre>
+ * The rule stops waiting as soon as {@code System.exit()} is called.
+ *
+ * <p>
+ * {@code Runtime.getRuntime().halt()} is intercepted, too. If the code under
+ * test relies on shutdown hooks then the rule can run the hooks that are
+ * added during the test. See {@link #runShutdownHooks(long, TimeUnit)}.
+ * If several threads call {@code System.exit()} then the first call is
+ * checked by the rule and all calls are provided by {@link #getExitCalls()}.
  *
  * <pre>
  * public class AppWithExit {
@@ -84,6 +108,20 @@ import org.junit.runners.model.Statement;
  *   }
  * }
  * </pre>
+ *
+ * <h3>Without a Security Manager</h3>
+ * <p>By default the rule intercepts {@code System.exit()} by installing a
+ * security manager for the duration of the test. Every permission check of
+ * the JVM is delegated by this security manager and newer JDKs don't allow
+ * installing a security manager at all. Therefore System Rules provides a
+ * Java agent that instruments {@code Runtime.exit(int)} and
+ * {@code Runtime.halt(int)} instead. The rule uses the agent if the JVM has
+ * been started with the option
+ * <pre>
+ * -javaagent:path/to/system-rules.jar
+ * </pre>
+ * E.g. with Maven Surefire you add it to the {@code argLine}. In this case
+ * the security manager is not touched by the rule.
  */
 public class ExpectedSystemExit implements TestRule {
 	public static ExpectedSystemExit none() {
@@ -93,6 +131,13 @@ public class ExpectedSystemExit implements TestRule {
 	private final Collection<Assertion> assertions = new ArrayList<Assertion>();
 	private boolean expectExit = false;
 	private Integer expectedStatus = null;
+	private boolean recordStackTraces = false;
+	private volatile ExitLog exitLog = null;
+	private long awaitTimeout = 0;
+	private TimeUnit awaitTimeoutUnit = MILLISECONDS;
+	private boolean runShutdownHooks = false;
+	private long shutdownHooksTimeout;
+	private TimeUnit shutdownHooksTimeoutUnit;
 
 	private ExpectedSystemExit() {
 	}
@@ -110,38 +155,151 @@ public class ExpectedSystemExit implements TestRule {
 		assertions.add(assertion);
 	}
 
-	public Statement apply(final Statement base, Description description) {
-		ProvideSecurityManager noExitSecurityManagerRule = createNoExitSecurityManagerRule();
-		Statement statement = createStatement(base);
-		return noExitSecurityManagerRule.apply(statement, description);
+	/**
+	 * Waits for a call of {@code System.exit(int)} if the test finishes
+	 * without such a call. This is needed if {@code System.exit(int)} is
+	 * called by another thread. The rule continues as soon as the call
+	 * happens or the timeout elapses.
+	 *
+	 * @param timeout the maximum time to wait after the test finished.
+	 * @param unit the unit of the {@code timeout}.
+	 * @since 1.13.0
+	 */
+	public void awaitSystemExit(long timeout, TimeUnit unit) {
+		awaitTimeout = timeout;
+		awaitTimeoutUnit = unit;
+	}
+
+	/**
+	 * Runs the shutdown hooks that are added during the test after
+	 * {@code System.exit(int)} has been called. They are executed
+	 * concurrently like the JVM does and have to finish within the
+	 * specified time. An exception that is thrown by a hook fails the
+	 * test. The hooks are not executed if there is no call of
+	 * {@code System.exit(int)} or if the JVM is halted by
+	 * {@code Runtime.halt(int)}. In any case the hooks are removed after
+	 * the test, so that they are not executed when the JVM terminates.
+	 *
+	 * <p>The hooks are read by reflection. Java 16 and later allow this if
+	 * the JVM is started with the System Rules agent or with
+	 * {@code --add-opens java.base/java.lang=ALL-UNNAMED}.
+	 *
+	 * @param timeout the maximum time for running all hooks.
+	 * @param unit the unit of the {@code timeout}.
+	 * @since 1.13.0
+	 */
+	public void runShutdownHooks(long timeout, TimeUnit unit) {
+		runShutdownHooks = true;
+		shutdownHooksTimeout = timeout;
+		shutdownHooksTimeoutUnit = unit;
+	}
+
+	/**
+	 * Records the stack trace of each call of {@code System.exit(int)}. They
+	 * are provided by {@link SystemExitCall#getStackTrace()}.
+	 *
+	 * @since 1.13.0
+	 */
+	public void recordStackTraces() {
+		recordStackTraces = true;
+	}
+
+	/**
+	 * Returns all calls of {@code System.exit(int)} of the current test in
+	 * the order of their recording. This includes calls that happened after
+	 * the first call, e.g. by other threads. The first call determines the
+	 * exit status that is checked by this rule.
+	 *
+	 * @return the calls of {@code System.exit(int)}.
+	 * @since 1.13.0
+	 */
+	public List<SystemExitCall> getExitCalls() {
+		ExitLog currentLog = exitLog;
+		if (currentLog == null)
+			return Collections.emptyList();
+		List<SystemExitCall> calls = new ArrayList<SystemExitCall>();
+		for (ExitLog.Call call : currentLog.getCalls())
+			calls.add(new SystemExitCall(call));
+		return calls;
 	}
 
-	private ProvideSecurityManager createNoExitSecurityManagerRule() {
+	public Statement apply(Statement base, Description description) {
+		OverheadMeasurement measurement = OverheadMeasurement.of("ExpectedSystemExit");
+		return measurement.around(
+			createInterceptingStatement(measurement.inside(base), description));
+	}
+
+	private Statement createInterceptingStatement(final Statement base,
+			final Description description) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				exitLog = new ExitLog(recordStackTraces);
+				Statement statement = createStatement(base);
+				if (ExitInterceptionAgent.isInstalled())
+					interceptWithExitHook(statement).evaluate();
+				else
+					interceptWithNoExitSecurityManager(statement, description)
+						.evaluate();
+			}
+		};
+	}
+
+	private Statement interceptWithExitHook(Statement statement) {
+		return new InterceptWithExitHook(statement, new NoExitInterceptor(exitLog));
+	}
+
+	private Statement interceptWithNoExitSecurityManager(Statement statement,
+			Description description) {
 		NoExitSecurityManager noExitSecurityManager = new NoExitSecurityManager(
-			getSecurityManager());
-		return new ProvideSecurityManager(noExitSecurityManager);
+			getSecurityManager(), exitLog);
+		ProvideSecurityManager noExitSecurityManagerRule
+			= new ProvideSecurityManager(noExitSecurityManager);
+		return noExitSecurityManagerRule.apply(statement, description);
 	}
 
 	private Statement createStatement(final Statement base) {
 		return new Statement() {
 			@Override
 			public void evaluate() throws Throwable {
+				ShutdownHooks shutdownHooks = runShutdownHooks
+					? ShutdownHooks.takeSnapshot() : null;
+				List<Thread> newHooks = null;
 				try {
-					base.evaluate();
-				} catch (CheckExitCalled ignored) {
+					try {
+						base.evaluate();
+					} catch (CheckExitCalled ignored) {
+					}
+					exitLog.awaitFirstCall(awaitTimeout, awaitTimeoutUnit);
+				} finally {
+					if (shutdownHooks != null)
+						newHooks = shutdownHooks.removeNewHooks();
 				}
+				if (newHooks != null)
+					runShutdownHooksAfterExit(newHooks);
 				checkSystemExit();
 				checkAssertions();
 			}
 		};
 	}
 
+	private void runShutdownHooksAfterExit(List<Thread> newHooks)
+			throws Throwable {
+		ExitLog.Call firstCall = exitLog.getFirstCall();
+		if (firstCall != null && !firstCall.isHalt()) {
+			Throwable failure = ShutdownHooks.runHooks(newHooks,
+				shutdownHooksTimeout, shutdownHooksTimeoutUnit);
+			if (failure != null)
+				throw failure;
+		}
+	}
+
 	private void checkSystemExit() {
-		NoExitSecurityManager securityManager = (NoExitSecurityManager) getSecurityManager();
-		if (securityManager.isCheckExitCalled())
-			handleSystemExitWithStatus(securityManager.getStatusOfFirstCheckExitCall());
-		else
+		ExitLog.Call firstCall = exitLog.getFirstCall();
+		if (firstCall == null)
 			handleMissingSystemExit();
+		else
+			handleSystemExitWithStatus(firstCall.getStatus());
 	}
 
 	private void handleMissingSystemExit() {
@@ -160,4 +318,25 @@ public class ExpectedSystemExit implements TestRule {
 		for (Assertion assertion : assertions)
 			assertion.checkAssertion();
 	}
+
+	private static class InterceptWithExitHook extends Statement {
+		private final Statement statement;
+		private final ExitHook.Interceptor interceptor;
+
+		InterceptWithExitHook(Statement statement, ExitHook.Interceptor interceptor) {
+			this.statement = statement;
+			this.interceptor = interceptor;
+		}
+
+		@Override
+		public void evaluate() throws Throwable {
+			ExitHook.Interceptor originalInterceptor = getInterceptor();
+			setInterceptor(interceptor);
+			try {
+				statement.evaluate();
+			} finally {
+				setInterceptor(originalInterceptor);
+			}
+		}
+	}
 }
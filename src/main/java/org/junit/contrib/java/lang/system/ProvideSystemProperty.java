@@ -1,17 +1,21 @@
 package org.junit.contrib.java.lang.system;
 
 import static java.lang.System.clearProperty;
+import static org.junit.contrib.java.lang.system.internal.PropertiesCache.sharedCache;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.addOverlayForCurrentThread;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.removeOverlay;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Properties;
 
+import org.junit.contrib.java.lang.system.internal.OverheadMeasurement;
 import org.junit.contrib.java.lang.system.internal.RestoreSpecificSystemProperties;
+import org.junit.contrib.java.lang.system.internal.ThreadOverlays.Overlay;
 import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
 
 /**
  * The {@code ProvideSystemProperty} rule provides an arbitrary value for a
@@ -63,6 +67,9 @@ import org.junit.rules.ExternalResource;
  * public final ProvideSystemProperty properties = ProvideSystemProperty
  * 		.fromResource(&quot;example.properties&quot;);
  * </pre>
+ *
+ * <p>The parsed files are cached, so that a file that is used by many
+ * tests is read only once. A file is read again if it has been modified.
  * <h2>Set property for a single test</h2>
  * <p>If you want to set a property for a single test then you can use
  * {@link org.junit.contrib.java.lang.system.RestoreSystemProperties}
@@ -77,31 +84,38 @@ import org.junit.rules.ExternalResource;
  *   System.setProperty("YourProperty", "YourValue");
  *   ...
  * }</pre>
+ * <h2>Parallel Tests</h2>
+ * <p>By default the rule changes the system properties of the whole JVM.
+ * Tests that are executed in parallel need their own values. This is
+ * provided by {@link #routePerThread()}: the test's thread and every thread
+ * that is created by it see the values of the rule. All other threads see
+ * the original values.
+ * <pre>
+ * &#064;Rule
+ * public final ProvideSystemProperty provideSystemProperty
+ *   = new ProvideSystemProperty("MyProperty", "MyValue").routePerThread();
+ * </pre>
  */
 public class ProvideSystemProperty extends ExternalResource {
 	private final Map<String, String> properties = new LinkedHashMap<String, String>();
 	private final RestoreSpecificSystemProperties restoreSystemProperty = new RestoreSpecificSystemProperties();
+	private boolean routePerThread = false;
+	private Overlay overlay;
 
 	public static ProvideSystemProperty fromFile(String name)
 		throws IOException {
-		FileInputStream fis = new FileInputStream(name);
-		return fromInputStream(fis);
+		return fromMap(sharedCache().propertiesOfFile(name));
 	}
 
 	public static ProvideSystemProperty fromResource(String name)
 		throws IOException {
-		InputStream is = ProvideSystemProperty.class.getResourceAsStream(name);
-		return fromInputStream(is);
+		return fromMap(sharedCache().propertiesOfResource(
+			ProvideSystemProperty.class, name));
 	}
 
-	private static ProvideSystemProperty fromInputStream(InputStream is)
-		throws IOException {
-		Properties p = new Properties();
-		p.load(is);
+	private static ProvideSystemProperty fromMap(Map<String, String> properties) {
 		ProvideSystemProperty rule = new ProvideSystemProperty();
-		for (Map.Entry<Object, Object> property : p.entrySet())
-			rule.addProperty((String) property.getKey(),
-				(String) property.getValue());
+		rule.properties.putAll(properties);
 		return rule;
 	}
 
@@ -161,12 +175,34 @@ public class ProvideSystemProperty extends ExternalResource {
 		return this;
 	}
 
+	/**
+	 * Provides the values to the test's thread and its child threads only.
+	 * Threads that are created before the test starts (e.g. the threads of
+	 * a shared thread pool) see the original values. All changes of system
+	 * properties by these threads are discarded after the test.
+	 *
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public ProvideSystemProperty routePerThread() {
+		routePerThread = true;
+		return this;
+	}
+
 	private void addProperty(String name, String value) {
 		properties.put(name, value);
 	}
 
+	@Override
+	public Statement apply(Statement base, Description description) {
+		OverheadMeasurement measurement = OverheadMeasurement.of("ProvideSystemProperty");
+		return measurement.around(super.apply(measurement.inside(base), description));
+	}
+
 	@Override
 	protected void before() throws Throwable {
+		if (routePerThread)
+			overlay = addOverlayForCurrentThread();
 		setProperties();
 	}
 
@@ -180,6 +216,9 @@ public class ProvideSystemProperty extends ExternalResource {
 
 	@Override
 	protected void after() {
-		restoreSystemProperty.restore();
+		if (routePerThread)
+			removeOverlay(overlay);
+		else
+			restoreSystemProperty.restore();
 	}
 }
@@ -2,10 +2,21 @@ package org.junit.contrib.java.lang.system;
 
 import static java.lang.System.getProperties;
 import static java.lang.System.setProperties;
+import static org.junit.contrib.java.lang.system.internal.PropertiesSnapshot.takeSnapshot;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.addOverlayForCurrentThread;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.removeOverlay;
 
+import java.util.LinkedHashSet;
 import java.util.Properties;
+import java.util.Set;
 
+import org.junit.contrib.java.lang.system.internal.ChangeTrackingProperties;
+import org.junit.contrib.java.lang.system.internal.OverheadMeasurement;
+import org.junit.contrib.java.lang.system.internal.PropertiesSnapshot;
+import org.junit.contrib.java.lang.system.internal.ThreadOverlays.Overlay;
 import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
 
 /**
  * The {@code RestoreSystemProperties} rule undoes changes of system
@@ -26,9 +37,30 @@ import org.junit.rules.ExternalResource;
  * </pre>
  * After running the test, the system property {@code YourProperty} has
  * the value {@code YourValue} again.
+ *
+ * <p>The rule takes a snapshot of the system properties before the test
+ * and writes back the properties that have been changed by the test. The
+ * properties object is not replaced during the test. Therefore
+ * {@code System.getProperty} is as fast as without the rule, even if
+ * several rules are nested.
+ *
+ * <p>Tests that are executed in parallel must not change the properties of
+ * each other. Use {@link #routePerThread()} for them: the changes of the
+ * test's thread and of every thread that is created by it are only visible
+ * to these threads and discarded after the test.
+ *
+ * <p>Suites with many system properties can use {@link #trackChanges()}.
+ * The rule records each change of the test and restores only the changed
+ * properties. It also tells you which properties have been changed by the
+ * test.
  */
 public class RestoreSystemProperties extends ExternalResource {
-	private Properties originalProperties;
+	private PropertiesSnapshot snapshot;
+	private boolean routePerThread = false;
+	private Overlay overlay;
+	private boolean trackChanges = false;
+	private ChangeTrackingProperties trackingProperties;
+	private Set<String> changedProperties = null;
 
 	/**
 	 * Creates a {@code RestoreSystemProperties} rule that restores all
@@ -64,14 +96,113 @@ public class RestoreSystemProperties extends ExternalResource {
 	public void add(String property) {
 	}
 
+	/**
+	 * Isolates the changes of the test's thread and its child threads from
+	 * all other threads. Threads that are created before the test starts
+	 * (e.g. the threads of a shared thread pool) don't see the changes.
+	 *
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public RestoreSystemProperties routePerThread() {
+		routePerThread = true;
+		return this;
+	}
+
+	/**
+	 * Records every change of the system properties while the test is
+	 * running. Afterwards only the changed properties are restored and
+	 * {@link #getChangedProperties()} tells you which properties have been
+	 * changed. The rule replaces the system properties with a wrapper
+	 * during the test.
+	 *
+	 * <p>This option has no effect if {@link #routePerThread()} is used.
+	 *
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public RestoreSystemProperties trackChanges() {
+		trackChanges = true;
+		return this;
+	}
+
+	/**
+	 * Returns the names of the properties that have been changed by the
+	 * test. Properties that have been changed and then set back to their
+	 * original value are not returned. While the test is running (e.g. in
+	 * a method that is annotated with {@code @After}) the properties that
+	 * have been changed so far are returned.
+	 *
+	 * @return the names of the changed properties.
+	 * @throws IllegalStateException if {@link #trackChanges()} has not
+	 * been called.
+	 * @since 1.13.0
+	 */
+	public Set<String> getChangedProperties() {
+		if (!trackChanges)
+			throw new IllegalStateException(
+				"Changes are only recorded if trackChanges() has been called.");
+		else if (changedProperties != null)
+			return changedProperties;
+		else if (trackingProperties != null)
+			return toNames(trackingProperties.getChangedKeys());
+		else
+			return new LinkedHashSet<String>();
+	}
+
+	@Override
+	public Statement apply(Statement base, Description description) {
+		OverheadMeasurement measurement = OverheadMeasurement.of("RestoreSystemProperties");
+		return measurement.around(super.apply(measurement.inside(base), description));
+	}
+
 	@Override
 	protected void before() throws Throwable {
-		originalProperties = getProperties();
-		setProperties(new Properties(originalProperties));
+		if (routePerThread)
+			overlay = addOverlayForCurrentThread();
+		else if (trackChanges)
+			installTrackingProperties();
+		else
+			snapshot = takeSnapshot(getProperties());
 	}
 
 	@Override
 	protected void after() {
-		setProperties(originalProperties);
+		if (overlay != null) {
+			removeOverlay(overlay);
+			overlay = null;
+		} else if (trackingProperties != null)
+			restoreTrackedChanges();
+		else if (snapshot != null) {
+			restoreSnapshot(snapshot);
+			snapshot = null;
+		}
+	}
+
+	private void installTrackingProperties() {
+		changedProperties = null;
+		trackingProperties = new ChangeTrackingProperties(getProperties());
+		setProperties(trackingProperties.asSystemProperties());
+	}
+
+	private void restoreTrackedChanges() {
+		changedProperties = toNames(trackingProperties.getChangedKeys());
+		setProperties(trackingProperties.getOriginalProperties());
+		trackingProperties.restore();
+		trackingProperties = null;
+	}
+
+	private Set<String> toNames(Set<Object> keys) {
+		Set<String> names = new LinkedHashSet<String>();
+		for (Object key : keys)
+			names.add(String.valueOf(key));
+		return names;
+	}
+
+	private void restoreSnapshot(PropertiesSnapshot snapshot) {
+		Properties originalProperties = snapshot.getProperties();
+		if (getProperties() != originalProperties)
+			setProperties(originalProperties);
+		snapshot.restore();
 	}
 }
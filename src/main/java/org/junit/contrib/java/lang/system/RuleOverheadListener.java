@@ -0,0 +1,179 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.junit.contrib.java.lang.system.RuleOverheadSink.Phase.SETUP;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * The {@code RuleOverheadListener} measures how much time and memory the
+ * rules of System Rules need for all tests. It installs itself as
+ * {@link RuleOverheadSink} when the tests start and prints a summary when
+ * they have finished: the overhead of each rule and the tests with the
+ * highest overhead.
+ * <pre>
+ * Overhead of System Rules:
+ *   ExpectedSystemExit: 12 setups 0.812 ms, 12 teardowns 1.204 ms, 48128 bytes
+ *   SystemOutRule: 40 setups 0.421 ms, 40 teardowns 0.198 ms, 10240 bytes
+ * Tests with the highest overhead:
+ *   exitsWithError(AppTest): 0.305 ms, 4096 bytes
+ * </pre>
+ * With Maven Surefire the listener is added like the
+ * {@link SystemStateLeakListener}. The allocated bytes are only measured on
+ * JVMs that support {@code ThreadMXBean.getThreadAllocatedBytes}.
+ *
+ * @since 1.13.0
+ */
+public class RuleOverheadListener extends RunListener implements RuleOverheadSink {
+	private static final Comparator<Overhead> HIGHEST_OVERHEAD_FIRST
+		= new Comparator<Overhead>() {
+			public int compare(Overhead first, Overhead second) {
+				long firstNanos = first.getNanos();
+				long secondNanos = second.getNanos();
+				if (firstNanos == secondNanos)
+					return first.name.compareTo(second.name);
+				else
+					return (firstNanos > secondNanos) ? -1 : 1;
+			}
+		};
+
+	private final PrintStream report;
+	private final int numberOfReportedTests;
+	private final Map<String, Overhead> overheadOfRules
+		= new HashMap<String, Overhead>();
+	private final Map<Description, Overhead> overheadOfTests
+		= new HashMap<Description, Overhead>();
+	private final ThreadLocal<Description> currentTest
+		= new ThreadLocal<Description>();
+	private RuleOverheadSink previousSink;
+
+	/**
+	 * Creates a listener that prints the summary with the ten tests with
+	 * the highest overhead to {@code System.err}.
+	 */
+	public RuleOverheadListener() {
+		this(System.err, 10);
+	}
+
+	/**
+	 * Creates a listener that prints the summary to the specified stream.
+	 *
+	 * @param report the stream for the summary.
+	 * @param numberOfReportedTests the number of tests with the highest
+	 * overhead that are printed.
+	 */
+	public RuleOverheadListener(PrintStream report, int numberOfReportedTests) {
+		this.report = report;
+		this.numberOfReportedTests = numberOfReportedTests;
+	}
+
+	public synchronized void record(String rule, Phase phase, long nanos,
+			long allocatedBytes) {
+		overheadOf(overheadOfRules, rule, rule).add(phase, nanos, allocatedBytes);
+		Description test = currentTest.get();
+		if (test != null)
+			overheadOf(overheadOfTests, test, test.getDisplayName())
+				.add(phase, nanos, allocatedBytes);
+	}
+
+	@Override
+	public synchronized void testRunStarted(Description description) {
+		previousSink = RuleOverheadMetrics.getSink();
+		RuleOverheadMetrics.setSink(this);
+	}
+
+	@Override
+	public void testStarted(Description description) {
+		currentTest.set(description);
+	}
+
+	@Override
+	public void testFinished(Description description) {
+		currentTest.remove();
+	}
+
+	@Override
+	public synchronized void testRunFinished(Result result) {
+		if (RuleOverheadMetrics.getSink() == this)
+			RuleOverheadMetrics.setSink(previousSink);
+		if (overheadOfRules.isEmpty())
+			return;
+		report.println("Overhead of System Rules:");
+		for (Overhead rule : sorted(overheadOfRules))
+			report.println("  " + rule.name + ": " + rule.setups + " setups "
+				+ millis(rule.setupNanos) + ", " + rule.teardowns + " teardowns "
+				+ millis(rule.teardownNanos) + bytes(rule.allocatedBytes));
+		List<Overhead> tests = sorted(overheadOfTests);
+		if (tests.isEmpty())
+			return;
+		report.println("Tests with the highest overhead:");
+		for (Overhead test : tests.subList(0, Math.min(numberOfReportedTests, tests.size())))
+			report.println("  " + test.name + ": " + millis(test.getNanos())
+				+ bytes(test.allocatedBytes));
+	}
+
+	private <K> Overhead overheadOf(Map<K, Overhead> overheads, K key,
+			String name) {
+		Overhead overhead = overheads.get(key);
+		if (overhead == null) {
+			overhead = new Overhead(name);
+			overheads.put(key, overhead);
+		}
+		return overhead;
+	}
+
+	private List<Overhead> sorted(Map<?, Overhead> overheads) {
+		List<Overhead> sorted = new ArrayList<Overhead>(overheads.values());
+		Collections.sort(sorted, HIGHEST_OVERHEAD_FIRST);
+		return sorted;
+	}
+
+	private String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f ms", nanos / 1e6);
+	}
+
+	private String bytes(long allocatedBytes) {
+		return (allocatedBytes < 0) ? "" : ", " + allocatedBytes + " bytes";
+	}
+
+	private static class Overhead {
+		final String name;
+		int setups;
+		int teardowns;
+		long setupNanos;
+		long teardownNanos;
+		long allocatedBytes;
+
+		Overhead(String name) {
+			this.name = name;
+		}
+
+		void add(Phase phase, long nanos, long bytes) {
+			if (phase == SETUP) {
+				++setups;
+				setupNanos += nanos;
+			} else {
+				++teardowns;
+				teardownNanos += nanos;
+			}
+			if (bytes < 0 || allocatedBytes < 0)
+				allocatedBytes = -1;
+			else
+				allocatedBytes += bytes;
+		}
+
+		long getNanos() {
+			return setupNanos + teardownNanos;
+		}
+	}
+}
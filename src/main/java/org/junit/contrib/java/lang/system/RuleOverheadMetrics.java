@@ -0,0 +1,42 @@
+package org.junit.contrib.java.lang.system;
+
+/**
+ * {@code RuleOverheadMetrics} holds the {@link RuleOverheadSink} that is
+ * notified about the overhead of the rules. Nothing is measured if there is
+ * no sink.
+ * <pre>
+ * RuleOverheadMetrics.setSink(new RuleOverheadSink() {
+ *   public void record(String rule, Phase phase, long nanos, long allocatedBytes) {
+ *     registry.timer(rule + "." + phase).record(nanos, NANOSECONDS);
+ *   }
+ * });
+ * </pre>
+ * The sink is read when a rule is applied to a test. Therefore a new sink
+ * is used for the next test.
+ *
+ * @since 1.13.0
+ */
+public final class RuleOverheadMetrics {
+	private static volatile RuleOverheadSink sink = null;
+
+	private RuleOverheadMetrics() {
+	}
+
+	/**
+	 * Sets the sink for the overhead of the rules.
+	 *
+	 * @param sink the new sink or {@code null} for no measurements.
+	 */
+	public static void setSink(RuleOverheadSink sink) {
+		RuleOverheadMetrics.sink = sink;
+	}
+
+	/**
+	 * Returns the current sink.
+	 *
+	 * @return the sink or {@code null} if nothing is measured.
+	 */
+	public static RuleOverheadSink getSink() {
+		return sink;
+	}
+}
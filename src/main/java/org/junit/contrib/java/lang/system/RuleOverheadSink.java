@@ -0,0 +1,42 @@
+package org.junit.contrib.java.lang.system;
+
+/**
+ * A {@code RuleOverheadSink} receives the time and the memory that the
+ * rules of System Rules need for setting up and tearing down a test. The
+ * sink is installed by {@link RuleOverheadMetrics#setSink(RuleOverheadSink)}.
+ * {@link RuleOverheadListener} is a sink that prints a summary.
+ *
+ * <p>The sink is called by the thread that executes the test. It must be
+ * thread-safe if tests are executed in parallel.
+ *
+ * @since 1.13.0
+ */
+public interface RuleOverheadSink {
+	/**
+	 * Records the duration of a single setup or teardown.
+	 *
+	 * @param rule the simple name of the rule's class, e.g.
+	 * {@code "SystemOutRule"}.
+	 * @param phase whether the rule has been set up or torn down.
+	 * @param nanos the duration in nanoseconds.
+	 * @param allocatedBytes the bytes that have been allocated by the
+	 * thread or -1 if the JVM cannot measure them.
+	 */
+	void record(String rule, Phase phase, long nanos, long allocatedBytes);
+
+	/**
+	 * The part of the rule that has been measured.
+	 */
+	enum Phase {
+		/**
+		 * Everything that the rule does before the test.
+		 */
+		SETUP,
+
+		/**
+		 * Everything that the rule does after the test, including the
+		 * restoration of the original state.
+		 */
+		TEARDOWN
+	}
+}
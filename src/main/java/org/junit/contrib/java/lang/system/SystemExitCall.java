@@ -0,0 +1,84 @@
+package org.junit.contrib.java.lang.system;
+
+import org.junit.contrib.java.lang.system.internal.ExitLog;
+
+/**
+ * A {@code SystemExitCall} describes a call of {@code System.exit(int)} or
+ * {@code Runtime.halt(int)} that has been intercepted by
+ * {@link ExpectedSystemExit}.
+ *
+ * @since 1.13.0
+ */
+public final class SystemExitCall {
+	private final ExitLog.Call call;
+
+	SystemExitCall(ExitLog.Call call) {
+		this.call = call;
+	}
+
+	/**
+	 * Returns the status that has been passed to {@code System.exit(int)}.
+	 *
+	 * @return the exit status.
+	 */
+	public int getStatus() {
+		return call.getStatus();
+	}
+
+	/**
+	 * Returns {@code true} if {@code Runtime.halt(int)} has been called
+	 * instead of {@code System.exit(int)}. The JVM doesn't run shutdown hooks
+	 * when it is halted.
+	 *
+	 * @return whether the call was a call of {@code Runtime.halt(int)}.
+	 */
+	public boolean isHalt() {
+		return call.isHalt();
+	}
+
+	/**
+	 * Returns the name of the thread that called {@code System.exit(int)}.
+	 *
+	 * @return the name of the calling thread.
+	 */
+	public String getThreadName() {
+		return call.getThreadName();
+	}
+
+	/**
+	 * Returns the ID of the thread that called {@code System.exit(int)}.
+	 *
+	 * @return the ID of the calling thread.
+	 * @see Thread#getId()
+	 */
+	public long getThreadId() {
+		return call.getThreadId();
+	}
+
+	/**
+	 * Returns the time of the call.
+	 *
+	 * @return the time of the call in milliseconds since January 1, 1970 UTC.
+	 * @see System#currentTimeMillis()
+	 */
+	public long getTimeMillis() {
+		return call.getTimeMillis();
+	}
+
+	/**
+	 * Returns the stack trace of the call. It is only available if
+	 * {@link ExpectedSystemExit#recordStackTraces()} has been called.
+	 *
+	 * @return the stack trace of the call or {@code null}.
+	 */
+	public StackTraceElement[] getStackTrace() {
+		StackTraceElement[] stackTrace = call.getStackTrace();
+		return (stackTrace == null) ? null : stackTrace.clone();
+	}
+
+	@Override
+	public String toString() {
+		return (isHalt() ? "Runtime.halt(" : "System.exit(") + getStatus()
+			+ ") called by thread \"" + getThreadName() + "\"";
+	}
+}
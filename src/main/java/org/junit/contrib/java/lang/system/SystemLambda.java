@@ -0,0 +1,341 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.getProperties;
+import static java.lang.System.getProperty;
+import static java.lang.System.getSecurityManager;
+import static java.lang.System.setErr;
+import static java.lang.System.setIn;
+import static java.lang.System.setOut;
+import static java.lang.System.setProperties;
+import static java.lang.System.setSecurityManager;
+import static org.junit.contrib.java.lang.system.internal.ExitHook.getInterceptor;
+import static org.junit.contrib.java.lang.system.internal.ExitHook.setInterceptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.contrib.java.lang.system.internal.ChangeTrackingProperties;
+import org.junit.contrib.java.lang.system.internal.CheckExitCalled;
+import org.junit.contrib.java.lang.system.internal.ExitHook;
+import org.junit.contrib.java.lang.system.internal.ExitInterceptionAgent;
+import org.junit.contrib.java.lang.system.internal.ExitLog;
+import org.junit.contrib.java.lang.system.internal.NoExitInterceptor;
+import org.junit.contrib.java.lang.system.internal.NoExitSecurityManager;
+
+/**
+ * {@code SystemLambda} provides the features of the rules as static
+ * methods that execute a piece of code. They don't need a test framework
+ * and can be used in a loop or a benchmark.
+ * <pre>
+ * String output = tapSystemOut(new SystemLambda.Statement() {
+ *   public void execute() {
+ *     System.out.print("hello");
+ *   }
+ * });
+ * </pre>
+ * With Java 8 the statement can be a lambda:
+ * {@code tapSystemOut(() -> System.out.print("hello"))}.
+ *
+ * <p>Each method restores the original state after the statement, even if
+ * the statement throws an exception. The methods change the global state
+ * of the JVM. Therefore statements that are executed in parallel by
+ * different threads affect each other.
+ *
+ * @since 1.13.0
+ */
+public final class SystemLambda {
+	/**
+	 * The encoding of the text of {@code System.in}, {@code System.out} and
+	 * {@code System.err}.
+	 */
+	private static final String ENCODING = Charset.defaultCharset().name();
+	private static final Tap.Pool OUT_TAPS = new Tap.Pool();
+	private static final Tap.Pool ERR_TAPS = new Tap.Pool();
+
+	private SystemLambda() {
+	}
+
+	/**
+	 * Executes the statement and returns the text that it writes to
+	 * {@code System.out}. The text is not written to the original
+	 * {@code System.out}.
+	 *
+	 * @param statement the code that writes to {@code System.out}.
+	 * @return the text that has been written to {@code System.out}.
+	 * @throws Exception any exception that is thrown by the statement.
+	 */
+	public static String tapSystemOut(Statement statement) throws Exception {
+		PrintStream originalOut = System.out;
+		Tap tap = OUT_TAPS.take();
+		setOut(tap.stream);
+		try {
+			statement.execute();
+		} finally {
+			setOut(originalOut);
+		}
+		return OUT_TAPS.release(tap);
+	}
+
+	/**
+	 * Executes the statement and returns the text that it writes to
+	 * {@code System.err}. The text is not written to the original
+	 * {@code System.err}.
+	 *
+	 * @param statement the code that writes to {@code System.err}.
+	 * @return the text that has been written to {@code System.err}.
+	 * @throws Exception any exception that is thrown by the statement.
+	 */
+	public static String tapSystemErr(Statement statement) throws Exception {
+		PrintStream originalErr = System.err;
+		Tap tap = ERR_TAPS.take();
+		setErr(tap.stream);
+		try {
+			statement.execute();
+		} finally {
+			setErr(originalErr);
+		}
+		return ERR_TAPS.release(tap);
+	}
+
+	/**
+	 * Provides the lines to {@code System.in} while a statement is executed.
+	 * {@code System.getProperty("line.separator")} is used for the end of
+	 * line.
+	 * <pre>
+	 * withTextFromSystemIn("first line", "second line").execute(statement);
+	 * </pre>
+	 *
+	 * @param lines the lines that are read from {@code System.in}.
+	 * @return an object that executes the statement.
+	 */
+	public static WithTextFromSystemIn withTextFromSystemIn(String... lines) {
+		return new WithTextFromSystemIn(lines);
+	}
+
+	/**
+	 * Executes the statement and returns the status of its call of
+	 * {@code System.exit}. The JVM is not stopped. The statement is
+	 * terminated by the call.
+	 *
+	 * @param statement the code that calls {@code System.exit}.
+	 * @return the status of the call.
+	 * @throws AssertionError if {@code System.exit} has not been called.
+	 * @throws Exception any exception that is thrown by the statement.
+	 */
+	public static int catchSystemExit(Statement statement) throws Exception {
+		ExitLog exitLog = new ExitLog(false);
+		if (ExitInterceptionAgent.isInstalled())
+			executeWithInterceptor(statement, exitLog);
+		else
+			executeWithSecurityManager(statement, exitLog);
+		ExitLog.Call call = exitLog.getFirstCall();
+		if (call == null)
+			throw new AssertionError("System.exit has not been called.");
+		return call.getStatus();
+	}
+
+	/**
+	 * Executes the statement and restores the system properties afterwards.
+	 * Only the properties that are changed by the statement are written
+	 * back.
+	 *
+	 * @param statement the code that changes system properties.
+	 * @throws Exception any exception that is thrown by the statement.
+	 */
+	public static void restoreSystemProperties(Statement statement)
+			throws Exception {
+		new WithSystemProperties().execute(statement);
+	}
+
+	/**
+	 * Sets a system property while a statement is executed. Further
+	 * properties can be added by {@link WithSystemProperties#and(String, String)}.
+	 * <pre>
+	 * withSystemProperty("first", "1").and("second", "2").execute(statement);
+	 * </pre>
+	 *
+	 * @param name the name of the property.
+	 * @param value the value or {@code null} for clearing the property.
+	 * @return an object that executes the statement.
+	 */
+	public static WithSystemProperties withSystemProperty(String name,
+			String value) {
+		return new WithSystemProperties().and(name, value);
+	}
+
+	private static void executeWithInterceptor(Statement statement,
+			ExitLog exitLog) throws Exception {
+		ExitHook.Interceptor originalInterceptor = getInterceptor();
+		setInterceptor(new NoExitInterceptor(exitLog));
+		try {
+			executeUntilExit(statement);
+		} finally {
+			setInterceptor(originalInterceptor);
+		}
+	}
+
+	private static void executeWithSecurityManager(Statement statement,
+			ExitLog exitLog) throws Exception {
+		SecurityManager originalSecurityManager = getSecurityManager();
+		setSecurityManager(new NoExitSecurityManager(originalSecurityManager, exitLog));
+		try {
+			executeUntilExit(statement);
+		} finally {
+			setSecurityManager(originalSecurityManager);
+		}
+	}
+
+	private static void executeUntilExit(Statement statement) throws Exception {
+		try {
+			statement.execute();
+		} catch (CheckExitCalled ignored) {
+		}
+	}
+
+	/**
+	 * The code that is executed by {@code SystemLambda}. It can be
+	 * implemented by a lambda.
+	 */
+	public interface Statement {
+		void execute() throws Exception;
+	}
+
+	/**
+	 * Executes a statement with text from {@code System.in}.
+	 */
+	public static class WithTextFromSystemIn {
+		private final String text;
+
+		private WithTextFromSystemIn(String[] lines) {
+			StringBuilder text = new StringBuilder();
+			String lineSeparator = getProperty("line.separator");
+			for (String line : lines)
+				text.append(line).append(lineSeparator);
+			this.text = text.toString();
+		}
+
+		/**
+		 * Executes the statement. {@code System.in} is restored afterwards.
+		 *
+		 * @param statement the code that reads from {@code System.in}.
+		 * @throws Exception any exception that is thrown by the statement.
+		 */
+		public void execute(Statement statement) throws Exception {
+			InputStream originalIn = System.in;
+			setIn(new ByteArrayInputStream(text.getBytes(ENCODING)));
+			try {
+				statement.execute();
+			} finally {
+				setIn(originalIn);
+			}
+		}
+	}
+
+	/**
+	 * Executes a statement with system properties.
+	 */
+	public static class WithSystemProperties {
+		private final Map<String, String> properties
+			= new LinkedHashMap<String, String>();
+
+		private WithSystemProperties() {
+		}
+
+		/**
+		 * Sets another property while the statement is executed.
+		 *
+		 * @param name the name of the property.
+		 * @param value the value or {@code null} for clearing the property.
+		 * @return this object.
+		 */
+		public WithSystemProperties and(String name, String value) {
+			properties.put(name, value);
+			return this;
+		}
+
+		/**
+		 * Executes the statement. The original values of the properties are
+		 * restored afterwards. This includes properties that are changed by
+		 * the statement.
+		 *
+		 * @param statement the code that uses the properties.
+		 * @throws Exception any exception that is thrown by the statement.
+		 */
+		public void execute(Statement statement) throws Exception {
+			ChangeTrackingProperties trackingProperties
+				= new ChangeTrackingProperties(getProperties());
+			setProperties(trackingProperties.asSystemProperties());
+			try {
+				for (Map.Entry<String, String> property : properties.entrySet())
+					if (property.getValue() == null)
+						trackingProperties.remove(property.getKey());
+					else
+						trackingProperties.setProperty(property.getKey(),
+							property.getValue());
+				statement.execute();
+			} finally {
+				setProperties(trackingProperties.getOriginalProperties());
+				trackingProperties.restore();
+			}
+		}
+	}
+
+	/**
+	 * A {@code Tap} is the stream that replaces {@code System.out} or
+	 * {@code System.err}. Taps are reused, so that capturing the output in
+	 * a loop doesn't allocate a new stream and buffer each time.
+	 */
+	private static class Tap {
+		private static final int MAX_REUSED_BUFFER_SIZE = 1 << 16;
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final PrintStream stream;
+
+		Tap() {
+			try {
+				stream = new PrintStream(buffer, false, ENCODING);
+			} catch (UnsupportedEncodingException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		String readAndReset() {
+			stream.flush();
+			try {
+				return buffer.toString(ENCODING);
+			} catch (UnsupportedEncodingException e) {
+				throw new RuntimeException(e);
+			} finally {
+				buffer.reset();
+			}
+		}
+
+		/**
+		 * Holds a single idle tap. Nested calls and calls from other
+		 * threads get a new tap while the idle tap is in use.
+		 */
+		static class Pool {
+			private final AtomicReference<Tap> idleTap = new AtomicReference<Tap>();
+
+			Tap take() {
+				Tap tap = idleTap.getAndSet(null);
+				return (tap == null) ? new Tap() : tap;
+			}
+
+			String release(Tap tap) {
+				boolean reusable = tap.buffer.size() <= MAX_REUSED_BUFFER_SIZE;
+				String text = tap.readAndReset();
+				if (reusable)
+					idleTap.set(tap);
+				return text;
+			}
+		}
+	}
+}
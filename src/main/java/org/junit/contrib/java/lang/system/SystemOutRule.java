@@ -2,6 +2,13 @@ package org.junit.contrib.java.lang.system;
 
 import static org.junit.contrib.java.lang.system.internal.PrintStreamHandler.SYSTEM_OUT;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import org.junit.contrib.java.lang.system.internal.OutputObserver;
 import org.junit.contrib.java.lang.system.internal.PrintStreamRule;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
@@ -89,6 +96,29 @@ import org.junit.runners.model.Statement;
  * }
  * </pre>
  *
+ * <h2>Golden Files</h2>
+ *
+ * <p>Large outputs can be compared with the content of a file. The file is
+ * not loaded into memory and the first difference is reported with a short
+ * context.
+ *
+ * <pre>
+ * public class SystemOutTest {
+ *   &#064;Rule
+ *   public final SystemOutRule systemOutRule = new SystemOutRule().enableLog();
+ *
+ *   &#064;Test
+ *   public void test() throws Exception {
+ *     Report.print();
+ *     systemOutRule.assertLogEqualsFile(new File("src/test/resources/report.txt"));
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>If the system property {@code systemRules.updateGoldenFiles} is
+ * {@code true} then the log is written to the file instead of being
+ * compared with it. This helps you to create and update the files.
+ *
  * <h2>Muting</h2>
  *
  * <p>Usually the output of a test to {@code System.out} does not have to be
@@ -221,6 +251,90 @@ public class SystemOutRule implements TestRule {
 		return printStreamRule.getLogWithNormalizedLineSeparator();
 	}
 
+	/**
+	 * Returns the bytes that are written to {@code System.out} since
+	 * {@link #enableLog()} (respectively {@link #clearLog()} has been called.
+	 * The bytes are not decoded. Use this method for binary output.
+	 *
+	 * @return a copy of the bytes that are written to {@code System.out}.
+	 * @since 1.13.0
+	 */
+	public byte[] getLogAsBytes() {
+		return printStreamRule.getLogAsBytes();
+	}
+
+	/**
+	 * Returns a read-only view of the bytes that are written to
+	 * {@code System.out} since {@link #enableLog()} (respectively
+	 * {@link #clearLog()} has been called. The bytes are neither decoded
+	 * nor copied. The view does not contain bytes that are written after
+	 * calling this method and it must not be used after
+	 * {@link #clearLog()} has been called.
+	 *
+	 * @return a read-only view of the log.
+	 * @since 1.13.0
+	 */
+	public ByteBuffer getLogAsByteBuffer() {
+		return printStreamRule.getLogAsByteBuffer();
+	}
+
+	/**
+	 * Writes the bytes that are written to {@code System.out} since
+	 * {@link #enableLog()} (respectively {@link #clearLog()} has been called
+	 * to the specified stream. The log is neither decoded nor copied.
+	 *
+	 * @param out the stream that receives the log.
+	 * @throws IOException if the stream cannot be written.
+	 * @since 1.13.0
+	 */
+	public void writeLogTo(OutputStream out) throws IOException {
+		printStreamRule.writeLogTo(out);
+	}
+
+	/**
+	 * Writes the bytes that are written to {@code System.out} since
+	 * {@link #enableLog()} (respectively {@link #clearLog()} has been called
+	 * to the specified channel, e.g. a {@link java.nio.channels.FileChannel}.
+	 * The log is neither decoded nor copied.
+	 *
+	 * @param channel the channel that receives the log.
+	 * @throws IOException if the channel cannot be written.
+	 * @since 1.13.0
+	 */
+	public void writeLogTo(WritableByteChannel channel) throws IOException {
+		printStreamRule.writeLogTo(channel);
+	}
+
+	/**
+	 * Asserts that the log is equal to the content of the file. The file
+	 * is compared byte by byte with the log without loading it into memory.
+	 * If the system property {@code systemRules.updateGoldenFiles} is
+	 * {@code true} then the log is written to the file instead.
+	 *
+	 * @param file the file with the expected log.
+	 * @throws IOException if the file cannot be read (respectively written).
+	 * @since 1.13.0
+	 */
+	public void assertLogEqualsFile(File file) throws IOException {
+		printStreamRule.assertLogEqualsFile(file, false);
+	}
+
+	/**
+	 * Asserts that the log is equal to the content of the file after
+	 * replacing each {@code \r\n} with a single {@code \n} in both of them.
+	 * The file is compared with the log without loading it into memory. If
+	 * the system property {@code systemRules.updateGoldenFiles} is
+	 * {@code true} then the normalized log is written to the file instead.
+	 *
+	 * @param file the file with the expected log.
+	 * @throws IOException if the file cannot be read (respectively written).
+	 * @since 1.13.0
+	 */
+	public void assertLogWithNormalizedLineSeparatorEqualsFile(File file)
+			throws IOException {
+		printStreamRule.assertLogEqualsFile(file, true);
+	}
+
 	/**
 	 * Start logging of everything that is written to {@code System.out}.
 	 *
@@ -231,6 +345,10 @@ public class SystemOutRule implements TestRule {
 		return this;
 	}
 
+	void addObserver(OutputObserver observer) {
+		printStreamRule.addObserver(observer);
+	}
+
 	public Statement apply(Statement base, Description description) {
 		return printStreamRule.apply(base, description);
 	}
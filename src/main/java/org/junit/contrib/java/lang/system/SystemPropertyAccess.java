@@ -0,0 +1,77 @@
+package org.junit.contrib.java.lang.system;
+
+/**
+ * A {@code SystemPropertyAccess} summarizes the accesses of a single system
+ * property during a test. It is created by {@link SystemPropertyProfiler}.
+ *
+ * @since 1.13.0
+ */
+public final class SystemPropertyAccess {
+	private final String name;
+	private final long reads;
+	private final long writes;
+	private final long readNanos;
+	private final StackTraceElement[] firstAccess;
+
+	public SystemPropertyAccess(String name, long reads, long writes,
+			long readNanos, StackTraceElement[] firstAccess) {
+		this.name = name;
+		this.reads = reads;
+		this.writes = writes;
+		this.readNanos = readNanos;
+		this.firstAccess = firstAccess.clone();
+	}
+
+	/**
+	 * Returns the name of the property.
+	 *
+	 * @return the name of the property.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns how often the property has been read, e.g. by
+	 * {@code System.getProperty(String)}.
+	 *
+	 * @return the number of reads.
+	 */
+	public long getReads() {
+		return reads;
+	}
+
+	/**
+	 * Returns how often the property has been set or removed.
+	 *
+	 * @return the number of writes.
+	 */
+	public long getWrites() {
+		return writes;
+	}
+
+	/**
+	 * Returns the time that has been spent for looking up the property.
+	 *
+	 * @return the cumulative time of all reads in nanoseconds.
+	 */
+	public long getReadNanos() {
+		return readNanos;
+	}
+
+	/**
+	 * Returns the stack trace of the first read or write of the property.
+	 *
+	 * @return the stack trace of the first access.
+	 */
+	public StackTraceElement[] getFirstAccess() {
+		return firstAccess.clone();
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + reads + " reads (" + readNanos + " ns), "
+			+ writes + " writes, first access at "
+			+ (firstAccess.length == 0 ? "unknown" : firstAccess[0]);
+	}
+}
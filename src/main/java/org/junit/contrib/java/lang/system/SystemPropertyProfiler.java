@@ -0,0 +1,142 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.getProperties;
+import static java.lang.System.setProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.contrib.java.lang.system.internal.ProfilingProperties;
+import org.junit.contrib.java.lang.system.internal.ProfilingProperties.Counter;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * The {@code SystemPropertyProfiler} records which system properties are
+ * read and written by a test and how often. Use it for finding code that
+ * reads a property in a hot loop and should cache the value.
+ * <pre>
+ * public class MyTest {
+ *   &#064;Rule
+ *   public final SystemPropertyProfiler profiler = new SystemPropertyProfiler();
+ *
+ *   &#064;Test
+ *   public void readsConfigurationOnce() {
+ *     new Service().handleRequests(1000);
+ *     for (SystemPropertyAccess access : profiler.getAccesses())
+ *       assertTrue(access.getName(), access.getReads() &lt;= 1);
+ *   }
+ * }
+ * </pre>
+ * The accesses are sorted by the number of reads, so that the most
+ * frequently read property is the first one. Each access provides the
+ * cumulative time of the lookups and the stack trace of the first access.
+ *
+ * <p>The accesses can be reported after each test by a {@link Listener}.
+ * <pre>
+ * &#064;Rule
+ * public final SystemPropertyProfiler profiler = new SystemPropertyProfiler()
+ *   .withListener(new SystemPropertyProfiler.Listener() {
+ *     public void testFinished(Description test, List&lt;SystemPropertyAccess&gt; accesses) {
+ *       System.out.println(test + ": " + accesses);
+ *     }
+ *   });
+ * </pre>
+ *
+ * <p>The rule replaces the system properties with a wrapper during the
+ * test. Accesses through the views of the properties (e.g.
+ * {@code System.getProperties().entrySet()}) are not recorded.
+ *
+ * @since 1.13.0
+ */
+public class SystemPropertyProfiler implements TestRule {
+	private static final Comparator<SystemPropertyAccess> MOST_READS_FIRST
+		= new Comparator<SystemPropertyAccess>() {
+			public int compare(SystemPropertyAccess first, SystemPropertyAccess second) {
+				if (first.getReads() == second.getReads())
+					return first.getName().compareTo(second.getName());
+				else
+					return (first.getReads() > second.getReads()) ? -1 : 1;
+			}
+		};
+
+	private final List<Listener> listeners = new ArrayList<Listener>();
+	private ProfilingProperties profilingProperties = null;
+	private List<SystemPropertyAccess> accesses
+		= Collections.<SystemPropertyAccess>emptyList();
+
+	/**
+	 * Adds a listener that is notified about the accesses after each test.
+	 *
+	 * @param listener the listener.
+	 * @return the rule itself.
+	 */
+	public SystemPropertyProfiler withListener(Listener listener) {
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Returns the properties that have been accessed by the test. While the
+	 * test is running the accesses so far are returned.
+	 *
+	 * @return the accesses, the most frequently read property first.
+	 */
+	public List<SystemPropertyAccess> getAccesses() {
+		if (profilingProperties == null)
+			return accesses;
+		else
+			return accessesOf(profilingProperties);
+	}
+
+	public Statement apply(final Statement base, final Description description) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				profilingProperties = new ProfilingProperties(getProperties());
+				setProperties(profilingProperties.asSystemProperties());
+				try {
+					base.evaluate();
+				} finally {
+					setProperties(profilingProperties.getOriginalProperties());
+					accesses = accessesOf(profilingProperties);
+					profilingProperties = null;
+					notifyListeners(description);
+				}
+			}
+		};
+	}
+
+	private List<SystemPropertyAccess> accessesOf(ProfilingProperties properties) {
+		List<SystemPropertyAccess> accesses = new ArrayList<SystemPropertyAccess>();
+		for (Counter counter : properties.getCounters())
+			accesses.add(new SystemPropertyAccess(String.valueOf(counter.getKey()),
+				counter.getReads(), counter.getWrites(), counter.getReadNanos(),
+				counter.getFirstAccess()));
+		Collections.sort(accesses, MOST_READS_FIRST);
+		return Collections.unmodifiableList(accesses);
+	}
+
+	private void notifyListeners(Description description) {
+		for (Listener listener : listeners)
+			listener.testFinished(description, accesses);
+	}
+
+	/**
+	 * A {@code Listener} is notified about the system properties that have
+	 * been accessed by a test.
+	 */
+	public interface Listener {
+		/**
+		 * Is called after each test, whether it passes or fails.
+		 *
+		 * @param test the description of the test.
+		 * @param accesses the accesses, the most frequently read property
+		 * first.
+		 */
+		void testFinished(Description test, List<SystemPropertyAccess> accesses);
+	}
+}
@@ -0,0 +1,287 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.junit.contrib.java.lang.system.TextFromStandardInputStream.emptyStandardInputStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * {@code SystemRules} combines the rules of this library that are often
+ * used together. It is created by a {@link Builder}.
+ * <pre>
+ * public class AppTest {
+ *   &#064;Rule
+ *   public final SystemRules system = SystemRules.builder()
+ *     .captureSystemOut()
+ *     .provideSystemIn()
+ *     .interceptSystemExit()
+ *     .restoreSystemProperties()
+ *     .build();
+ *
+ *   &#064;Test
+ *   public void exitsAfterQuit() {
+ *     system.systemIn().provideLines("quit");
+ *     system.exit().expectSystemExitWithStatus(0);
+ *     system.exit().checkAssertionAfterwards(new Assertion() {
+ *       public void checkAssertion() {
+ *         assertEquals("bye\n", system.systemOut().getLogWithNormalizedLineSeparator());
+ *       }
+ *     });
+ *     App.main();
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>The rules are always applied in the same order, regardless of the
+ * order of the builder's calls. From the outermost to the innermost rule:
+ * {@link RestoreSystemProperties}, {@link SystemErrRule},
+ * {@link SystemOutRule}, {@link TextFromStandardInputStream} and
+ * {@link ExpectedSystemExit}. Therefore the original state is restored in
+ * the opposite order: the security manager first and the system
+ * properties last. {@code ExpectedSystemExit} is the innermost rule, so
+ * that the other rules see a test that calls {@code System.exit} as
+ * expected as a successful test. Each rule restores its state even if an
+ * inner rule fails.
+ *
+ * <p>The rules are nested instead of being merged into a single step that
+ * installs and restores all state. A single step would only save the
+ * nesting of the statements, but most of the overhead is the replacement
+ * and restoration of the state itself. Use the
+ * {@link RuleOverheadListener} for measuring it.
+ *
+ * @since 1.13.0
+ */
+public class SystemRules implements TestRule {
+	private final RestoreSystemProperties restoreSystemProperties;
+	private final SystemErrRule systemErr;
+	private final SystemOutRule systemOut;
+	private final TextFromStandardInputStream systemIn;
+	private final ExpectedSystemExit exit;
+	private final List<TestRule> rulesFromOutermostToInnermost
+		= new ArrayList<TestRule>();
+
+	private SystemRules(Builder builder) {
+		restoreSystemProperties = builder.restoreSystemProperties;
+		systemErr = builder.systemErr;
+		systemOut = builder.systemOut;
+		systemIn = builder.systemIn;
+		exit = builder.exit;
+		addRule(restoreSystemProperties);
+		addRule(systemErr);
+		addRule(systemOut);
+		addRule(systemIn);
+		addRule(exit);
+	}
+
+	/**
+	 * Creates a builder for {@code SystemRules}.
+	 *
+	 * @return a builder without any rule.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns the rule that captures {@code System.out}.
+	 *
+	 * @return the {@code SystemOutRule}.
+	 * @throws IllegalStateException if {@code System.out} is not captured.
+	 */
+	public SystemOutRule systemOut() {
+		return requireRule(systemOut, "captureSystemOut()");
+	}
+
+	/**
+	 * Returns the rule that captures {@code System.err}.
+	 *
+	 * @return the {@code SystemErrRule}.
+	 * @throws IllegalStateException if {@code System.err} is not captured.
+	 */
+	public SystemErrRule systemErr() {
+		return requireRule(systemErr, "captureSystemErr()");
+	}
+
+	/**
+	 * Returns the rule that provides {@code System.in}.
+	 *
+	 * @return the {@code TextFromStandardInputStream}.
+	 * @throws IllegalStateException if {@code System.in} is not provided.
+	 */
+	public TextFromStandardInputStream systemIn() {
+		return requireRule(systemIn, "provideSystemIn()");
+	}
+
+	/**
+	 * Returns the rule that intercepts {@code System.exit}.
+	 *
+	 * @return the {@code ExpectedSystemExit}.
+	 * @throws IllegalStateException if {@code System.exit} is not
+	 * intercepted.
+	 */
+	public ExpectedSystemExit exit() {
+		return requireRule(exit, "interceptSystemExit()");
+	}
+
+	public Statement apply(Statement base, Description description) {
+		Statement statement = base;
+		for (int i = rulesFromOutermostToInnermost.size() - 1; i >= 0; --i)
+			statement = rulesFromOutermostToInnermost.get(i).apply(statement, description);
+		return statement;
+	}
+
+	private void addRule(TestRule rule) {
+		if (rule != null)
+			rulesFromOutermostToInnermost.add(rule);
+	}
+
+	private <T> T requireRule(T rule, String builderMethod) {
+		if (rule == null)
+			throw new IllegalStateException("The rule has not been added. Please call "
+				+ builderMethod + " of the builder.");
+		return rule;
+	}
+
+	/**
+	 * Creates {@link SystemRules}. Each method adds a rule. The methods
+	 * without arguments add a rule with the default configuration (output
+	 * is logged). The other methods add an existing rule, e.g. a
+	 * {@code new SystemOutRule().mute().enableLog()}.
+	 */
+	public static class Builder {
+		private RestoreSystemProperties restoreSystemProperties;
+		private SystemErrRule systemErr;
+		private SystemOutRule systemOut;
+		private TextFromStandardInputStream systemIn;
+		private ExpectedSystemExit exit;
+
+		private Builder() {
+		}
+
+		/**
+		 * Adds a {@link RestoreSystemProperties} rule.
+		 *
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder restoreSystemProperties() {
+			return restoreSystemProperties(new RestoreSystemProperties());
+		}
+
+		/**
+		 * Adds the specified {@link RestoreSystemProperties} rule.
+		 *
+		 * @param rule the rule that restores the system properties.
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder restoreSystemProperties(RestoreSystemProperties rule) {
+			restoreSystemProperties = rule;
+			return this;
+		}
+
+		/**
+		 * Adds a {@link SystemErrRule} that logs {@code System.err}.
+		 *
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder captureSystemErr() {
+			return captureSystemErr(new SystemErrRule().enableLog());
+		}
+
+		/**
+		 * Adds the specified {@link SystemErrRule}.
+		 *
+		 * @param rule the rule that captures {@code System.err}.
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder captureSystemErr(SystemErrRule rule) {
+			systemErr = rule;
+			return this;
+		}
+
+		/**
+		 * Adds a {@link SystemOutRule} that logs {@code System.out}.
+		 *
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder captureSystemOut() {
+			return captureSystemOut(new SystemOutRule().enableLog());
+		}
+
+		/**
+		 * Adds the specified {@link SystemOutRule}.
+		 *
+		 * @param rule the rule that captures {@code System.out}.
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder captureSystemOut(SystemOutRule rule) {
+			systemOut = rule;
+			return this;
+		}
+
+		/**
+		 * Adds a {@link TextFromStandardInputStream} without any text.
+		 *
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder provideSystemIn() {
+			return provideSystemIn(emptyStandardInputStream());
+		}
+
+		/**
+		 * Adds the specified {@link TextFromStandardInputStream}.
+		 *
+		 * @param rule the rule that provides {@code System.in}.
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder provideSystemIn(TextFromStandardInputStream rule) {
+			systemIn = rule;
+			return this;
+		}
+
+		/**
+		 * Adds an {@link ExpectedSystemExit} that doesn't expect a call of
+		 * {@code System.exit}.
+		 *
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder interceptSystemExit() {
+			return interceptSystemExit(ExpectedSystemExit.none());
+		}
+
+		/**
+		 * Adds the specified {@link ExpectedSystemExit}.
+		 *
+		 * @param rule the rule that intercepts {@code System.exit}.
+		 * @return the builder itself.
+		 * @since 1.13.0
+		 */
+		public Builder interceptSystemExit(ExpectedSystemExit rule) {
+			exit = rule;
+			return this;
+		}
+
+		/**
+		 * Creates the {@code SystemRules} with the rules that have been
+		 * added.
+		 *
+		 * @return the new {@code SystemRules}.
+		 * @since 1.13.0
+		 */
+		public SystemRules build() {
+			return new SystemRules(this);
+		}
+	}
+}
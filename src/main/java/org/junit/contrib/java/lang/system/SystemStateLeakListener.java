@@ -0,0 +1,99 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.junit.contrib.java.lang.system.internal.SystemStateFingerprint.takeFingerprint;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.contrib.java.lang.system.internal.SystemStateFingerprint;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * The {@code SystemStateLeakListener} reports tests that don't restore the
+ * global state of the JVM: {@code System.out}, {@code System.err},
+ * {@code System.in}, the system properties, the environment variables,
+ * the security manager and the interceptor of {@code System.exit}. It
+ * takes a cheap fingerprint of this state before each test and compares it
+ * with the state after the test. The tests that changed the state are
+ * printed when all tests have finished.
+ *
+ * <p>A suite without leaks can run all its tests in a single JVM. With
+ * Maven Surefire you can remove {@code forkMode=always} and add the
+ * listener instead:
+ * <pre>
+ * &lt;configuration&gt;
+ *   &lt;properties&gt;
+ *     &lt;property&gt;
+ *       &lt;name&gt;listener&lt;/name&gt;
+ *       &lt;value&gt;org.junit.contrib.java.lang.system.SystemStateLeakListener&lt;/value&gt;
+ *     &lt;/property&gt;
+ *   &lt;/properties&gt;
+ * &lt;/configuration&gt;
+ * </pre>
+ * Use the {@link SystemStateLeakRule} if a leak should fail the test.
+ *
+ * @since 1.13.0
+ */
+public class SystemStateLeakListener extends RunListener {
+	private final PrintStream report;
+	private final Map<Description, List<String>> leaks
+		= new LinkedHashMap<Description, List<String>>();
+	private SystemStateFingerprint fingerprint;
+
+	/**
+	 * Creates a listener that prints the leaks to {@code System.err}.
+	 */
+	public SystemStateLeakListener() {
+		this(System.err);
+	}
+
+	/**
+	 * Creates a listener that prints the leaks to the specified stream.
+	 *
+	 * @param report the stream for the report.
+	 */
+	public SystemStateLeakListener(PrintStream report) {
+		this.report = report;
+	}
+
+	/**
+	 * Returns the tests that have changed the global state.
+	 *
+	 * @return the changes of each test.
+	 */
+	public synchronized Map<Description, List<String>> getLeaks() {
+		return Collections.unmodifiableMap(
+			new LinkedHashMap<Description, List<String>>(leaks));
+	}
+
+	@Override
+	public synchronized void testStarted(Description description) {
+		fingerprint = takeFingerprint();
+	}
+
+	@Override
+	public synchronized void testFinished(Description description) {
+		if (fingerprint == null)
+			return;
+		List<String> differences = fingerprint.differencesToCurrentState();
+		if (!differences.isEmpty())
+			leaks.put(description, differences);
+		fingerprint = null;
+	}
+
+	@Override
+	public synchronized void testRunFinished(Result result) {
+		if (leaks.isEmpty())
+			return;
+		report.println("The global state of the JVM has been changed by "
+			+ leaks.size() + " test(s):");
+		for (Map.Entry<Description, List<String>> leak : leaks.entrySet())
+			for (String difference : leak.getValue())
+				report.println("  " + leak.getKey() + ": " + difference);
+	}
+}
@@ -0,0 +1,56 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.junit.Assert.fail;
+import static org.junit.contrib.java.lang.system.internal.SystemStateFingerprint.takeFingerprint;
+
+import java.util.List;
+
+import org.junit.contrib.java.lang.system.internal.SystemStateFingerprint;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * The {@code SystemStateLeakRule} fails a test that doesn't restore the
+ * global state of the JVM. It checks the same state as the
+ * {@link SystemStateLeakListener}.
+ * <pre>
+ * public class MyTest {
+ *   &#064;Rule
+ *   public final SystemStateLeakRule noLeaks = new SystemStateLeakRule();
+ *
+ *   &#064;Test
+ *   public void test() {
+ *     System.setProperty("name", "value"); //fails the test
+ *   }
+ * }
+ * </pre>
+ * Use it as outermost rule (e.g. by a {@code RuleChain}), because it must
+ * not see the changes of other rules that are restored afterwards. A test
+ * that fails anyway is not checked.
+ *
+ * @since 1.13.0
+ */
+public class SystemStateLeakRule implements TestRule {
+	public Statement apply(final Statement base, Description description) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				SystemStateFingerprint fingerprint = takeFingerprint();
+				base.evaluate();
+				checkForLeaks(fingerprint);
+			}
+		};
+	}
+
+	private void checkForLeaks(SystemStateFingerprint fingerprint) {
+		List<String> differences = fingerprint.differencesToCurrentState();
+		if (!differences.isEmpty()) {
+			StringBuilder message = new StringBuilder(
+				"The test changed the global state of the JVM:");
+			for (String difference : differences)
+				message.append("\n- ").append(difference);
+			fail(message.toString());
+		}
+	}
+}
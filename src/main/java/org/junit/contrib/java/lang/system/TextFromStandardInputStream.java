@@ -4,14 +4,21 @@ import static java.lang.System.getProperty;
 import static java.lang.System.in;
 import static java.lang.System.setIn;
 import static java.util.Arrays.asList;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedInputStream.removeRouteOfCurrentThread;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedInputStream.routeCurrentThreadTo;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
-import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.junit.contrib.java.lang.system.internal.InputObserver;
+import org.junit.contrib.java.lang.system.internal.OverheadMeasurement;
 import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
 
 /**
  * The {@code TextFromStandardInputStream} rule replaces {@code System.in} with
@@ -61,10 +68,23 @@ import org.junit.rules.ExternalResource;
  *     assertEquals("bar", scanner.nextLine());
  *   }
  * </pre>
+ *
+ * <h3>Parallel Tests</h3>
+ * By default the rule replaces {@code System.in} for the whole JVM. Tests
+ * that are executed in parallel need their own {@code System.in}. This is
+ * provided by {@link #routePerThread()}: the test's thread and every thread
+ * that is created by it read the text of the test's rule. All other threads
+ * read from the original {@code System.in}.
+ * <pre>
+ *   &#064;Rule
+ *   public final TextFromStandardInputStream systemInMock
+ *     = emptyStandardInputStream().routePerThread();
+ * </pre>
  */
 public class TextFromStandardInputStream extends ExternalResource {
 	private final SystemInMock systemInMock = new SystemInMock();
 	private InputStream originalIn;
+	private boolean routePerThread = false;
 
 	public static TextFromStandardInputStream emptyStandardInputStream() {
 		return new TextFromStandardInputStream("");
@@ -108,6 +128,27 @@ public class TextFromStandardInputStream extends ExternalResource {
 		provideText(texts);
 	}
 
+	/**
+	 * Provides the text to the test's thread and its child threads only.
+	 * Threads that are created before the test starts (e.g. the threads of
+	 * a shared thread pool) don't see the text.
+	 *
+	 * @return the rule itself.
+	 * @since 1.13.0
+	 */
+	public TextFromStandardInputStream routePerThread() {
+		routePerThread = true;
+		return this;
+	}
+
+	void appendText(String text) {
+		systemInMock.appendText(text);
+	}
+
+	void addObserver(InputObserver observer) {
+		systemInMock.addObserver(observer);
+	}
+
 	private String[] appendEndOfLineToLines(String[] lines) {
 		String[] texts = new String[lines.length];
 		for (int index = 0; index < lines.length; ++index)
@@ -115,46 +156,75 @@ public class TextFromStandardInputStream extends ExternalResource {
 		return texts;
 	}
 
+	@Override
+	public Statement apply(Statement base, Description description) {
+		OverheadMeasurement measurement = OverheadMeasurement.of("TextFromStandardInputStream");
+		return measurement.around(super.apply(measurement.inside(base), description));
+	}
+
 	@Override
 	protected void before() throws Throwable {
-		originalIn = in;
-		setIn(systemInMock);
+		if (routePerThread)
+			routeCurrentThreadTo(systemInMock);
+		else {
+			originalIn = in;
+			setIn(systemInMock);
+		}
 	}
 
 	@Override
 	protected void after() {
-		setIn(originalIn);
+		if (routePerThread)
+			removeRouteOfCurrentThread();
+		else
+			setIn(originalIn);
 	}
 
 	private static class SystemInMock extends InputStream {
-		private Iterator<String> texts;
-		private StringReader currentReader;
+		private final Queue<String> texts = new LinkedList<String>();
+		private final List<InputObserver> observers
+			= new CopyOnWriteArrayList<InputObserver>();
+		private String currentText;
+		private int position;
+
+		void addObserver(InputObserver observer) {
+			observers.add(observer);
+		}
+
+		public synchronized void provideText(List<String> texts) {
+			this.texts.clear();
+			this.texts.addAll(texts);
+			optionallyStartNextText();
+		}
+
+		synchronized void appendText(String text) {
+			texts.add(text);
+			if (!isTextPending())
+				optionallyStartNextText();
+		}
 
-		public void provideText(List<String> texts) {
-			this.texts = texts.iterator();
-			optionallyCreateReaderForNextText();
+		private boolean isTextPending() {
+			return currentText != null && position < currentText.length();
 		}
 
 		@Override
-		public int read() throws IOException {
-			if (currentReader == null)
-				return -1;
-			else
-				return readFromExistingReader();
+		public synchronized int read() throws IOException {
+			int b = (currentText == null) ? -1 : readFromCurrentText();
+			for (InputObserver observer : observers)
+				observer.read(b);
+			return b;
 		}
 
-		private int readFromExistingReader() throws IOException {
-			int character = currentReader.read();
-			if (character == -1)
-				optionallyCreateReaderForNextText();
-			return character;
+		private int readFromCurrentText() {
+			if (position < currentText.length())
+				return currentText.charAt(position++);
+			optionallyStartNextText();
+			return -1;
 		}
 
-		private void optionallyCreateReaderForNextText() {
-			if (texts.hasNext())
-				currentReader = new StringReader(texts.next());
-			else
-				currentReader = null;
+		private void optionallyStartNextText() {
+			currentText = texts.poll();
+			position = 0;
 		}
 	}
 }
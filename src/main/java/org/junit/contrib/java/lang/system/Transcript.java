@@ -0,0 +1,237 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.junit.Assert.fail;
+import static org.junit.contrib.java.lang.system.internal.TranscriptReader.readInputTexts;
+import static org.junit.contrib.java.lang.system.internal.TranscriptWriter.ERROR_OUTPUT;
+import static org.junit.contrib.java.lang.system.internal.TranscriptWriter.OUTPUT;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.contrib.java.lang.system.internal.InputObserver;
+import org.junit.contrib.java.lang.system.internal.OutputObserver;
+import org.junit.contrib.java.lang.system.internal.OutputVerifier;
+import org.junit.contrib.java.lang.system.internal.TranscriptReader;
+import org.junit.contrib.java.lang.system.internal.TranscriptWriter;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * The {@code Transcript} rule records a session of a program, i.e. the
+ * bytes that are read from {@code System.in} and the bytes that are written
+ * to {@code System.out} and {@code System.err}, to a binary file. Afterwards
+ * the session can be replayed: the recorded input is provided to
+ * {@code System.in} and the output is compared with the recorded output
+ * while it is written. Neither the recorded nor the actual output is kept
+ * in memory.
+ *
+ * <p>The rule works together with the rules that capture the streams.
+ * <pre>
+ * public class InteractiveSessionTest {
+ *   &#064;Rule
+ *   public final TextFromStandardInputStream systemInMock
+ *     = emptyStandardInputStream();
+ *
+ *   &#064;Rule
+ *   public final SystemOutRule systemOutRule = new SystemOutRule().mute();
+ *
+ *   &#064;Rule
+ *   public final Transcript transcript
+ *     = Transcript.replayFrom(new File("src/test/resources/session.srt"))
+ *       .withInput(systemInMock)
+ *       .withOutput(systemOutRule);
+ *
+ *   &#064;Test
+ *   public void test() {
+ *     InteractiveProgram.main();
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>The transcript is created by the same test with
+ * {@link #recordTo(File)} instead of {@link #replayFrom(File)}. In that
+ * case you have to provide the input by yourself, e.g. with a
+ * {@link Dialogue}.
+ *
+ * <p>A replayed test fails if the output differs from the recorded output.
+ * The failure describes the first difference.
+ *
+ * @since 1.13.0
+ */
+public class Transcript implements TestRule {
+	private final File file;
+	private final boolean replay;
+	private TextFromStandardInputStream systemInMock;
+	private final StreamTap outputTap = new StreamTap(OUTPUT, "System.out");
+	private final StreamTap errorOutputTap = new StreamTap(ERROR_OUTPUT, "System.err");
+	private volatile TranscriptWriter writer;
+
+	private Transcript(File file, boolean replay) {
+		this.file = file;
+		this.replay = replay;
+	}
+
+	/**
+	 * Creates a rule that records the session to the specified file.
+	 *
+	 * @param file the file of the transcript. It is overwritten.
+	 * @return the new rule.
+	 */
+	public static Transcript recordTo(File file) {
+		return new Transcript(file, false);
+	}
+
+	/**
+	 * Creates a rule that replays the session of the specified file.
+	 *
+	 * @param file the file of the transcript.
+	 * @return the new rule.
+	 */
+	public static Transcript replayFrom(File file) {
+		return new Transcript(file, true);
+	}
+
+	/**
+	 * Records respectively provides the input of {@code System.in}.
+	 *
+	 * @param systemInMock the rule that replaces {@code System.in}.
+	 * @return the rule itself.
+	 */
+	public Transcript withInput(TextFromStandardInputStream systemInMock) {
+		this.systemInMock = systemInMock;
+		systemInMock.addObserver(new InputRecorder());
+		return this;
+	}
+
+	/**
+	 * Records respectively verifies the output to {@code System.out}.
+	 *
+	 * @param systemOutRule the rule that captures {@code System.out}.
+	 * @return the rule itself.
+	 */
+	public Transcript withOutput(SystemOutRule systemOutRule) {
+		outputTap.used = true;
+		systemOutRule.addObserver(outputTap);
+		return this;
+	}
+
+	/**
+	 * Records respectively verifies the output to {@code System.err}.
+	 *
+	 * @param systemErrRule the rule that captures {@code System.err}.
+	 * @return the rule itself.
+	 */
+	public Transcript withErrorOutput(SystemErrRule systemErrRule) {
+		errorOutputTap.used = true;
+		systemErrRule.addObserver(errorOutputTap);
+		return this;
+	}
+
+	public Statement apply(final Statement base, Description description) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				if (replay)
+					replay(base);
+				else
+					record(base);
+			}
+		};
+	}
+
+	private void record(Statement base) throws Throwable {
+		writer = new TranscriptWriter(file);
+		try {
+			base.evaluate();
+		} finally {
+			TranscriptWriter usedWriter = writer;
+			writer = null;
+			usedWriter.close();
+		}
+	}
+
+	private void replay(Statement base) throws Throwable {
+		TextFromStandardInputStream currentSystemInMock = systemInMock;
+		if (currentSystemInMock != null)
+			provideRecordedInput(currentSystemInMock);
+		outputTap.startVerification();
+		errorOutputTap.startVerification();
+		try {
+			base.evaluate();
+		} finally {
+			outputTap.stopVerification();
+			errorOutputTap.stopVerification();
+		}
+		outputTap.checkOutput();
+		errorOutputTap.checkOutput();
+	}
+
+	private void provideRecordedInput(TextFromStandardInputStream systemInMock)
+			throws IOException {
+		List<String> texts = readInputTexts(file);
+		systemInMock.provideText(texts.toArray(new String[texts.size()]));
+	}
+
+	private class InputRecorder implements InputObserver {
+		public void read(int b) {
+			TranscriptWriter currentWriter = writer;
+			if (currentWriter != null)
+				currentWriter.appendInput(b);
+		}
+	}
+
+	private class StreamTap implements OutputObserver {
+		final int type;
+		final String streamName;
+		boolean used = false;
+		volatile OutputVerifier verifier;
+		OutputVerifier finishedVerifier;
+		TranscriptReader reader;
+
+		StreamTap(int type, String streamName) {
+			this.type = type;
+			this.streamName = streamName;
+		}
+
+		public void written(byte[] buffer, int offset, int length) {
+			TranscriptWriter currentWriter = writer;
+			OutputVerifier currentVerifier = verifier;
+			if (currentWriter != null)
+				currentWriter.append(type, buffer, offset, length);
+			else if (currentVerifier != null)
+				currentVerifier.written(buffer, offset, length);
+		}
+
+		void startVerification() throws IOException {
+			if (used) {
+				reader = new TranscriptReader(file, type);
+				verifier = new OutputVerifier(streamName, "the transcript", reader);
+			}
+		}
+
+		void stopVerification() throws IOException {
+			finishedVerifier = verifier;
+			verifier = null;
+			if (finishedVerifier != null)
+				try {
+					finishedVerifier.finish();
+				} finally {
+					closeReader();
+				}
+		}
+
+		private void closeReader() throws IOException {
+			if (reader != null) {
+				reader.close();
+				reader = null;
+			}
+		}
+
+		void checkOutput() {
+			if (finishedVerifier != null && finishedVerifier.getDifference() != null)
+				fail(finishedVerifier.getDifference());
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * {@code ChangeTrackingProperties} wrap a {@link Properties} object and
+ * record the original value of every property that is set or removed
+ * through them. All reads and writes are delegated to the original
+ * properties. Therefore {@link #restore()} has to write back the recorded
+ * properties only and its costs depend on the number of changed
+ * properties, not on the number of all properties.
+ *
+ * <p>The {@code Map} methods of Java 8 (e.g. {@code putIfAbsent}) of
+ * {@link #asSystemProperties()} change the properties by
+ * {@link #put(Object, Object)} and {@link #remove(Object)}. Therefore their
+ * changes are recorded, too.
+ */
+public class ChangeTrackingProperties extends DelegatingProperties {
+	private static final long serialVersionUID = -1409528750982364171L;
+	private static final Object ABSENT = new Object();
+
+	private final Map<Object, Object> originalValues
+		= new LinkedHashMap<Object, Object>();
+
+	public ChangeTrackingProperties(Properties originalProperties) {
+		super(originalProperties);
+	}
+
+	/**
+	 * Returns the names of the properties that have a different value than
+	 * before the first change.
+	 *
+	 * @return the names of the changed properties.
+	 */
+	public Set<Object> getChangedKeys() {
+		synchronized (originalProperties) {
+			Set<Object> changedKeys = new LinkedHashSet<Object>();
+			for (Map.Entry<Object, Object> entry : originalValues.entrySet())
+				if (!entry.getValue().equals(valueOf(entry.getKey())))
+					changedKeys.add(entry.getKey());
+			return changedKeys;
+		}
+	}
+
+	/**
+	 * Writes back the original values of all changed properties.
+	 */
+	public void restore() {
+		synchronized (originalProperties) {
+			for (Map.Entry<Object, Object> entry : originalValues.entrySet())
+				if (entry.getValue() == ABSENT)
+					originalProperties.remove(entry.getKey());
+				else
+					originalProperties.put(entry.getKey(), entry.getValue());
+			originalValues.clear();
+		}
+	}
+
+	@Override
+	public Object put(Object key, Object value) {
+		synchronized (originalProperties) {
+			recordChange(key);
+			return originalProperties.put(key, value);
+		}
+	}
+
+	@Override
+	public Object remove(Object key) {
+		synchronized (originalProperties) {
+			recordChange(key);
+			return originalProperties.remove(key);
+		}
+	}
+
+	@Override
+	public void clear() {
+		synchronized (originalProperties) {
+			for (Object key : originalProperties.keySet())
+				recordChange(key);
+			originalProperties.clear();
+		}
+	}
+
+	@Override
+	public Set<Object> keySet() {
+		return new AbstractSet<Object>() {
+			@Override
+			public Iterator<Object> iterator() {
+				return new TrackingIterator<Object>() {
+					@Override
+					Object element(Map.Entry<Object, Object> entry) {
+						return entry.getKey();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return originalProperties.size();
+			}
+
+			@Override
+			public boolean contains(Object key) {
+				return originalProperties.containsKey(key);
+			}
+
+			@Override
+			public boolean remove(Object key) {
+				return ChangeTrackingProperties.this.remove(key) != null;
+			}
+		};
+	}
+
+	@Override
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		return new AbstractSet<Map.Entry<Object, Object>>() {
+			@Override
+			public Iterator<Map.Entry<Object, Object>> iterator() {
+				return new TrackingIterator<Map.Entry<Object, Object>>() {
+					@Override
+					Map.Entry<Object, Object> element(Map.Entry<Object, Object> entry) {
+						return new TrackingEntry(entry);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return originalProperties.size();
+			}
+		};
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return new AbstractCollection<Object>() {
+			@Override
+			public Iterator<Object> iterator() {
+				return new TrackingIterator<Object>() {
+					@Override
+					Object element(Map.Entry<Object, Object> entry) {
+						return entry.getValue();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return originalProperties.size();
+			}
+		};
+	}
+
+	private void recordChange(Object key) {
+		if (!originalValues.containsKey(key))
+			originalValues.put(key, valueOf(key));
+	}
+
+	private Object valueOf(Object key) {
+		Object value = originalProperties.get(key);
+		return (value == null) ? ABSENT : value;
+	}
+
+	/**
+	 * Iterates over a copy of the entries, because the entries of the
+	 * original properties must not be changed without recording the
+	 * change.
+	 */
+	private abstract class TrackingIterator<T> implements Iterator<T> {
+		private final Iterator<Map.Entry<Object, Object>> entries;
+		private Map.Entry<Object, Object> current;
+
+		TrackingIterator() {
+			synchronized (originalProperties) {
+				entries = new ArrayList<Map.Entry<Object, Object>>(
+					originalProperties.entrySet()).iterator();
+			}
+		}
+
+		public boolean hasNext() {
+			return entries.hasNext();
+		}
+
+		public T next() {
+			current = entries.next();
+			return element(current);
+		}
+
+		public void remove() {
+			if (current == null)
+				throw new IllegalStateException();
+			ChangeTrackingProperties.this.remove(current.getKey());
+			current = null;
+		}
+
+		abstract T element(Map.Entry<Object, Object> entry);
+	}
+
+	private class TrackingEntry implements Map.Entry<Object, Object> {
+		private final Map.Entry<Object, Object> entry;
+
+		TrackingEntry(Map.Entry<Object, Object> entry) {
+			this.entry = entry;
+		}
+
+		public Object getKey() {
+			return entry.getKey();
+		}
+
+		public Object getValue() {
+			return originalProperties.get(entry.getKey());
+		}
+
+		public Object setValue(Object value) {
+			return put(entry.getKey(), value);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> otherEntry = (Map.Entry<?, ?>) other;
+			return getKey().equals(otherEntry.getKey())
+				&& getValue() != null && getValue().equals(otherEntry.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+	}
+}
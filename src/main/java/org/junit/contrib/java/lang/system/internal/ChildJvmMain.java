@@ -0,0 +1,116 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * The {@code ChildJvmMain} is the main class of the JVMs that are started
+ * by the {@link ChildJvmPool}. It waits for a command on its standard
+ * input stream and runs the main method of the class that is specified by
+ * the command. The command consists of
+ * <ol>
+ * <li>the name of the main class,</li>
+ * <li>the number of arguments and the arguments and</li>
+ * <li>the path of a file that is written after the main method and all
+ * non-daemon threads finished without a call of {@code System.exit}. The
+ * file is not written if the main method threw an exception. The JVM
+ * exits with status 1 then, like the {@code java} command.</li>
+ * </ol>
+ * All values are written by {@link java.io.DataOutputStream}. If the main
+ * method cannot be found then the file is written with a description of
+ * the failure instead and the main method is not run.
+ */
+public class ChildJvmMain {
+	static final int UNCAUGHT_EXCEPTION_STATUS = 1;
+	static final int MISSING_MAIN_METHOD_STATUS = 2;
+
+	public static void main(String[] args) throws Exception {
+		DataInputStream command = new DataInputStream(System.in);
+		String mainClassName;
+		try {
+			mainClassName = command.readUTF();
+		} catch (IOException parentTerminated) {
+			return;
+		}
+		String[] arguments = new String[command.readInt()];
+		for (int i = 0; i < arguments.length; ++i)
+			arguments[i] = command.readUTF();
+		File terminationFile = new File(command.readUTF());
+		Method main;
+		try {
+			main = findMain(mainClassName);
+		} catch (ClassNotFoundException e) {
+			writeFailure(terminationFile, "The main class " + mainClassName
+				+ " cannot be found by the child JVM.");
+			System.exit(MISSING_MAIN_METHOD_STATUS);
+			return;
+		} catch (NoSuchMethodException e) {
+			writeFailure(terminationFile, "The class " + mainClassName
+				+ " has no method public static void main(String[]).");
+			System.exit(MISSING_MAIN_METHOD_STATUS);
+			return;
+		}
+		int status = runMain(main, arguments);
+		waitForNonDaemonThreads();
+		if (status != UNCAUGHT_EXCEPTION_STATUS)
+			new FileOutputStream(terminationFile).close();
+		System.exit(status);
+	}
+
+	/**
+	 * Finds the main method like the {@code java} command, which runs the
+	 * main method of classes that are not public, too.
+	 */
+	private static Method findMain(String mainClassName)
+			throws ClassNotFoundException, NoSuchMethodException {
+		Method main = ClassLoader.getSystemClassLoader()
+			.loadClass(mainClassName).getMethod("main", String[].class);
+		if (!Modifier.isStatic(main.getModifiers()))
+			throw new NoSuchMethodException(mainClassName + ".main(String[])");
+		main.setAccessible(true);
+		return main;
+	}
+
+	private static void writeFailure(File terminationFile, String failure)
+			throws IOException {
+		DataOutputStream out = new DataOutputStream(
+			new FileOutputStream(terminationFile));
+		try {
+			out.writeUTF(failure);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static int runMain(Method main, String[] arguments)
+			throws Exception {
+		try {
+			main.invoke(null, (Object) arguments);
+			return 0;
+		} catch (InvocationTargetException e) {
+			System.err.print("Exception in thread \"main\" ");
+			e.getCause().printStackTrace();
+			return UNCAUGHT_EXCEPTION_STATUS;
+		}
+	}
+
+	private static void waitForNonDaemonThreads() throws InterruptedException {
+		Thread nonDaemonThread;
+		while ((nonDaemonThread = findOtherNonDaemonThread()) != null)
+			nonDaemonThread.join();
+	}
+
+	private static Thread findOtherNonDaemonThread() {
+		for (Thread thread : Thread.getAllStackTraces().keySet())
+			if (thread != Thread.currentThread() && !thread.isDaemon()
+					&& thread.isAlive() && !"DestroyJavaVM".equals(thread.getName()))
+				return thread;
+		return null;
+	}
+}
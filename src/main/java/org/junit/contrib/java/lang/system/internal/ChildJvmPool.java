@@ -0,0 +1,230 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.System.getProperty;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code ChildJvmPool} keeps JVMs that have already been started and
+ * are waiting for a command of the {@link ChildJvmMain}. Each JVM runs
+ * exactly one main method, so that no state is shared between two runs.
+ * Whenever a JVM is taken from the pool a new one is started in the
+ * background.
+ *
+ * <p>The size of the pools is specified by the system property
+ * {@value #SIZE_PROPERTY}. It defaults to {@value #DEFAULT_SIZE}.
+ */
+public class ChildJvmPool {
+	static final String SIZE_PROPERTY = "systemRules.childJvmPoolSize";
+	static final int DEFAULT_SIZE = 2;
+	private static final int MAX_WAIT_FOR_STARTING_JVM_IN_SECONDS = 10;
+
+	private static final Map<List<String>, ChildJvmPool> POOLS
+		= new HashMap<List<String>, ChildJvmPool>();
+	private static final Executor STARTER = Executors.newCachedThreadPool(
+		new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "system-rules-child-jvm-starter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				destroyIdleJvms();
+			}
+		});
+	}
+
+	private final List<String> command;
+	private final int size = getInteger(SIZE_PROPERTY, DEFAULT_SIZE);
+	private final BlockingQueue<Process> idleJvms = new LinkedBlockingQueue<Process>();
+	private final AtomicInteger startingJvms = new AtomicInteger();
+
+	private ChildJvmPool(List<String> jvmOptions) {
+		command = new ArrayList<String>();
+		command.add(getProperty("java.home") + File.separator + "bin"
+			+ File.separator + "java");
+		command.add("-Dfile.encoding=" + getProperty("file.encoding"));
+		command.addAll(jvmOptions);
+		command.add("-cp");
+		command.add(getProperty("java.class.path"));
+		command.add(ChildJvmMain.class.getName());
+	}
+
+	/**
+	 * Returns the pool of JVMs that are started with the specified options.
+	 *
+	 * @param jvmOptions options of the {@code java} command.
+	 * @return the pool for these options.
+	 */
+	public static synchronized ChildJvmPool withOptions(List<String> jvmOptions) {
+		ChildJvmPool pool = POOLS.get(jvmOptions);
+		if (pool == null) {
+			pool = new ChildJvmPool(jvmOptions);
+			POOLS.put(new ArrayList<String>(jvmOptions), pool);
+		}
+		return pool;
+	}
+
+	/**
+	 * Starts JVMs in the background until the pool is full.
+	 */
+	public void warmUp() {
+		while (idleJvms.size() + startingJvms.get() < size)
+			startJvmInBackground();
+	}
+
+	/**
+	 * Runs the main method of the specified class in a JVM of the pool.
+	 *
+	 * @param mainClass the name of the class.
+	 * @param arguments the arguments of the main method.
+	 * @return the result of the run.
+	 * @throws IllegalArgumentException if the JVM cannot find the class or
+	 * its main method.
+	 * @throws IOException if the communication with the JVM fails.
+	 * @throws InterruptedException if the current thread is interrupted
+	 * while waiting for the JVM.
+	 */
+	public ChildJvmResult run(String mainClass, String[] arguments)
+			throws IOException, InterruptedException {
+		Process jvm = takeJvm();
+		File terminationFile = File.createTempFile("system-rules-child-jvm", null);
+		if (!terminationFile.delete())
+			throw new IOException("The file " + terminationFile
+				+ " cannot be deleted. The child JVM needs a path without file.");
+		try {
+			StreamCollector out = new StreamCollector(jvm.getInputStream());
+			StreamCollector err = new StreamCollector(jvm.getErrorStream());
+			sendCommand(jvm, mainClass, arguments, terminationFile);
+			int status = jvm.waitFor();
+			out.join();
+			err.join();
+			if (terminationFile.length() > 0)
+				throw new IllegalArgumentException(readFailure(terminationFile));
+			Integer exitStatus = terminationFile.exists() ? null : status;
+			return new ChildJvmResult(out.bytes.toByteArray(),
+				err.bytes.toByteArray(), exitStatus);
+		} finally {
+			jvm.destroy();
+			if (terminationFile.exists() && !terminationFile.delete())
+				terminationFile.deleteOnExit();
+		}
+	}
+
+	private Process takeJvm() throws IOException, InterruptedException {
+		Process jvm = idleJvms.poll();
+		if (jvm == null && startingJvms.get() > 0)
+			jvm = idleJvms.poll(MAX_WAIT_FOR_STARTING_JVM_IN_SECONDS, SECONDS);
+		warmUp();
+		if (jvm != null && isAlive(jvm))
+			return jvm;
+		else
+			return startJvm();
+	}
+
+	private void sendCommand(Process jvm, String mainClass, String[] arguments,
+			File terminationFile) throws IOException {
+		DataOutputStream command = new DataOutputStream(jvm.getOutputStream());
+		try {
+			command.writeUTF(mainClass);
+			command.writeInt(arguments.length);
+			for (String argument : arguments)
+				command.writeUTF(argument);
+			command.writeUTF(terminationFile.getAbsolutePath());
+		} finally {
+			command.close();
+		}
+	}
+
+	private String readFailure(File terminationFile) throws IOException {
+		DataInputStream in = new DataInputStream(
+			new FileInputStream(terminationFile));
+		try {
+			return in.readUTF();
+		} finally {
+			in.close();
+		}
+	}
+
+	private void startJvmInBackground() {
+		startingJvms.incrementAndGet();
+		STARTER.execute(new Runnable() {
+			public void run() {
+				try {
+					idleJvms.add(startJvm());
+				} catch (IOException ignored) {
+					//takeJvm() starts the JVM synchronously and reports the error.
+				} finally {
+					startingJvms.decrementAndGet();
+				}
+			}
+		});
+	}
+
+	private Process startJvm() throws IOException {
+		return new ProcessBuilder(command).start();
+	}
+
+	private static boolean isAlive(Process process) {
+		try {
+			process.exitValue();
+			return false;
+		} catch (IllegalThreadStateException stillRunning) {
+			return true;
+		}
+	}
+
+	private static synchronized void destroyIdleJvms() {
+		for (ChildJvmPool pool : POOLS.values()) {
+			Process jvm;
+			while ((jvm = pool.idleJvms.poll()) != null)
+				jvm.destroy();
+		}
+	}
+
+	private static class StreamCollector extends Thread {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final InputStream stream;
+
+		StreamCollector(InputStream stream) {
+			this.stream = stream;
+			setDaemon(true);
+			start();
+		}
+
+		@Override
+		public void run() {
+			try {
+				byte[] buffer = new byte[8192];
+				int length;
+				while ((length = stream.read(buffer)) != -1)
+					bytes.write(buffer, 0, length);
+			} catch (IOException ignored) {
+				//the JVM has been destroyed
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package org.junit.contrib.java.lang.system.internal;
+
+/**
+ * The output and the exit status of a main method that has been run by a
+ * {@link ChildJvmPool}.
+ */
+public class ChildJvmResult {
+	private final byte[] out;
+	private final byte[] err;
+	private final Integer exitStatus;
+
+	ChildJvmResult(byte[] out, byte[] err, Integer exitStatus) {
+		this.out = out;
+		this.err = err;
+		this.exitStatus = exitStatus;
+	}
+
+	public byte[] getOut() {
+		return out.clone();
+	}
+
+	public byte[] getErr() {
+		return err.clone();
+	}
+
+	/**
+	 * Returns the status of the {@code System.exit(int)} call. An uncaught
+	 * exception of the main method is reported as status 1, like the
+	 * {@code java} command does.
+	 *
+	 * @return the exit status or {@code null} if {@code System.exit(int)}
+	 * has not been called.
+	 */
+	public Integer getExitStatus() {
+		return exitStatus;
+	}
+}
@@ -0,0 +1,80 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Replaces every {@code \r\n} of the underlying stream with a single
+ * {@code \n}.
+ */
+class CrLfNormalizingInputStream extends FilterInputStream {
+	private final byte[] buffer = new byte[8192];
+	private int position = 0;
+	private int limit = 0;
+	private boolean endOfStream = false;
+
+	CrLfNormalizingInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		int length = read(b, 0, 1);
+		return (length == -1) ? -1 : b[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int end = off + len;
+		int index = off;
+		while (index < end) {
+			if (isNextByteUndecided()) {
+				if (index > off || position == limit && endOfStream)
+					break;
+				fill();
+			} else {
+				byte c = buffer[position++];
+				if (c != '\r' || position == limit || buffer[position] != '\n')
+					b[index++] = c;
+			}
+		}
+		return (index == off && len != 0) ? -1 : index - off;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		byte[] skipped = new byte[(int) Math.min(n, buffer.length)];
+		int length = read(skipped, 0, skipped.length);
+		return (length == -1) ? 0 : length;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return limit - position;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	private boolean isNextByteUndecided() {
+		return position == limit
+			|| position == limit - 1 && buffer[position] == '\r' && !endOfStream;
+	}
+
+	private void fill() throws IOException {
+		int carry = limit - position;
+		if (carry != 0)
+			buffer[0] = buffer[position];
+		position = 0;
+		limit = carry;
+		int length = in.read(buffer, carry, buffer.length - carry);
+		if (length == -1)
+			endOfStream = true;
+		else
+			limit += length;
+	}
+}
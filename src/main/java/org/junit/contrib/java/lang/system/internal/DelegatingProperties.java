@@ -0,0 +1,224 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.io.ObjectStreamException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * {@code DelegatingProperties} forward all reads and writes to another
+ * {@link Properties} object. Subclasses override the methods that they
+ * want to observe.
+ *
+ * <p>{@code Hashtable} implements the {@code Map} methods of Java 8 (e.g.
+ * {@code putIfAbsent}) by its own table, which is always empty here. This
+ * class doesn't override them, because the library is compiled for Java 5
+ * and their parameter types don't exist before Java 8. Install the object
+ * that is returned by {@link #asSystemProperties()} instead. On Java 8 and
+ * later it adds these methods (see {@link Java8Properties}).
+ */
+abstract class DelegatingProperties extends Properties {
+	private static final long serialVersionUID = 6184218379416427815L;
+	static final String JAVA_8_PROPERTIES
+		= "org.junit.contrib.java.lang.system.internal.Java8Properties";
+	private static final boolean MAP_METHODS_OF_JAVA_8 = hasMapMethodsOfJava8();
+
+	final Properties originalProperties;
+	private Properties systemProperties;
+
+	DelegatingProperties(Properties originalProperties) {
+		this.originalProperties = originalProperties;
+	}
+
+	public Properties getOriginalProperties() {
+		return originalProperties;
+	}
+
+	/**
+	 * Returns the object that replaces the system properties. It is this
+	 * object on JVMs without the {@code Map} methods of Java 8 and an
+	 * object that adds these methods on all other JVMs. The class of that
+	 * object is loaded by reflection, so that older JVMs never load it.
+	 *
+	 * @return the same object for each call.
+	 */
+	public synchronized Properties asSystemProperties() {
+		if (systemProperties == null)
+			systemProperties = MAP_METHODS_OF_JAVA_8 ? newJava8Properties() : this;
+		return systemProperties;
+	}
+
+	@Override
+	public String getProperty(String key) {
+		return originalProperties.getProperty(key);
+	}
+
+	@Override
+	public String getProperty(String key, String defaultValue) {
+		String value = getProperty(key);
+		return (value == null) ? defaultValue : value;
+	}
+
+	@Override
+	public Object get(Object key) {
+		return originalProperties.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return originalProperties.containsKey(key);
+	}
+
+	@Override
+	public Object setProperty(String key, String value) {
+		return put(key, value);
+	}
+
+	@Override
+	public Object put(Object key, Object value) {
+		return originalProperties.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<?, ?> values) {
+		for (Map.Entry<?, ?> entry : values.entrySet())
+			put(entry.getKey(), entry.getValue());
+	}
+
+	@Override
+	public Object remove(Object key) {
+		return originalProperties.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		originalProperties.clear();
+	}
+
+	@Override
+	public int size() {
+		return originalProperties.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return originalProperties.isEmpty();
+	}
+
+	@Override
+	public Enumeration<Object> keys() {
+		return originalProperties.keys();
+	}
+
+	@Override
+	public Enumeration<Object> elements() {
+		return originalProperties.elements();
+	}
+
+	@Override
+	public Set<Object> keySet() {
+		return originalProperties.keySet();
+	}
+
+	@Override
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		return originalProperties.entrySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return originalProperties.values();
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return originalProperties.contains(value);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return originalProperties.containsValue(value);
+	}
+
+	@Override
+	public Enumeration<?> propertyNames() {
+		return originalProperties.propertyNames();
+	}
+
+	@Override
+	public Set<String> stringPropertyNames() {
+		return originalProperties.stringPropertyNames();
+	}
+
+	/**
+	 * Returns a copy of the properties as plain {@link Properties}. This is
+	 * not a clone of this object, because a clone would share the original
+	 * properties with it and change them.
+	 */
+	@Override
+	public Object clone() {
+		return snapshot();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return originalProperties.equals(other);
+	}
+
+	@Override
+	public int hashCode() {
+		return originalProperties.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return originalProperties.toString();
+	}
+
+	/**
+	 * Returns a copy of the properties that are seen by the current thread.
+	 */
+	Properties snapshot() {
+		return (Properties) originalProperties.clone();
+	}
+
+	/**
+	 * Serializes a copy of the properties, because the state of the
+	 * subclasses (e.g. the overlays of {@link ThreadRoutedProperties}) is
+	 * only valid within the current JVM. A deserialized object is a plain
+	 * {@link Properties} object.
+	 */
+	Object writeReplace() throws ObjectStreamException {
+		return snapshot();
+	}
+
+	private Properties newJava8Properties() {
+		try {
+			return (Properties) Class.forName(JAVA_8_PROPERTIES)
+				.getDeclaredConstructor(DelegatingProperties.class)
+				.newInstance(this);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		} catch (InstantiationException e) {
+			throw new IllegalStateException(e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static boolean hasMapMethodsOfJava8() {
+		try {
+			Map.class.getMethod("getOrDefault", Object.class, Object.class);
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code EditableEnvironment} changes the environment variables of the
+ * current JVM. The JDK has no API for this. Therefore the maps that back
+ * {@code System.getenv()} and {@code System.getenv(String)} are modified
+ * by reflection. Child processes that are started afterwards inherit the
+ * changed variables.
+ *
+ * <p>Java 16 and later allow this only if the packages {@code java.lang}
+ * and {@code java.util} are opened, e.g. by the
+ * {@link ExitInterceptionAgent}.
+ */
+public class EditableEnvironment {
+	/**
+	 * Sets an environment variable.
+	 *
+	 * @param name the name of the variable.
+	 * @param value the new value or {@code null} for removing the variable.
+	 */
+	public static void set(String name, String value) {
+		for (Map<String, String> variables : editableMaps())
+			if (value == null)
+				variables.remove(name);
+			else
+				variables.put(name, value);
+	}
+
+	public static Snapshot takeSnapshot() {
+		return new Snapshot();
+	}
+
+	/**
+	 * Returns the map that backs the unmodifiable map that is returned by
+	 * {@code System.getenv()}.
+	 */
+	static Map<String, String> getGetenvMap() {
+		return read(getenvMapField(), System.getenv());
+	}
+
+	static void setGetenvMap(Map<String, String> variables) {
+		try {
+			getenvMapField().set(System.getenv(), variables);
+		} catch (IllegalAccessException e) {
+			throw cannotAccessEnvironment(e);
+		}
+	}
+
+	/**
+	 * Windows only: {@code System.getenv(String)} reads the variables from
+	 * a case insensitive copy of the environment.
+	 */
+	private static Map<String, String> getCaseInsensitiveMap() {
+		try {
+			Class<?> processEnvironment = Class.forName("java.lang.ProcessEnvironment");
+			Field field = processEnvironment.getDeclaredField(
+				"theCaseInsensitiveEnvironment");
+			field.setAccessible(true);
+			return read(field, null);
+		} catch (NoSuchFieldException notWindows) {
+			return null;
+		} catch (Exception e) {
+			throw cannotAccessEnvironment(e);
+		}
+	}
+
+	private static List<Map<String, String>> editableMaps() {
+		List<Map<String, String>> maps = new ArrayList<Map<String, String>>();
+		maps.add(getGetenvMap());
+		Map<String, String> caseInsensitiveMap = getCaseInsensitiveMap();
+		if (caseInsensitiveMap != null
+				&& !ThreadRoutedEnvironment.hasOverlayForCurrentThread())
+			maps.add(caseInsensitiveMap);
+		return maps;
+	}
+
+	private static Field getenvMapField() {
+		try {
+			Field field = System.getenv().getClass().getDeclaredField("m");
+			field.setAccessible(true);
+			return field;
+		} catch (Exception e) {
+			throw cannotAccessEnvironment(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, String> read(Field field, Object object) {
+		try {
+			return (Map<String, String>) field.get(object);
+		} catch (IllegalAccessException e) {
+			throw cannotAccessEnvironment(e);
+		}
+	}
+
+	private static IllegalStateException cannotAccessEnvironment(Exception e) {
+		return new IllegalStateException("Cannot change the environment"
+			+ " variables. Java 16 and later require the JVM options"
+			+ " --add-opens java.base/java.lang=ALL-UNNAMED"
+			+ " --add-opens java.base/java.util=ALL-UNNAMED or the option"
+			+ " -javaagent:path/to/system-rules.jar.", e);
+	}
+
+	/**
+	 * A {@code Snapshot} stores the environment variables and restores them
+	 * later. Only variables that have been changed in the meantime are
+	 * written back.
+	 */
+	public static class Snapshot {
+		private final List<Map<String, String>> maps = editableMaps();
+		private final List<Map<String, String>> copies
+			= new ArrayList<Map<String, String>>();
+
+		private Snapshot() {
+			for (Map<String, String> variables : maps)
+				copies.add(new HashMap<String, String>(variables));
+		}
+
+		public void restore() {
+			for (int i = 0; i < maps.size(); ++i)
+				restore(maps.get(i), copies.get(i));
+		}
+
+		private void restore(Map<String, String> variables,
+				Map<String, String> copy) {
+			variables.keySet().retainAll(copy.keySet());
+			for (Map.Entry<String, String> entry : copy.entrySet())
+				if (!entry.getValue().equals(variables.get(entry.getKey())))
+					variables.put(entry.getKey(), entry.getValue());
+		}
+	}
+}
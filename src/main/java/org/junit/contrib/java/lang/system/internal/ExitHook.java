@@ -0,0 +1,55 @@
+package org.junit.contrib.java.lang.system.internal;
+
+/**
+ * The {@code ExitHook} is called by {@code Runtime.exit(int)} and
+ * {@code Runtime.halt(int)} after they have been instrumented by the
+ * {@link ExitInterceptionAgent}. The agent adds this class to the bootstrap
+ * class path, so it must not depend on any class outside of
+ * {@code java.lang}.
+ */
+public final class ExitHook {
+	private static volatile Interceptor interceptor = null;
+
+	private ExitHook() {
+	}
+
+	public static Interceptor getInterceptor() {
+		return interceptor;
+	}
+
+	public static void setInterceptor(Interceptor interceptor) {
+		ExitHook.interceptor = interceptor;
+	}
+
+	/**
+	 * Called by the instrumented {@code Runtime.exit(int)}.
+	 *
+	 * @param status the exit status.
+	 */
+	public static void beforeExit(int status) {
+		Interceptor currentInterceptor = interceptor;
+		if (currentInterceptor != null)
+			currentInterceptor.checkExit(status);
+	}
+
+	/**
+	 * Called by the instrumented {@code Runtime.halt(int)}.
+	 *
+	 * @param status the exit status.
+	 */
+	public static void beforeHalt(int status) {
+		Interceptor currentInterceptor = interceptor;
+		if (currentInterceptor != null)
+			currentInterceptor.checkHalt(status);
+	}
+
+	/**
+	 * An {@code Interceptor} prevents the JVM from exiting by throwing an
+	 * exception, like {@link SecurityManager#checkExit(int)} does.
+	 */
+	public interface Interceptor {
+		void checkExit(int status);
+
+		void checkHalt(int status);
+	}
+}
@@ -0,0 +1,165 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * The {@code ExitInterceptionAgent} instruments {@code Runtime.exit(int)}
+ * and {@code Runtime.halt(int)}, so that they call the {@link ExitHook}
+ * before terminating the JVM. This allows intercepting
+ * {@code System.exit(int)} without a security manager.
+ *
+ * <p>The agent is activated by the JVM option
+ * <pre>
+ * -javaagent:path/to/system-rules.jar
+ * </pre>
+ */
+public class ExitInterceptionAgent {
+	private static final String HOOK = "org/junit/contrib/java/lang/system/internal/ExitHook";
+	private static final String[] HOOK_CLASSES = { HOOK, HOOK + "$Interceptor" };
+	private static volatile boolean installed = false;
+
+	public static void premain(String arguments, Instrumentation instrumentation)
+			throws Exception {
+		install(instrumentation);
+	}
+
+	public static void agentmain(String arguments, Instrumentation instrumentation)
+			throws Exception {
+		install(instrumentation);
+	}
+
+	/**
+	 * Returns {@code true} if {@code Runtime} has been instrumented.
+	 *
+	 * @return {@code true} if {@code Runtime} calls the {@link ExitHook}.
+	 */
+	public static boolean isInstalled() {
+		return installed;
+	}
+
+	private static synchronized void install(Instrumentation instrumentation)
+			throws Exception {
+		if (installed)
+			return;
+		instrumentation.appendToBootstrapClassLoaderSearch(createHookJar());
+		openJavaBaseToSystemRules(instrumentation);
+		RuntimeTransformer transformer = new RuntimeTransformer();
+		instrumentation.addTransformer(transformer, true);
+		try {
+			instrumentation.retransformClasses(Runtime.class);
+		} finally {
+			instrumentation.removeTransformer(transformer);
+		}
+		if (transformer.failure != null)
+			throw transformer.failure;
+		installed = transformer.transformed
+			&& Class.forName(HOOK.replace('/', '.')).getClassLoader() == null;
+	}
+
+	/**
+	 * Creates a jar file with the classes that are called by the
+	 * instrumented {@code Runtime}. They have to be loaded by the bootstrap
+	 * class loader, because {@code Runtime} is loaded by it.
+	 */
+	private static JarFile createHookJar() throws IOException {
+		File file = File.createTempFile("system-rules-exit-hook", ".jar");
+		file.deleteOnExit();
+		JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+		try {
+			for (String hookClass : HOOK_CLASSES)
+				addClass(jar, hookClass);
+		} finally {
+			jar.close();
+		}
+		return new JarFile(file);
+	}
+
+	private static void addClass(JarOutputStream jar, String internalName)
+			throws IOException {
+		String name = internalName + ".class";
+		InputStream in = ExitInterceptionAgent.class.getClassLoader()
+			.getResourceAsStream(name);
+		if (in == null)
+			throw new IOException("Cannot find class file " + name + ".");
+		try {
+			jar.putNextEntry(new JarEntry(name));
+			byte[] buffer = new byte[8192];
+			int length;
+			while ((length = in.read(buffer)) != -1)
+				jar.write(buffer, 0, length);
+			jar.closeEntry();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Java 9 and later: the module {@code java.base} does not read the
+	 * unnamed module of the bootstrap class loader. Furthermore the packages
+	 * {@code java.lang} and {@code java.util} are opened to System Rules, so
+	 * that {@link ShutdownHooks} can read the registered shutdown hooks and
+	 * {@link EditableEnvironment} can change the environment variables. The
+	 * module API is called by reflection because this library is compiled
+	 * for Java 5.
+	 */
+	private static void openJavaBaseToSystemRules(Instrumentation instrumentation)
+			throws Exception {
+		Method getModule;
+		try {
+			getModule = Class.class.getMethod("getModule");
+		} catch (NoSuchMethodException javaBefore9) {
+			return;
+		}
+		Class<?> moduleClass = getModule.getReturnType();
+		Object javaBase = getModule.invoke(Runtime.class);
+		Object hookModule = getModule.invoke(
+			Class.forName(HOOK.replace('/', '.'), false, null));
+		Object systemRulesModule = getModule.invoke(ExitInterceptionAgent.class);
+		Method redefineModule = Instrumentation.class.getMethod("redefineModule",
+			moduleClass, Set.class, Map.class, Map.class, Set.class, Map.class);
+		Map<String, Set<Object>> openedPackages = new HashMap<String, Set<Object>>();
+		openedPackages.put("java.lang", Collections.singleton(systemRulesModule));
+		openedPackages.put("java.util", Collections.singleton(systemRulesModule));
+		redefineModule.invoke(instrumentation, javaBase,
+			Collections.singleton(hookModule), Collections.emptyMap(),
+			openedPackages, Collections.emptySet(), Collections.emptyMap());
+	}
+
+	private static class RuntimeTransformer implements ClassFileTransformer {
+		boolean transformed = false;
+		Exception failure;
+
+		public byte[] transform(ClassLoader loader, String className,
+				Class<?> classBeingRedefined, ProtectionDomain protectionDomain,
+				byte[] classfileBuffer) {
+			//null means that the class is not changed (see findbugs-exclude.xml)
+			if (classBeingRedefined != Runtime.class)
+				return null;
+			try {
+				byte[] instrumented = new PrologueInjector(HOOK)
+					.callAtStartOf("exit", "beforeExit")
+					.callAtStartOf("halt", "beforeHalt")
+					.inject(classfileBuffer);
+				transformed = true;
+				return instrumented;
+			} catch (Exception e) {
+				failure = e;
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.Thread.currentThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code ExitLog} records every call of {@code System.exit(int)} and
+ * {@code Runtime.halt(int)}. It
+ * can be used by multiple threads concurrently without locking. The first
+ * call is the head of the queue of all calls, so that it is always the
+ * first element of {@link #getCalls()}.
+ */
+public class ExitLog {
+	private final boolean recordStackTraces;
+	private final Queue<Call> calls = new ConcurrentLinkedQueue<Call>();
+	private final CountDownLatch firstCallRecorded = new CountDownLatch(1);
+
+	public ExitLog(boolean recordStackTraces) {
+		this.recordStackTraces = recordStackTraces;
+	}
+
+	/**
+	 * Records a call of the current thread.
+	 *
+	 * @param status the exit status.
+	 * @param halt whether {@code Runtime.halt(int)} has been called instead
+	 * of {@code Runtime.exit(int)}.
+	 */
+	public void record(int status, boolean halt) {
+		Thread thread = currentThread();
+		calls.add(new Call(status, halt, thread.getName(), thread.getId(),
+			currentTimeMillis(),
+			recordStackTraces ? new Throwable().getStackTrace() : null));
+		firstCallRecorded.countDown();
+	}
+
+	/**
+	 * Waits until the first call has been recorded.
+	 *
+	 * @param timeout the maximum time to wait.
+	 * @param unit the unit of the {@code timeout}.
+	 * @return {@code true} if there was a call, {@code false} if the
+	 * timeout elapsed before.
+	 * @throws InterruptedException if the current thread is interrupted
+	 * while waiting.
+	 */
+	public boolean awaitFirstCall(long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return firstCallRecorded.await(timeout, unit);
+	}
+
+	/**
+	 * Returns the first call. If several threads call
+	 * {@code System.exit(int)} at the same time then exactly one of them
+	 * wins.
+	 *
+	 * @return the first call or {@code null} if there was no call.
+	 */
+	public Call getFirstCall() {
+		return calls.peek();
+	}
+
+	/**
+	 * Returns a snapshot of all calls in the order of their recording.
+	 *
+	 * @return all calls that have been recorded so far.
+	 */
+	public List<Call> getCalls() {
+		return new ArrayList<Call>(calls);
+	}
+
+	/**
+	 * A single call. It is published as
+	 * {@link org.junit.contrib.java.lang.system.SystemExitCall}.
+	 */
+	public static final class Call {
+		private final int status;
+		private final boolean halt;
+		private final String threadName;
+		private final long threadId;
+		private final long timeMillis;
+		private final StackTraceElement[] stackTrace;
+
+		private Call(int status, boolean halt, String threadName,
+				long threadId, long timeMillis, StackTraceElement[] stackTrace) {
+			this.status = status;
+			this.halt = halt;
+			this.threadName = threadName;
+			this.threadId = threadId;
+			this.timeMillis = timeMillis;
+			this.stackTrace = stackTrace;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public boolean isHalt() {
+			return halt;
+		}
+
+		public String getThreadName() {
+			return threadName;
+		}
+
+		public long getThreadId() {
+			return threadId;
+		}
+
+		public long getTimeMillis() {
+			return timeMillis;
+		}
+
+		public StackTraceElement[] getStackTrace() {
+			return (stackTrace == null) ? null : stackTrace.clone();
+		}
+	}
+}
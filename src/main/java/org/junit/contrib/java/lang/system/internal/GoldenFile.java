@@ -0,0 +1,139 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.Boolean.getBoolean;
+import static java.lang.Math.min;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compares a log with the content of a file without loading the file into
+ * memory. The file is memory-mapped region by region, because a single
+ * mapped region cannot be larger than 2 GB, and compared with the log by
+ * an {@link OutputVerifier}.
+ *
+ * <p>If the system property {@value #UPDATE_PROPERTY} is {@code true}
+ * then the file is overwritten with the log instead.
+ */
+class GoldenFile {
+	static final String UPDATE_PROPERTY = "systemRules.updateGoldenFiles";
+	private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+	private final File file;
+	private final boolean normalizeLineSeparators;
+	private final long regionSize;
+
+	GoldenFile(File file, boolean normalizeLineSeparators) {
+		this(file, normalizeLineSeparators, MAX_REGION_SIZE);
+	}
+
+	GoldenFile(File file, boolean normalizeLineSeparators, long regionSize) {
+		this.file = file;
+		this.normalizeLineSeparators = normalizeLineSeparators;
+		this.regionSize = regionSize;
+	}
+
+	void assertEqualsLog(String streamName, InputStream log) throws IOException {
+		if (getBoolean(UPDATE_PROPERTY))
+			update(log);
+		else
+			compare(streamName, log);
+	}
+
+	private void compare(String streamName, InputStream log) throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			InputStream content = new MappedFileInputStream(fis.getChannel(),
+				regionSize);
+			OutputVerifier verifier = new OutputVerifier(streamName,
+				"the file " + file, normalize(content));
+			copy(normalize(log), verifier);
+			verifier.finish();
+			if (verifier.getDifference() != null)
+				fail(verifier.getDifference());
+		} finally {
+			fis.close();
+		}
+	}
+
+	private void update(InputStream log) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.isDirectory()
+				&& !directory.mkdirs())
+			throw new IOException(
+				"The directory " + directory + " cannot be created.");
+		OutputStream out = new FileOutputStream(file);
+		try {
+			InputStream in = normalize(log);
+			byte[] buffer = new byte[8192];
+			int length;
+			while ((length = in.read(buffer)) != -1)
+				out.write(buffer, 0, length);
+		} finally {
+			out.close();
+		}
+	}
+
+	private InputStream normalize(InputStream in) {
+		return normalizeLineSeparators ? new CrLfNormalizingInputStream(in) : in;
+	}
+
+	private static void copy(InputStream in, OutputObserver observer)
+			throws IOException {
+		byte[] buffer = new byte[8192];
+		int length;
+		while ((length = in.read(buffer)) != -1)
+			observer.written(buffer, 0, length);
+	}
+
+	/**
+	 * Reads a file by mapping one region after another. Only the current
+	 * region is mapped.
+	 */
+	private static class MappedFileInputStream extends InputStream {
+		private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+		private final FileChannel channel;
+		private final long regionSize;
+		private ByteBuffer buffer = EMPTY;
+		private long position = 0;
+
+		MappedFileInputStream(FileChannel channel, long regionSize) {
+			this.channel = channel;
+			this.regionSize = regionSize;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (!hasRemaining())
+				return -1;
+			int length = min(len, buffer.remaining());
+			buffer.get(b, off, length);
+			return length;
+		}
+
+		private boolean hasRemaining() throws IOException {
+			if (!buffer.hasRemaining() && position < channel.size()) {
+				long size = min(channel.size() - position, regionSize);
+				buffer = channel.map(READ_ONLY, position, size);
+				position += size;
+			}
+			return buffer.hasRemaining();
+		}
+	}
+}
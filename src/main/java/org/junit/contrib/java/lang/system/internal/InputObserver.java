@@ -0,0 +1,14 @@
+package org.junit.contrib.java.lang.system.internal;
+
+/**
+ * An {@code InputObserver} is notified about every byte that is read from
+ * the {@code System.in} mock. It is called directly from the read path,
+ * hence it must not block.
+ */
+public interface InputObserver {
+	/**
+	 * @param b the byte that has been read or -1 if the end of a text has
+	 * been reached.
+	 */
+	void read(int b);
+}
@@ -0,0 +1,171 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * {@code Java8Properties} add the {@code Map} methods of Java 8 (e.g.
+ * {@code putIfAbsent}) to {@link DelegatingProperties}. They forward all
+ * other methods to the {@code DelegatingProperties} and implement the
+ * methods of Java 8 by {@link #get(Object)}, {@link #put(Object, Object)},
+ * {@link #remove(Object)} and {@link #entrySet()}. Therefore the changes are
+ * observed by the {@code DelegatingProperties}. Each of the methods is
+ * atomic with respect to the other writers of the original properties.
+ *
+ * <p>This class is only loaded on Java 8 and later (see
+ * {@link DelegatingProperties#asSystemProperties()}).
+ */
+class Java8Properties extends DelegatingProperties {
+	private static final long serialVersionUID = -2201846286153512940L;
+
+	private final DelegatingProperties properties;
+	private final Object lock;
+
+	Java8Properties(DelegatingProperties properties) {
+		super(properties);
+		this.properties = properties;
+		lock = properties.originalProperties;
+	}
+
+	@Override
+	public Properties getOriginalProperties() {
+		return properties.getOriginalProperties();
+	}
+
+	@Override
+	public Properties asSystemProperties() {
+		return this;
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		Object value = get(key);
+		return (value == null) ? defaultValue : value;
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super Object, ? super Object> action) {
+		for (Map.Entry<Object, Object> entry : entrySet())
+			action.accept(entry.getKey(), entry.getValue());
+	}
+
+	@Override
+	public void replaceAll(
+			BiFunction<? super Object, ? super Object, ? extends Object> function) {
+		synchronized (lock) {
+			for (Map.Entry<Object, Object> entry : copyOfEntries())
+				put(entry.getKey(), function.apply(entry.getKey(), entry.getValue()));
+		}
+	}
+
+	@Override
+	public Object putIfAbsent(Object key, Object value) {
+		synchronized (lock) {
+			Object currentValue = get(key);
+			return (currentValue == null) ? put(key, value) : currentValue;
+		}
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		synchronized (lock) {
+			Object currentValue = get(key);
+			if (currentValue != null && currentValue.equals(value)) {
+				remove(key);
+				return true;
+			} else
+				return false;
+		}
+	}
+
+	@Override
+	public boolean replace(Object key, Object oldValue, Object newValue) {
+		synchronized (lock) {
+			Object currentValue = get(key);
+			if (currentValue != null && currentValue.equals(oldValue)) {
+				put(key, newValue);
+				return true;
+			} else
+				return false;
+		}
+	}
+
+	@Override
+	public Object replace(Object key, Object value) {
+		synchronized (lock) {
+			return (get(key) == null) ? null : put(key, value);
+		}
+	}
+
+	@Override
+	public Object computeIfAbsent(Object key,
+			Function<? super Object, ? extends Object> mappingFunction) {
+		synchronized (lock) {
+			Object currentValue = get(key);
+			if (currentValue != null)
+				return currentValue;
+			Object newValue = mappingFunction.apply(key);
+			if (newValue != null)
+				put(key, newValue);
+			return newValue;
+		}
+	}
+
+	@Override
+	public Object computeIfPresent(Object key,
+			BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		synchronized (lock) {
+			Object currentValue = get(key);
+			if (currentValue == null)
+				return null;
+			return setOrRemove(key, remappingFunction.apply(key, currentValue));
+		}
+	}
+
+	@Override
+	public Object compute(Object key,
+			BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		synchronized (lock) {
+			Object currentValue = get(key);
+			Object newValue = remappingFunction.apply(key, currentValue);
+			if (newValue == null && currentValue == null)
+				return null;
+			return setOrRemove(key, newValue);
+		}
+	}
+
+	@Override
+	public Object merge(Object key, Object value,
+			BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		if (value == null)
+			throw new NullPointerException();
+		synchronized (lock) {
+			Object currentValue = get(key);
+			return setOrRemove(key, (currentValue == null)
+				? value : remappingFunction.apply(currentValue, value));
+		}
+	}
+
+	private Object setOrRemove(Object key, Object value) {
+		if (value == null)
+			remove(key);
+		else
+			put(key, value);
+		return value;
+	}
+
+	private List<Map.Entry<Object, Object>> copyOfEntries() {
+		List<Map.Entry<Object, Object>> entries
+			= new ArrayList<Map.Entry<Object, Object>>();
+		for (Map.Entry<Object, Object> entry : entrySet())
+			entries.add(new SimpleImmutableEntry<Object, Object>(
+				entry.getKey(), entry.getValue()));
+		return entries;
+	}
+}
@@ -0,0 +1,45 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@code ByteArrayOutputStream} that provides access to its content
+ * without copying it.
+ */
+class LogOutputStream extends ByteArrayOutputStream {
+	/**
+	 * Returns a stream of the bytes that have been written so far. Bytes
+	 * that are written afterwards are not part of the stream.
+	 *
+	 * @return a stream of the bytes that have been written so far.
+	 */
+	synchronized InputStream openInputStream() {
+		return new ByteArrayInputStream(buf, 0, count);
+	}
+
+	/**
+	 * Returns a read-only view of the bytes that have been written so far.
+	 *
+	 * @return a read-only view of the bytes that have been written so far.
+	 */
+	synchronized ByteBuffer asByteBuffer() {
+		return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes the bytes to the channel without an intermediate copy.
+	 *
+	 * @param channel the channel that receives the bytes.
+	 * @throws IOException if the channel cannot be written.
+	 */
+	synchronized void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+	}
+}
@@ -0,0 +1,27 @@
+package org.junit.contrib.java.lang.system.internal;
+
+/**
+ * A {@code NoExitInterceptor} throws a {@link CheckExitCalled} exception
+ * whenever the instrumented {@code Runtime.exit(int)} or
+ * {@code Runtime.halt(int)} is called. Each call is recorded by an
+ * {@link ExitLog}. It is the counterpart of the
+ * {@link NoExitSecurityManager} for JVMs that run with the
+ * {@link ExitInterceptionAgent}.
+ */
+public class NoExitInterceptor implements ExitHook.Interceptor {
+	private final ExitLog exitLog;
+
+	public NoExitInterceptor(ExitLog exitLog) {
+		this.exitLog = exitLog;
+	}
+
+	public void checkExit(int status) {
+		exitLog.record(status, false);
+		throw new CheckExitCalled(status);
+	}
+
+	public void checkHalt(int status) {
+		exitLog.record(status, true);
+		throw new CheckExitCalled(status);
+	}
+}
@@ -6,31 +6,52 @@ import java.security.Permission;
 
 /**
  * A {@code NoExitSecurityManager} throws a {@link CheckExitCalled} exception
- * whenever {@link #checkExit(int)} is called. All other method calls are
- * delegated to the original security manager.
+ * whenever {@link #checkExit(int)} is called. Each call is recorded by an
+ * {@link ExitLog}. All other method calls are delegated to the original
+ * security manager.
  */
 public class NoExitSecurityManager extends SecurityManager {
 	private final SecurityManager originalSecurityManager;
-	private Integer statusOfFirstExitCall = null;
+	private final ExitLog exitLog;
 
 	public NoExitSecurityManager(SecurityManager originalSecurityManager) {
+		this(originalSecurityManager, new ExitLog(false));
+	}
+
+	public NoExitSecurityManager(SecurityManager originalSecurityManager,
+			ExitLog exitLog) {
 		this.originalSecurityManager = originalSecurityManager;
+		this.exitLog = exitLog;
 	}
 
 	@Override
 	public void checkExit(int status) {
-		if (statusOfFirstExitCall == null)
-			statusOfFirstExitCall = status;
+		exitLog.record(status, isCalledByHalt());
 		throw new CheckExitCalled(status);
 	}
 
+	/**
+	 * {@code Runtime.exit(int)} and {@code Runtime.halt(int)} both call
+	 * {@link #checkExit(int)}. They can only be distinguished by the stack.
+	 */
+	private boolean isCalledByHalt() {
+		for (StackTraceElement element : new Throwable().getStackTrace())
+			if (Runtime.class.getName().equals(element.getClassName()))
+				return "halt".equals(element.getMethodName());
+		return false;
+	}
+
+	public ExitLog getExitLog() {
+		return exitLog;
+	}
+
 	public boolean isCheckExitCalled() {
-		return statusOfFirstExitCall != null;
+		return exitLog.getFirstCall() != null;
 	}
 
 	public int getStatusOfFirstCheckExitCall() {
 		if (isCheckExitCalled())
-			return statusOfFirstExitCall;
+			return exitLog.getFirstCall().getStatus();
 		else
 			throw new IllegalStateException(
 				"checkExit(int) has not been called.");
@@ -0,0 +1,10 @@
+package org.junit.contrib.java.lang.system.internal;
+
+/**
+ * An {@code OutputObserver} is notified about the bytes that are written
+ * to a stream that is captured by a {@link PrintStreamRule}. It is called
+ * directly from the write path, hence it must not block.
+ */
+public interface OutputObserver {
+	void written(byte[] buffer, int offset, int length);
+}
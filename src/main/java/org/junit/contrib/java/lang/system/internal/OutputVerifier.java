@@ -0,0 +1,170 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.Math.min;
+import static java.lang.System.arraycopy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * An {@code OutputVerifier} compares the written bytes with an expected
+ * stream while they are written. Neither the written nor the expected
+ * bytes are kept in memory. Only the first difference is reported together
+ * with a short context.
+ */
+public class OutputVerifier implements OutputObserver {
+	private static final int CONTEXT_LENGTH = 32;
+
+	private final String streamName;
+	private final String expectationName;
+	private final InputStream expected;
+	private final byte[] expectedBytes = new byte[8192];
+	private final byte[] context = new byte[CONTEXT_LENGTH];
+	private int contextLength = 0;
+	private long position = 0;
+	private String difference = null;
+
+	/**
+	 * @param streamName the name of the verified stream (e.g.
+	 * {@code System.out}).
+	 * @param expectationName the name of the source of the expected bytes
+	 * (e.g. {@code the transcript}).
+	 * @param expected the expected bytes.
+	 */
+	public OutputVerifier(String streamName, String expectationName,
+			InputStream expected) {
+		this.streamName = streamName;
+		this.expectationName = expectationName;
+		this.expected = expected;
+	}
+
+	public synchronized void written(byte[] buffer, int offset, int length) {
+		try {
+			while (difference == null && length > 0) {
+				int requested = min(length, expectedBytes.length);
+				int available = readExpected(expectedBytes, 0, requested);
+				int index = indexOfFirstDifference(buffer, offset, available);
+				if (index < available || available < requested)
+					reportDifference(buffer, offset + index, length - index,
+						index, available);
+				else {
+					rememberContext(buffer, offset, available);
+					position += available;
+					offset += available;
+					length -= available;
+				}
+			}
+		} catch (IOException e) {
+			difference = "Cannot read " + expectationName + ": " + e.getMessage();
+		}
+	}
+
+	/**
+	 * Checks that every expected byte has been written. Must be called
+	 * after the last write.
+	 */
+	public synchronized void finish() {
+		if (difference != null)
+			return;
+		try {
+			byte[] missing = new byte[CONTEXT_LENGTH];
+			int length = readExpected(missing, 0, missing.length);
+			if (length > 0)
+				difference = streamName + " ended at byte " + position
+					+ ", but " + expectationName + " continues.\nExpected: "
+					+ excerpt(missing, 0, length, true) + "\nActual:   "
+					+ excerpt(missing, 0, 0, true);
+		} catch (IOException e) {
+			difference = "Cannot read " + expectationName + ": " + e.getMessage();
+		}
+	}
+
+	/**
+	 * Returns a description of the first difference or {@code null} if
+	 * there has been no difference so far.
+	 *
+	 * @return a description of the first difference.
+	 */
+	public synchronized String getDifference() {
+		return difference;
+	}
+
+	private int indexOfFirstDifference(byte[] buffer, int offset, int length) {
+		for (int i = 0; i < length; ++i)
+			if (buffer[offset + i] != expectedBytes[i])
+				return i;
+		return length;
+	}
+
+	private void reportDifference(byte[] buffer, int offset, int length,
+			int indexInExpectedBytes, int availableExpectedBytes)
+			throws IOException {
+		rememberContext(expectedBytes, 0, indexInExpectedBytes);
+		position += indexInExpectedBytes;
+		ByteArrayOutputStream expectedTail = new ByteArrayOutputStream();
+		expectedTail.write(expectedBytes, indexInExpectedBytes,
+			min(CONTEXT_LENGTH, availableExpectedBytes - indexInExpectedBytes));
+		byte[] readAhead = new byte[CONTEXT_LENGTH - expectedTail.size()];
+		expectedTail.write(readAhead, 0,
+			readExpected(readAhead, 0, readAhead.length));
+		byte[] expectedExcerpt = expectedTail.toByteArray();
+		difference = streamName + " differs from " + expectationName
+			+ " at byte " + position + ".\nExpected: "
+			+ excerpt(expectedExcerpt, 0, expectedExcerpt.length,
+				expectedExcerpt.length < CONTEXT_LENGTH)
+			+ "\nActual:   "
+			+ excerpt(buffer, offset, min(CONTEXT_LENGTH, length), false);
+	}
+
+	private int readExpected(byte[] b, int off, int len) throws IOException {
+		int total = 0;
+		while (total < len) {
+			int length = expected.read(b, off + total, len - total);
+			if (length == -1)
+				break;
+			total += length;
+		}
+		return total;
+	}
+
+	private void rememberContext(byte[] buffer, int offset, int length) {
+		if (length >= CONTEXT_LENGTH) {
+			arraycopy(buffer, offset + length - CONTEXT_LENGTH, context, 0, CONTEXT_LENGTH);
+			contextLength = CONTEXT_LENGTH;
+		} else {
+			int keep = min(contextLength, CONTEXT_LENGTH - length);
+			arraycopy(context, contextLength - keep, context, 0, keep);
+			arraycopy(buffer, offset, context, keep, length);
+			contextLength = keep + length;
+		}
+	}
+
+	private String excerpt(byte[] buffer, int offset, int length, boolean end) {
+		StringBuilder sb = new StringBuilder("\"");
+		if (position > contextLength)
+			sb.append("...");
+		appendEscaped(sb, new String(context, 0, contextLength, Charset.defaultCharset()));
+		sb.append("[");
+		appendEscaped(sb, new String(buffer, offset, length, Charset.defaultCharset()));
+		sb.append("]");
+		if (!end)
+			sb.append("...");
+		return sb.append("\"").toString();
+	}
+
+	private static void appendEscaped(StringBuilder sb, String text) {
+		for (int i = 0; i < text.length(); ++i) {
+			char c = text.charAt(i);
+			if (c == '\n')
+				sb.append("\\n");
+			else if (c == '\r')
+				sb.append("\\r");
+			else if (c == '\t')
+				sb.append("\\t");
+			else
+				sb.append(c);
+		}
+	}
+}
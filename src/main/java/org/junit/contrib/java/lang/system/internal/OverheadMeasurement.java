@@ -0,0 +1,120 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static org.junit.contrib.java.lang.system.RuleOverheadSink.Phase.SETUP;
+import static org.junit.contrib.java.lang.system.RuleOverheadSink.Phase.TEARDOWN;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.contrib.java.lang.system.RuleOverheadMetrics;
+import org.junit.contrib.java.lang.system.RuleOverheadSink;
+import org.junit.contrib.java.lang.system.RuleOverheadSink.Phase;
+import org.junit.runners.model.Statement;
+
+/**
+ * An {@code OverheadMeasurement} measures the setup and the teardown of a
+ * rule and sends them to the {@link RuleOverheadSink}. The rule's
+ * statement is wrapped by {@link #around(Statement)} and the test's
+ * statement by {@link #inside(Statement)}. Everything between the start of
+ * both statements is the setup and everything between their ends is the
+ * teardown.
+ * <pre>
+ * public Statement apply(Statement base, Description description) {
+ *   OverheadMeasurement measurement = OverheadMeasurement.of("MyRule");
+ *   return measurement.around(createStatement(measurement.inside(base)));
+ * }
+ * </pre>
+ * The statements are returned unchanged if there is no sink.
+ */
+public class OverheadMeasurement {
+	private static final OverheadMeasurement DISABLED = new OverheadMeasurement(null, null);
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+	private static final boolean ALLOCATIONS_MEASURABLE = areAllocationsMeasurable();
+
+	private final String rule;
+	private final RuleOverheadSink sink;
+	private long startNanos;
+	private long startBytes;
+	private boolean tornDown;
+
+	private OverheadMeasurement(String rule, RuleOverheadSink sink) {
+		this.rule = rule;
+		this.sink = sink;
+	}
+
+	public static OverheadMeasurement of(String rule) {
+		RuleOverheadSink sink = RuleOverheadMetrics.getSink();
+		return (sink == null) ? DISABLED : new OverheadMeasurement(rule, sink);
+	}
+
+	public Statement around(final Statement ruleStatement) {
+		if (sink == null)
+			return ruleStatement;
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				tornDown = false;
+				start();
+				try {
+					ruleStatement.evaluate();
+				} finally {
+					if (tornDown)
+						stop(TEARDOWN);
+				}
+			}
+		};
+	}
+
+	public Statement inside(final Statement base) {
+		if (sink == null)
+			return base;
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				stop(SETUP);
+				try {
+					base.evaluate();
+				} finally {
+					tornDown = true;
+					start();
+				}
+			}
+		};
+	}
+
+	private void start() {
+		startBytes = allocatedBytes();
+		startNanos = System.nanoTime();
+	}
+
+	private void stop(Phase phase) {
+		long nanos = System.nanoTime() - startNanos;
+		long bytes = allocatedBytes();
+		sink.record(rule, phase, nanos,
+			(bytes < 0 || startBytes < 0) ? -1 : bytes - startBytes);
+	}
+
+	private static long allocatedBytes() {
+		if (ALLOCATIONS_MEASURABLE)
+			return ((com.sun.management.ThreadMXBean) THREADS)
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+		else
+			return -1;
+	}
+
+	/**
+	 * The HotSpot JVM and its derivatives count the bytes that are allocated
+	 * by each thread. Other JVMs may not provide {@code com.sun.management}.
+	 */
+	private static boolean areAllocationsMeasurable() {
+		try {
+			return THREADS instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) THREADS)
+					.isThreadAllocatedMemoryEnabled();
+		} catch (LinkageError e) {
+			return false;
+		} catch (UnsupportedOperationException e) {
+			return false;
+		}
+	}
+}
@@ -12,7 +12,7 @@ import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
 public enum PrintStreamHandler {
-	SYSTEM_OUT {
+	SYSTEM_OUT("System.out") {
 		@Override
 		PrintStream getStream() {
 			return out;
@@ -23,7 +23,7 @@ public enum PrintStreamHandler {
 			setOut(stream);
 		}
 	},
-	SYSTEM_ERR {
+	SYSTEM_ERR("System.err") {
 		@Override
 		PrintStream getStream() {
 			return err;
@@ -35,6 +35,16 @@ public enum PrintStreamHandler {
 		}
 	};
 
+	private final String name;
+
+	PrintStreamHandler(String name) {
+		this.name = name;
+	}
+
+	String getName() {
+		return name;
+	}
+
 	Statement createRestoreStatement(final Statement base) {
 		return new Statement() {
 			@Override
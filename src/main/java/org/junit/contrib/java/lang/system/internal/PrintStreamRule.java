@@ -1,12 +1,18 @@
 package org.junit.contrib.java.lang.system.internal;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.FilterOutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
@@ -27,7 +33,12 @@ public class PrintStreamRule implements TestRule {
 		}
 	}
 
-	public Statement apply(final Statement base, final Description description) {
+	public Statement apply(Statement base, Description description) {
+		OverheadMeasurement measurement = OverheadMeasurement.of(ruleName());
+		return measurement.around(createStatement(measurement.inside(base)));
+	}
+
+	private Statement createStatement(final Statement base) {
 		return new Statement() {
 			@Override
 			public void evaluate() throws Throwable {
@@ -47,6 +58,11 @@ public class PrintStreamRule implements TestRule {
 		};
 	}
 
+	private String ruleName() {
+		return (printStreamHandler == PrintStreamHandler.SYSTEM_OUT)
+			? "SystemOutRule" : "SystemErrRule";
+	}
+
 	public void clearLog() {
 		muteableLogStream.clearLog();
 	}
@@ -64,10 +80,36 @@ public class PrintStreamRule implements TestRule {
 		return getLog().replace(lineSeparator, "\n");
 	}
 
+	public byte[] getLogAsBytes() {
+		return muteableLogStream.log.toByteArray();
+	}
+
+	public ByteBuffer getLogAsByteBuffer() {
+		return muteableLogStream.log.asByteBuffer();
+	}
+
+	public void writeLogTo(OutputStream out) throws IOException {
+		muteableLogStream.log.writeTo(out);
+	}
+
+	public void writeLogTo(WritableByteChannel channel) throws IOException {
+		muteableLogStream.log.writeTo(channel);
+	}
+
+	public void assertLogEqualsFile(File file, boolean normalizeLineSeparators)
+			throws IOException {
+		new GoldenFile(file, normalizeLineSeparators).assertEqualsLog(
+			printStreamHandler.getName(), muteableLogStream.openLog());
+	}
+
 	public void mute() {
 		muteableLogStream.mute();
 	}
 
+	public void addObserver(OutputObserver observer) {
+		muteableLogStream.addObserver(observer);
+	}
+
 	public void muteForSuccessfulTests() {
 		mute();
 		muteableLogStream.enableFailureLog();
@@ -75,29 +117,33 @@ public class PrintStreamRule implements TestRule {
 
 	private static class MuteableLogStream extends PrintStream {
 		private final ByteArrayOutputStream failureLog;
-		private final ByteArrayOutputStream log;
+		private final LogOutputStream log;
 		private final MutableOutputStream muteableOriginalStream;
 		private final MutableOutputStream muteableFailureLog;
 		private final MutableOutputStream muteableLog;
+		private final ObservedOutputStream observedStream;
 
 		MuteableLogStream(OutputStream out) throws UnsupportedEncodingException {
-			this(out, new ByteArrayOutputStream(), new ByteArrayOutputStream());
+			this(out, new ByteArrayOutputStream(), new LogOutputStream());
 		}
 
 		MuteableLogStream(OutputStream out, ByteArrayOutputStream failureLog,
-				ByteArrayOutputStream log) throws UnsupportedEncodingException {
+				LogOutputStream log) throws UnsupportedEncodingException {
 			this(new MutableOutputStream(out),
 				failureLog, new MutableOutputStream(failureLog),
-				log, new MutableOutputStream(log));
+				log, new MutableOutputStream(log),
+				new ObservedOutputStream());
 		}
 
 		MuteableLogStream(MutableOutputStream muteableOriginalStream,
 				ByteArrayOutputStream failureLog, MutableOutputStream muteableFailureLog,
-				ByteArrayOutputStream log, MutableOutputStream muteableLog)
+				LogOutputStream log, MutableOutputStream muteableLog,
+				ObservedOutputStream observedStream)
 				throws UnsupportedEncodingException {
 			super(new TeeOutputStream(
 					muteableOriginalStream,
-					new TeeOutputStream(muteableFailureLog, muteableLog)));
+					new TeeOutputStream(muteableFailureLog,
+						new TeeOutputStream(muteableLog, observedStream))));
 			this.failureLog = failureLog;
 			this.log = log;
 			this.muteableOriginalStream = muteableOriginalStream;
@@ -105,12 +151,17 @@ public class PrintStreamRule implements TestRule {
 			this.muteableFailureLog.mute();
 			this.muteableLog = muteableLog;
 			this.muteableLog.mute();
+			this.observedStream = observedStream;
 		}
 
 		void mute() {
 			muteableOriginalStream.mute();
 		}
 
+		void addObserver(OutputObserver observer) {
+			observedStream.addObserver(observer);
+		}
+
 		void clearLog() {
 			log.reset();
 		}
@@ -123,6 +174,10 @@ public class PrintStreamRule implements TestRule {
 			return getLog(log);
 		}
 
+		InputStream openLog() {
+			return log.openInputStream();
+		}
+
 		void enableFailureLog() {
 			muteableFailureLog.turnOutputOn();
 		}
@@ -365,9 +420,14 @@ public class PrintStreamRule implements TestRule {
 		}
 	}
 
+	/**
+	 * Forwards the writes to the original stream unless it is muted. The
+	 * flag is volatile because the rule may be muted by the test's thread
+	 * while other threads are writing.
+	 */
 	private static class MutableOutputStream extends OutputStream {
 		private final OutputStream originalStream;
-		private boolean mute = false;
+		private volatile boolean mute = false;
 
 		MutableOutputStream(OutputStream originalStream) {
 			this.originalStream = originalStream;
@@ -386,5 +446,41 @@ public class PrintStreamRule implements TestRule {
 			if (!mute)
 				originalStream.write(b);
 		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (!mute)
+				originalStream.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (!mute)
+				originalStream.flush();
+		}
+	}
+
+	/**
+	 * Notifies the observers about every write regardless whether the
+	 * stream is muted or logged.
+	 */
+	private static class ObservedOutputStream extends OutputStream {
+		private final List<OutputObserver> observers
+			= new CopyOnWriteArrayList<OutputObserver>();
+
+		void addObserver(OutputObserver observer) {
+			observers.add(observer);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			for (OutputObserver observer : observers)
+				observer.written(b, off, len);
+		}
 	}
 }
@@ -0,0 +1,154 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.System.nanoTime;
+import static java.util.Arrays.copyOfRange;
+
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code ProfilingProperties} wrap a {@link Properties} object and count
+ * the reads and writes of each property. They measure the time of the
+ * reads and store the stack trace of the first access of each property.
+ * Accesses through the views of the properties (e.g. {@link #entrySet()})
+ * are not counted.
+ */
+public class ProfilingProperties extends DelegatingProperties {
+	private static final long serialVersionUID = -6380938420154817311L;
+
+	private final transient ConcurrentMap<Object, Counter> counters
+		= new ConcurrentHashMap<Object, Counter>();
+
+	public ProfilingProperties(Properties originalProperties) {
+		super(originalProperties);
+	}
+
+	public Collection<Counter> getCounters() {
+		return new ArrayList<Counter>(counters.values());
+	}
+
+	@Override
+	public String getProperty(String key) {
+		long start = nanoTime();
+		String value = originalProperties.getProperty(key);
+		counterFor(key).recordRead(nanoTime() - start);
+		return value;
+	}
+
+	@Override
+	public Object get(Object key) {
+		long start = nanoTime();
+		Object value = originalProperties.get(key);
+		counterFor(key).recordRead(nanoTime() - start);
+		return value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		long start = nanoTime();
+		boolean containsKey = originalProperties.containsKey(key);
+		counterFor(key).recordRead(nanoTime() - start);
+		return containsKey;
+	}
+
+	@Override
+	public Object put(Object key, Object value) {
+		counterFor(key).writes.incrementAndGet();
+		return originalProperties.put(key, value);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		counterFor(key).writes.incrementAndGet();
+		return originalProperties.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		for (Object key : originalProperties.keySet())
+			counterFor(key).writes.incrementAndGet();
+		originalProperties.clear();
+	}
+
+	/**
+	 * The counters are not restored by deserialization. Therefore a
+	 * deserialized object is replaced with its original properties. Usually
+	 * no such object exists, because {@link #writeReplace()} writes a copy
+	 * of the properties instead.
+	 */
+	private Object readResolve() throws ObjectStreamException {
+		return originalProperties;
+	}
+
+	private Counter counterFor(Object key) {
+		Counter counter = counters.get(key);
+		if (counter == null) {
+			Counter newCounter = new Counter(key, callerStackTrace());
+			counter = counters.putIfAbsent(key, newCounter);
+			if (counter == null)
+				counter = newCounter;
+		}
+		return counter;
+	}
+
+	private StackTraceElement[] callerStackTrace() {
+		StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+		int first = 0;
+		while (first < stackTrace.length
+				&& isFrameOfThisClass(stackTrace[first]))
+			++first;
+		return copyOfRange(stackTrace, first, stackTrace.length);
+	}
+
+	private boolean isFrameOfThisClass(StackTraceElement frame) {
+		return frame.getClassName().equals(ProfilingProperties.class.getName())
+			|| frame.getClassName().equals(DelegatingProperties.class.getName())
+			|| frame.getClassName().equals(JAVA_8_PROPERTIES);
+	}
+
+	/**
+	 * The accesses of a single property.
+	 */
+	public static class Counter {
+		private final Object key;
+		private final StackTraceElement[] firstAccess;
+		private final AtomicLong reads = new AtomicLong();
+		private final AtomicLong writes = new AtomicLong();
+		private final AtomicLong readNanos = new AtomicLong();
+
+		Counter(Object key, StackTraceElement[] firstAccess) {
+			this.key = key;
+			this.firstAccess = firstAccess;
+		}
+
+		void recordRead(long nanos) {
+			reads.incrementAndGet();
+			readNanos.addAndGet(nanos);
+		}
+
+		public Object getKey() {
+			return key;
+		}
+
+		public StackTraceElement[] getFirstAccess() {
+			return firstAccess.clone();
+		}
+
+		public long getReads() {
+			return reads.get();
+		}
+
+		public long getWrites() {
+			return writes.get();
+		}
+
+		public long getReadNanos() {
+			return readNanos.get();
+		}
+	}
+}
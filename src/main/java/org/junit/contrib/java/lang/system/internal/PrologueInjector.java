@@ -0,0 +1,374 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inserts a call of a static method at the beginning of methods of a
+ * class file. The inserted code passes the first {@code int} argument of
+ * the instance method to the static method, i.e. it is
+ * <pre>
+ * iload_1
+ * invokestatic owner.name(I)V
+ * </pre>
+ * The code has four bytes, hence the alignment of {@code tableswitch} and
+ * {@code lookupswitch} instructions is not affected. It has no branches,
+ * hence no stack map frame is needed. All offsets of the method's code
+ * attribute are moved by four bytes.
+ *
+ * <p>This is not a general purpose bytecode library. It supports exactly
+ * what is needed for instrumenting {@code java.lang.Runtime}.
+ */
+class PrologueInjector {
+	private static final int ILOAD_1 = 0x1B;
+	private static final int INVOKESTATIC = 0xB8;
+	private static final int PROLOGUE_LENGTH = 4;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	private final String owner;
+	private final Map<String, String> hooks = new HashMap<String, String>();
+
+	/**
+	 * @param owner the internal name of the class with the static methods.
+	 */
+	PrologueInjector(String owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Calls the static method {@code hook} at the beginning of the
+	 * instance method {@code method}, which must have the descriptor
+	 * {@code (I)V}.
+	 */
+	PrologueInjector callAtStartOf(String method, String hook) {
+		hooks.put(method, hook);
+		return this;
+	}
+
+	byte[] inject(byte[] classFile) throws IOException {
+		DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(classFile));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(classFile.length + 256);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(in.readInt()); //magic
+		out.writeInt(in.readInt()); //minor and major version
+		ConstantPool pool = ConstantPool.read(in);
+		Map<String, Integer> hookReferences = addHookReferences(pool);
+		pool.write(out);
+		copy(in, out, 6); //access flags, this class, super class
+		int interfacesCount = in.readUnsignedShort();
+		out.writeShort(interfacesCount);
+		copy(in, out, 2 * interfacesCount);
+		copyMembers(in, out);
+		int methodsCount = in.readUnsignedShort();
+		out.writeShort(methodsCount);
+		for (int i = 0; i < methodsCount; ++i)
+			copyMethod(in, out, pool, hookReferences);
+		copyAttributes(in, out);
+		return bytes.toByteArray();
+	}
+
+	private Map<String, Integer> addHookReferences(ConstantPool pool) {
+		int classIndex = pool.add(CONSTANT_CLASS, pool.addUtf8(owner));
+		int descriptorIndex = pool.addUtf8("(I)V");
+		Map<String, Integer> references = new HashMap<String, Integer>();
+		for (Map.Entry<String, String> hook : hooks.entrySet()) {
+			int nameAndType = pool.add(CONSTANT_NAME_AND_TYPE,
+				pool.addUtf8(hook.getValue()), descriptorIndex);
+			references.put(hook.getKey(),
+				pool.add(CONSTANT_METHODREF, classIndex, nameAndType));
+		}
+		return references;
+	}
+
+	private void copyMethod(DataInputStream in, DataOutputStream out,
+			ConstantPool pool, Map<String, Integer> hookReferences)
+			throws IOException {
+		int accessFlags = in.readUnsignedShort();
+		int nameIndex = in.readUnsignedShort();
+		int descriptorIndex = in.readUnsignedShort();
+		out.writeShort(accessFlags);
+		out.writeShort(nameIndex);
+		out.writeShort(descriptorIndex);
+		Integer hookReference = "(I)V".equals(pool.utf8(descriptorIndex))
+			? hookReferences.get(pool.utf8(nameIndex)) : null;
+		int attributesCount = in.readUnsignedShort();
+		out.writeShort(attributesCount);
+		for (int i = 0; i < attributesCount; ++i) {
+			int attributeName = in.readUnsignedShort();
+			byte[] attribute = new byte[in.readInt()];
+			in.readFully(attribute);
+			if (hookReference != null && "Code".equals(pool.utf8(attributeName)))
+				attribute = insertPrologue(attribute, pool, hookReference);
+			out.writeShort(attributeName);
+			out.writeInt(attribute.length);
+			out.write(attribute);
+		}
+	}
+
+	private byte[] insertPrologue(byte[] codeAttribute, ConstantPool pool,
+			int hookReference) throws IOException {
+		DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(codeAttribute));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(codeAttribute.length + 16);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeShort(Math.max(1, in.readUnsignedShort())); //max stack
+		out.writeShort(in.readUnsignedShort()); //max locals
+		int codeLength = in.readInt();
+		out.writeInt(codeLength + PROLOGUE_LENGTH);
+		out.write(ILOAD_1);
+		out.write(INVOKESTATIC);
+		out.writeShort(hookReference);
+		copy(in, out, codeLength);
+		int exceptionTableLength = in.readUnsignedShort();
+		out.writeShort(exceptionTableLength);
+		for (int i = 0; i < exceptionTableLength; ++i) {
+			out.writeShort(in.readUnsignedShort() + PROLOGUE_LENGTH); //start
+			out.writeShort(in.readUnsignedShort() + PROLOGUE_LENGTH); //end
+			out.writeShort(in.readUnsignedShort() + PROLOGUE_LENGTH); //handler
+			out.writeShort(in.readUnsignedShort()); //catch type
+		}
+		int attributesCount = in.readUnsignedShort();
+		ByteArrayOutputStream attributes = new ByteArrayOutputStream();
+		DataOutputStream attributesOut = new DataOutputStream(attributes);
+		int writtenAttributes = 0;
+		for (int i = 0; i < attributesCount; ++i) {
+			int attributeName = in.readUnsignedShort();
+			byte[] attribute = new byte[in.readInt()];
+			in.readFully(attribute);
+			String name = pool.utf8(attributeName);
+			if ("LineNumberTable".equals(name))
+				attribute = moveStartPcs(attribute, 4);
+			else if ("LocalVariableTable".equals(name)
+					|| "LocalVariableTypeTable".equals(name))
+				attribute = moveStartPcs(attribute, 10);
+			else if ("StackMapTable".equals(name))
+				attribute = moveStackMapFrames(attribute);
+			else if (name.endsWith("TypeAnnotations"))
+				continue; //contains offsets but is not needed at runtime
+			attributesOut.writeShort(attributeName);
+			attributesOut.writeInt(attribute.length);
+			attributesOut.write(attribute);
+			++writtenAttributes;
+		}
+		out.writeShort(writtenAttributes);
+		attributes.writeTo(out);
+		return bytes.toByteArray();
+	}
+
+	private byte[] moveStartPcs(byte[] table, int entryLength) {
+		byte[] moved = table.clone();
+		int length = ((moved[0] & 0xFF) << 8) | (moved[1] & 0xFF);
+		for (int i = 0; i < length; ++i) {
+			int offset = 2 + i * entryLength;
+			int startPc = ((moved[offset] & 0xFF) << 8) | (moved[offset + 1] & 0xFF);
+			startPc += PROLOGUE_LENGTH;
+			moved[offset] = (byte) (startPc >> 8);
+			moved[offset + 1] = (byte) startPc;
+		}
+		return moved;
+	}
+
+	/**
+	 * Only the offset of the first frame is relative to the start of the
+	 * code. All other frames are relative to their predecessor. Offsets of
+	 * uninitialized objects are absolute and have to be moved, too.
+	 */
+	private byte[] moveStackMapFrames(byte[] table) throws IOException {
+		DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(table));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(table.length + 2);
+		DataOutputStream out = new DataOutputStream(bytes);
+		int numberOfEntries = in.readUnsignedShort();
+		out.writeShort(numberOfEntries);
+		for (int i = 0; i < numberOfEntries; ++i) {
+			int shift = (i == 0) ? PROLOGUE_LENGTH : 0;
+			int frameType = in.readUnsignedByte();
+			if (frameType < 64)
+				writeSameFrame(out, frameType + shift);
+			else if (frameType < 128) {
+				writeSameLocals1StackItemFrame(out, frameType - 64 + shift);
+				copyVerificationType(in, out);
+			} else if (frameType == 247) {
+				out.writeByte(247);
+				out.writeShort(in.readUnsignedShort() + shift);
+				copyVerificationType(in, out);
+			} else if (frameType >= 248 && frameType <= 251) {
+				out.writeByte(frameType);
+				out.writeShort(in.readUnsignedShort() + shift);
+			} else if (frameType >= 252 && frameType <= 254) {
+				out.writeByte(frameType);
+				out.writeShort(in.readUnsignedShort() + shift);
+				copyVerificationTypes(in, out, frameType - 251);
+			} else if (frameType == 255) {
+				out.writeByte(frameType);
+				out.writeShort(in.readUnsignedShort() + shift);
+				int numberOfLocals = in.readUnsignedShort();
+				out.writeShort(numberOfLocals);
+				copyVerificationTypes(in, out, numberOfLocals);
+				int numberOfStackItems = in.readUnsignedShort();
+				out.writeShort(numberOfStackItems);
+				copyVerificationTypes(in, out, numberOfStackItems);
+			} else
+				throw new IOException("Unknown stack map frame type " + frameType + ".");
+		}
+		return bytes.toByteArray();
+	}
+
+	private void writeSameFrame(DataOutputStream out, int offsetDelta)
+			throws IOException {
+		if (offsetDelta < 64)
+			out.writeByte(offsetDelta);
+		else {
+			out.writeByte(251); //same_frame_extended
+			out.writeShort(offsetDelta);
+		}
+	}
+
+	private void writeSameLocals1StackItemFrame(DataOutputStream out,
+			int offsetDelta) throws IOException {
+		if (offsetDelta < 64)
+			out.writeByte(64 + offsetDelta);
+		else {
+			out.writeByte(247); //same_locals_1_stack_item_frame_extended
+			out.writeShort(offsetDelta);
+		}
+	}
+
+	private void copyVerificationTypes(DataInputStream in, DataOutputStream out,
+			int number) throws IOException {
+		for (int i = 0; i < number; ++i)
+			copyVerificationType(in, out);
+	}
+
+	private void copyVerificationType(DataInputStream in, DataOutputStream out)
+			throws IOException {
+		int tag = in.readUnsignedByte();
+		out.writeByte(tag);
+		if (tag == 7) //Object
+			out.writeShort(in.readUnsignedShort());
+		else if (tag == 8) //Uninitialized
+			out.writeShort(in.readUnsignedShort() + PROLOGUE_LENGTH);
+	}
+
+	private void copyMembers(DataInputStream in, DataOutputStream out)
+			throws IOException {
+		int count = in.readUnsignedShort();
+		out.writeShort(count);
+		for (int i = 0; i < count; ++i) {
+			copy(in, out, 6); //access flags, name, descriptor
+			copyAttributes(in, out);
+		}
+	}
+
+	private void copyAttributes(DataInputStream in, DataOutputStream out)
+			throws IOException {
+		int count = in.readUnsignedShort();
+		out.writeShort(count);
+		for (int i = 0; i < count; ++i) {
+			out.writeShort(in.readUnsignedShort());
+			int length = in.readInt();
+			out.writeInt(length);
+			copy(in, out, length);
+		}
+	}
+
+	private static void copy(DataInputStream in, DataOutputStream out, int length)
+			throws IOException {
+		byte[] buffer = new byte[length];
+		in.readFully(buffer);
+		out.write(buffer);
+	}
+
+	private static class ConstantPool {
+		private static final int CONSTANT_LONG = 5;
+		private static final int CONSTANT_DOUBLE = 6;
+
+		private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+		private final DataOutputStream entriesOut = new DataOutputStream(entries);
+		private final Map<Integer, String> utf8Entries = new HashMap<Integer, String>();
+		private int count;
+
+		static ConstantPool read(DataInputStream in) throws IOException {
+			ConstantPool pool = new ConstantPool();
+			pool.count = in.readUnsignedShort();
+			for (int index = 1; index < pool.count; ++index) {
+				int tag = in.readUnsignedByte();
+				pool.entriesOut.writeByte(tag);
+				if (tag == CONSTANT_UTF8) {
+					String value = in.readUTF();
+					pool.utf8Entries.put(index, value);
+					pool.entriesOut.writeUTF(value);
+				} else {
+					copy(in, pool.entriesOut, lengthOfEntry(tag));
+					if (tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE)
+						++index;
+				}
+			}
+			return pool;
+		}
+
+		private static int lengthOfEntry(int tag) throws IOException {
+			switch (tag) {
+			case 3: //Integer
+			case 4: //Float
+			case 9: //Fieldref
+			case 10: //Methodref
+			case 11: //InterfaceMethodref
+			case 12: //NameAndType
+			case 17: //Dynamic
+			case 18: //InvokeDynamic
+				return 4;
+			case 5: //Long
+			case 6: //Double
+				return 8;
+			case 7: //Class
+			case 8: //String
+			case 16: //MethodType
+			case 19: //Module
+			case 20: //Package
+				return 2;
+			case 15: //MethodHandle
+				return 3;
+			default:
+				throw new IOException("Unknown constant pool tag " + tag + ".");
+			}
+		}
+
+		String utf8(int index) {
+			return utf8Entries.get(index);
+		}
+
+		int addUtf8(String value) {
+			try {
+				entriesOut.writeByte(CONSTANT_UTF8);
+				entriesOut.writeUTF(value);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			utf8Entries.put(count, value);
+			return count++;
+		}
+
+		int add(int tag, int... references) {
+			try {
+				entriesOut.writeByte(tag);
+				for (int reference : references)
+					entriesOut.writeShort(reference);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return count++;
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			out.writeShort(count);
+			entries.writeTo(out);
+		}
+	}
+}
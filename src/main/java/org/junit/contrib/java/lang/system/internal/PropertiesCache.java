@@ -0,0 +1,186 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.Integer.getInteger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+
+/**
+ * The {@code PropertiesCache} keeps the parsed content of properties files
+ * and resources, so that a file that is used by many tests is parsed only
+ * once. An entry is parsed again if the modification time or the length of
+ * the file has changed. The length detects most changes that happen within
+ * the resolution of the modification time, which is a second or more on
+ * some file systems. Files and resources without a modification time (e.g.
+ * resources that are loaded from the network) are not cached.
+ *
+ * <p>The cache keeps the entries that have been used most recently. Its
+ * size is specified by the system property {@value #SIZE_PROPERTY}. It
+ * defaults to {@value #DEFAULT_SIZE}.
+ */
+public class PropertiesCache {
+	static final String SIZE_PROPERTY = "systemRules.propertiesCacheSize";
+	static final int DEFAULT_SIZE = 32;
+	private static final PropertiesCache SHARED_CACHE
+		= new PropertiesCache(getInteger(SIZE_PROPERTY, DEFAULT_SIZE));
+
+	private final Map<String, Entry> entries;
+
+	PropertiesCache(int size) {
+		entries = new RecentlyUsedEntries(size);
+	}
+
+	public static PropertiesCache sharedCache() {
+		return SHARED_CACHE;
+	}
+
+	/**
+	 * Returns the properties of a file.
+	 *
+	 * @param name the name of the file.
+	 * @return an unmodifiable map of the properties.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public Map<String, String> propertiesOfFile(String name) throws IOException {
+		File file = new File(name);
+		String key = file.getAbsolutePath();
+		Version version = new Version(file.lastModified(), file.length());
+		Map<String, String> properties = cachedProperties(key, version);
+		if (properties == null) {
+			properties = parse(new FileInputStream(file));
+			cache(key, version, properties);
+		}
+		return properties;
+	}
+
+	/**
+	 * Returns the properties of a resource. The resource is loaded like
+	 * {@link Class#getResource(String)} does.
+	 *
+	 * @param base the class that is used for loading the resource.
+	 * @param name the name of the resource.
+	 * @return an unmodifiable map of the properties.
+	 * @throws IOException if the resource does not exist or cannot be read.
+	 */
+	public Map<String, String> propertiesOfResource(Class<?> base, String name)
+			throws IOException {
+		URL url = base.getResource(name);
+		if (url == null)
+			throw new FileNotFoundException("The resource \"" + name
+				+ "\" does not exist.");
+		String key = url.toExternalForm();
+		Version version = versionOf(url);
+		Map<String, String> properties = cachedProperties(key, version);
+		if (properties == null) {
+			properties = parse(url.openStream());
+			cache(key, version, properties);
+		}
+		return properties;
+	}
+
+	private synchronized Map<String, String> cachedProperties(String key,
+			Version version) {
+		Entry entry = entries.get(key);
+		if (entry == null || !entry.version.equals(version))
+			return null;
+		else
+			return entry.properties;
+	}
+
+	private synchronized void cache(String key, Version version,
+			Map<String, String> properties) {
+		if (version.lastModified > 0)
+			entries.put(key, new Entry(version, properties));
+	}
+
+	private static Map<String, String> parse(InputStream is) throws IOException {
+		Properties properties = new Properties();
+		try {
+			properties.load(is);
+		} finally {
+			is.close();
+		}
+		Map<String, String> values = new LinkedHashMap<String, String>();
+		for (String name : properties.stringPropertyNames())
+			values.put(name, properties.getProperty(name));
+		return Collections.unmodifiableMap(values);
+	}
+
+	private static Version versionOf(URL url) throws IOException {
+		if ("file".equals(url.getProtocol()))
+			try {
+				File file = new File(url.toURI());
+				return new Version(file.lastModified(), file.length());
+			} catch (URISyntaxException e) {
+				return Version.UNKNOWN;
+			}
+		else if ("jar".equals(url.getProtocol())) {
+			JarEntry entry = ((JarURLConnection) url.openConnection()).getJarEntry();
+			return new Version(entry.getTime(), entry.getSize());
+		} else
+			return Version.UNKNOWN;
+	}
+
+	private static class Version {
+		static final Version UNKNOWN = new Version(0, 0);
+
+		final long lastModified;
+		final long length;
+
+		Version(long lastModified, long length) {
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Version))
+				return false;
+			Version otherVersion = (Version) other;
+			return lastModified == otherVersion.lastModified
+				&& length == otherVersion.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (lastModified ^ length);
+		}
+	}
+
+	private static class RecentlyUsedEntries extends LinkedHashMap<String, Entry> {
+		private static final long serialVersionUID = -2831502387345018284L;
+
+		private final int size;
+
+		RecentlyUsedEntries(int size) {
+			super(16, 0.75f, true);
+			this.size = size;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > size;
+		}
+	}
+
+	private static class Entry {
+		final Version version;
+		final Map<String, String> properties;
+
+		Entry(Version version, Map<String, String> properties) {
+			this.version = version;
+			this.properties = properties;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A {@code PropertiesSnapshot} stores the entries of a {@link Properties}
+ * object and restores them later. Only entries that have been changed in
+ * the meantime are written back. The properties object itself is not
+ * replaced, so that reading properties stays as fast as before.
+ */
+public class PropertiesSnapshot {
+	private final Properties properties;
+	private final Properties entries;
+
+	private PropertiesSnapshot(Properties properties) {
+		this.properties = properties;
+		this.entries = (Properties) properties.clone();
+	}
+
+	public static PropertiesSnapshot takeSnapshot(Properties properties) {
+		return new PropertiesSnapshot(properties);
+	}
+
+	public Properties getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Restores the entries of the properties object at the time of the
+	 * snapshot. Entries that have not been changed are not touched.
+	 */
+	public void restore() {
+		synchronized (properties) {
+			for (Object key : addedKeys())
+				properties.remove(key);
+			for (Map.Entry<Object, Object> entry : entries.entrySet())
+				if (!entry.getValue().equals(properties.get(entry.getKey())))
+					properties.put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private List<Object> addedKeys() {
+		List<Object> addedKeys = new ArrayList<Object>();
+		for (Object key : properties.keySet())
+			if (!entries.containsKey(key))
+				addedKeys.add(key);
+		return addedKeys;
+	}
+}
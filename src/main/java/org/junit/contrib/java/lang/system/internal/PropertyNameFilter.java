@@ -0,0 +1,83 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.util.regex.Pattern.quote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A filter for the names of properties. It accepts names with one of its
+ * prefixes and names that match one of its glob patterns or regular
+ * expressions. The patterns are compiled when they are added, so that all
+ * names can be checked by a single scan over the properties.
+ */
+public class PropertyNameFilter {
+	private final List<String> prefixes = new ArrayList<String>();
+	private final List<Pattern> patterns = new ArrayList<Pattern>();
+
+	/**
+	 * Accepts the names that start with the specified prefix.
+	 *
+	 * @param prefix the prefix, e.g. {@code app.}.
+	 */
+	public void addPrefix(String prefix) {
+		prefixes.add(prefix);
+	}
+
+	/**
+	 * Accepts the names that match the specified glob pattern. The pattern
+	 * {@code *} matches any number of characters and the pattern {@code ?}
+	 * matches a single character.
+	 *
+	 * @param glob the pattern, e.g. {@code app.*.url}.
+	 */
+	public void addGlob(String glob) {
+		patterns.add(Pattern.compile(globToRegex(glob), Pattern.DOTALL));
+	}
+
+	/**
+	 * Accepts the names that match the specified regular expression. The
+	 * whole name has to match the expression.
+	 *
+	 * @param regex the regular expression.
+	 */
+	public void addRegex(Pattern regex) {
+		patterns.add(regex);
+	}
+
+	public boolean isEmpty() {
+		return prefixes.isEmpty() && patterns.isEmpty();
+	}
+
+	public boolean accepts(String name) {
+		for (String prefix : prefixes)
+			if (name.startsWith(prefix))
+				return true;
+		for (Pattern pattern : patterns)
+			if (pattern.matcher(name).matches())
+				return true;
+		return false;
+	}
+
+	private static String globToRegex(String glob) {
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		for (int i = 0; i < glob.length(); ++i) {
+			char c = glob.charAt(i);
+			if (isWildcard(c)) {
+				if (i > start)
+					regex.append(quote(glob.substring(start, i)));
+				regex.append(c == '*' ? ".*" : ".");
+				start = i + 1;
+			}
+		}
+		if (start < glob.length())
+			regex.append(quote(glob.substring(start)));
+		return regex.toString();
+	}
+
+	private static boolean isWildcard(char c) {
+		return c == '*' || c == '?';
+	}
+}
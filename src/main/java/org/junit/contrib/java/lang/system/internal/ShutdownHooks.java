@@ -0,0 +1,127 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.System.currentTimeMillis;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ShutdownHooks} determines the shutdown hooks that are added while
+ * a test is running. They are removed after the test, so that they are not
+ * executed when the JVM terminates, and can be executed like the JVM would
+ * do on {@code System.exit(int)}.
+ *
+ * <p>The JDK has no public API for listing shutdown hooks. Therefore the
+ * registry {@code java.lang.ApplicationShutdownHooks} is read by
+ * reflection. Java 16 and later allow this only if the package
+ * {@code java.lang} is opened, e.g. by the {@link ExitInterceptionAgent}.
+ */
+public class ShutdownHooks {
+	private final Set<Thread> hooksBeforeTest;
+
+	private ShutdownHooks(Set<Thread> hooksBeforeTest) {
+		this.hooksBeforeTest = hooksBeforeTest;
+	}
+
+	public static ShutdownHooks takeSnapshot() {
+		return new ShutdownHooks(registeredHooks());
+	}
+
+	/**
+	 * Removes the shutdown hooks that have been added since the snapshot
+	 * has been taken.
+	 *
+	 * @return the removed hooks.
+	 */
+	public List<Thread> removeNewHooks() {
+		List<Thread> newHooks = new ArrayList<Thread>(registeredHooks());
+		newHooks.removeAll(hooksBeforeTest);
+		for (Thread hook : newHooks)
+			Runtime.getRuntime().removeShutdownHook(hook);
+		return newHooks;
+	}
+
+	/**
+	 * Runs the hooks concurrently like the JVM does.
+	 *
+	 * @param hooks the hooks.
+	 * @param timeout the maximum time for running all hooks.
+	 * @param unit the unit of the {@code timeout}.
+	 * @return an exception that has been thrown by a hook or {@code null}
+	 * if all hooks completed normally.
+	 * @throws InterruptedException if the current thread is interrupted
+	 * while waiting for the hooks.
+	 * @throws IllegalStateException if the hooks are still running after
+	 * the timeout.
+	 */
+	public static Throwable runHooks(List<Thread> hooks, long timeout,
+			TimeUnit unit) throws InterruptedException {
+		final Throwable[] firstFailure = new Throwable[1];
+		Thread.UncaughtExceptionHandler handler = new Thread.UncaughtExceptionHandler() {
+			public void uncaughtException(Thread thread, Throwable exception) {
+				synchronized (firstFailure) {
+					if (firstFailure[0] == null)
+						firstFailure[0] = exception;
+				}
+			}
+		};
+		for (Thread hook : hooks) {
+			hook.setUncaughtExceptionHandler(handler);
+			hook.start();
+		}
+		long deadline = currentTimeMillis() + unit.toMillis(timeout);
+		for (Thread hook : hooks) {
+			long remaining = deadline - currentTimeMillis();
+			if (remaining > 0)
+				hook.join(remaining);
+			if (hook.isAlive())
+				throw new IllegalStateException("The shutdown hook \"" + hook.getName()
+					+ "\" has not finished within " + timeout + " "
+					+ unit.toString().toLowerCase(Locale.ROOT) + ".");
+		}
+		synchronized (firstFailure) {
+			return firstFailure[0];
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Set<Thread> registeredHooks() {
+		try {
+			Class<?> registry = Class.forName("java.lang.ApplicationShutdownHooks");
+			Field field = registry.getDeclaredField("hooks");
+			field.setAccessible(true);
+			synchronized (registry) {
+				Map<Thread, Thread> hooks = (Map<Thread, Thread>) field.get(null);
+				if (hooks == null) //the JVM is shutting down
+					return Collections.emptySet();
+				Set<Thread> copy = Collections.newSetFromMap(
+					new IdentityHashMap<Thread, Boolean>());
+				copy.addAll(hooks.keySet());
+				return copy;
+			}
+		} catch (ClassNotFoundException e) {
+			throw cannotReadHooks(e);
+		} catch (NoSuchFieldException e) {
+			throw cannotReadHooks(e);
+		} catch (IllegalAccessException e) {
+			throw cannotReadHooks(e);
+		} catch (RuntimeException e) {
+			//InaccessibleObjectException of Java 9 and later or SecurityException
+			throw cannotReadHooks(e);
+		}
+	}
+
+	private static IllegalStateException cannotReadHooks(Exception cause) {
+		return new IllegalStateException("Cannot read the shutdown hooks."
+			+ " Java 16 and later require the JVM option"
+			+ " --add-opens java.base/java.lang=ALL-UNNAMED or the"
+			+ " option -javaagent:path/to/system-rules.jar.", cause);
+	}
+}
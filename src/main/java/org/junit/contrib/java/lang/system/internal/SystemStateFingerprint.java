@@ -0,0 +1,85 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.System.getProperties;
+import static java.lang.System.getSecurityManager;
+import static java.lang.System.getenv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A {@code SystemStateFingerprint} describes the global state of the JVM
+ * that is changed by System Rules: the standard streams, the system
+ * properties, the environment variables, the security manager and the
+ * interceptor of {@code System.exit}. Objects are compared by identity.
+ * The content of the properties and environment variables is condensed to
+ * a hash, so that a fingerprint is cheap and doesn't copy them.
+ */
+public class SystemStateFingerprint {
+	private final Object out = System.out;
+	private final Object err = System.err;
+	private final Object in = System.in;
+	private final Properties properties = getProperties();
+	private final long propertiesHash = hash(properties);
+	private final long environmentHash = hash(getenv());
+	private final Object securityManager = getSecurityManager();
+	private final Object exitInterceptor = ExitHook.getInterceptor();
+
+	public static SystemStateFingerprint takeFingerprint() {
+		return new SystemStateFingerprint();
+	}
+
+	/**
+	 * Describes how the current state differs from this fingerprint.
+	 *
+	 * @return a description of each difference. The list is empty if the
+	 * state has not been changed.
+	 */
+	public List<String> differencesToCurrentState() {
+		SystemStateFingerprint current = takeFingerprint();
+		List<String> differences = new ArrayList<String>();
+		if (current.out != out)
+			differences.add("System.out has been replaced.");
+		if (current.err != err)
+			differences.add("System.err has been replaced.");
+		if (current.in != in)
+			differences.add("System.in has been replaced.");
+		if (current.properties != properties)
+			differences.add("The system properties have been replaced.");
+		else if (current.propertiesHash != propertiesHash)
+			differences.add("The system properties have been changed.");
+		if (current.environmentHash != environmentHash)
+			differences.add("The environment variables have been changed.");
+		if (current.securityManager != securityManager)
+			differences.add("The security manager has been replaced.");
+		if (current.exitInterceptor != exitInterceptor)
+			differences.add("The interceptor of System.exit has been replaced.");
+		return differences;
+	}
+
+	/**
+	 * An order-independent hash of the entries. Each entry's hash is mixed
+	 * before it is added, so that e.g. swapping two values changes the
+	 * hash.
+	 */
+	private static long hash(Map<?, ?> map) {
+		synchronized (map) {
+			long hash = 0;
+			for (Map.Entry<?, ?> entry : map.entrySet())
+				hash += mix(31L * hashCode(entry.getKey()) + hashCode(entry.getValue()));
+			return hash;
+		}
+	}
+
+	private static int hashCode(Object object) {
+		return (object == null) ? 0 : object.hashCode();
+	}
+
+	private static long mix(long value) {
+		value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+		value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return value ^ (value >>> 33);
+	}
+}
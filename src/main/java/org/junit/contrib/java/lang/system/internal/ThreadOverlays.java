@@ -0,0 +1,114 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code ThreadOverlays} are the overlays of {@link ThreadRoutedProperties}
+ * and {@link ThreadRoutedEnvironment}. Each overlay belongs to a thread and
+ * to every thread that is created by it afterwards. If a thread adds
+ * another overlay then the new overlay is put on top of it. The threads
+ * read the values of their top-most overlay and of the overlays beneath it.
+ * All their changes are stored by the top-most overlay.
+ *
+ * <p>An overlay is closed when it is removed. Threads that have inherited
+ * it, e.g. the threads of a pool that has been created by a test, skip it
+ * from then on and use the overlay beneath it.
+ *
+ * <p>Overlays are added and removed while holding the lock of the class
+ * that owns the {@code ThreadOverlays}. Their values can be read and
+ * written without a lock.
+ */
+public class ThreadOverlays {
+	/**
+	 * The value of a key that has been removed by an overlay.
+	 */
+	static final Object REMOVED = new Object();
+
+	private final InheritableThreadLocal<Overlay> overlay
+		= new InheritableThreadLocal<Overlay>();
+	private int numberOfOverlays = 0;
+
+	Overlay add() {
+		Overlay newOverlay = new Overlay(current());
+		overlay.set(newOverlay);
+		++numberOfOverlays;
+		return newOverlay;
+	}
+
+	/**
+	 * Closes the specified overlay. The current thread uses the overlay
+	 * beneath it again.
+	 *
+	 * @return {@code true} if the last open overlay has been removed.
+	 */
+	boolean remove(Overlay removedOverlay) {
+		if (removedOverlay.closed)
+			return false;
+		removedOverlay.closed = true;
+		Overlay currentOverlay = current();
+		if (currentOverlay == null)
+			overlay.remove();
+		else
+			overlay.set(currentOverlay);
+		return --numberOfOverlays == 0;
+	}
+
+	/**
+	 * Returns the top-most overlay of the current thread that has not been
+	 * closed.
+	 */
+	Overlay current() {
+		Overlay currentOverlay = overlay.get();
+		while (currentOverlay != null && currentOverlay.closed)
+			currentOverlay = currentOverlay.parent;
+		return currentOverlay;
+	}
+
+	/**
+	 * The values that have been set or removed by the threads of a test.
+	 */
+	public static class Overlay {
+		private final Overlay parent;
+		private final Map<Object, Object> values
+			= new ConcurrentHashMap<Object, Object>();
+		private volatile boolean closed = false;
+
+		private Overlay(Overlay parent) {
+			this.parent = parent;
+		}
+
+		/**
+		 * Returns the value of this overlay or of the overlays beneath it,
+		 * {@link ThreadOverlays#REMOVED} or {@code null} if no overlay has
+		 * a value.
+		 */
+		Object get(Object key) {
+			Object value = closed ? null : values.get(key);
+			if (value == null && parent != null)
+				return parent.get(key);
+			else
+				return value;
+		}
+
+		void put(Object key, Object value) {
+			values.put(key, value);
+		}
+
+		void remove(Object key) {
+			values.put(key, REMOVED);
+		}
+
+		@SuppressWarnings("unchecked")
+		<K, V> void applyTo(Map<K, V> map) {
+			if (parent != null)
+				parent.applyTo(map);
+			if (!closed)
+				for (Map.Entry<Object, Object> entry : values.entrySet())
+					if (entry.getValue() == REMOVED)
+						map.remove(entry.getKey());
+					else
+						map.put((K) entry.getKey(), (V) entry.getValue());
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static org.junit.contrib.java.lang.system.internal.EditableEnvironment.getGetenvMap;
+import static org.junit.contrib.java.lang.system.internal.EditableEnvironment.setGetenvMap;
+import static org.junit.contrib.java.lang.system.internal.ThreadOverlays.REMOVED;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.contrib.java.lang.system.internal.ThreadOverlays.Overlay;
+
+/**
+ * A {@code ThreadRoutedEnvironment} replaces the map behind
+ * {@code System.getenv()} while at least one thread has an overlay (see
+ * {@link ThreadOverlays}). It routes the variables like
+ * {@link ThreadRoutedProperties} route the system properties. The original
+ * map is restored when the last overlay is removed.
+ *
+ * <p>On Windows {@code System.getenv(String)} does not use the map behind
+ * {@code System.getenv()}. Therefore overlays are only visible to
+ * {@code System.getenv()} there.
+ */
+public class ThreadRoutedEnvironment extends AbstractMap<String, String> {
+	private static final Object LOCK = new Object();
+	private static ThreadRoutedEnvironment installedEnvironment = null;
+
+	private final Map<String, String> originalEnvironment;
+	private final ThreadOverlays overlays = new ThreadOverlays();
+
+	private ThreadRoutedEnvironment(Map<String, String> originalEnvironment) {
+		this.originalEnvironment = originalEnvironment;
+	}
+
+	/**
+	 * Adds an overlay for the current thread. If the thread already has an
+	 * overlay then the new overlay is put on top of it.
+	 *
+	 * @return the new overlay.
+	 */
+	public static Overlay addOverlayForCurrentThread() {
+		synchronized (LOCK) {
+			if (installedEnvironment == null) {
+				installedEnvironment = new ThreadRoutedEnvironment(getGetenvMap());
+				setGetenvMap(installedEnvironment);
+			}
+			return installedEnvironment.overlays.add();
+		}
+	}
+
+	/**
+	 * Removes the specified overlay of the current thread and discards its
+	 * variables. The thread uses the overlay beneath it again.
+	 *
+	 * @param overlay the overlay that has been created by
+	 * {@link #addOverlayForCurrentThread()}.
+	 */
+	public static void removeOverlay(Overlay overlay) {
+		synchronized (LOCK) {
+			if (installedEnvironment == null)
+				return;
+			if (installedEnvironment.overlays.remove(overlay)) {
+				if (getGetenvMap() == installedEnvironment)
+					setGetenvMap(installedEnvironment.originalEnvironment);
+				installedEnvironment = null;
+			}
+		}
+	}
+
+	static boolean hasOverlayForCurrentThread() {
+		synchronized (LOCK) {
+			return installedEnvironment != null
+				&& installedEnvironment.overlays.current() != null;
+		}
+	}
+
+	@Override
+	public String get(Object name) {
+		Overlay currentOverlay = overlays.current();
+		Object value = (currentOverlay == null) ? null : currentOverlay.get(name);
+		if (value == null)
+			return originalEnvironment.get(name);
+		else
+			return (value == REMOVED) ? null : (String) value;
+	}
+
+	@Override
+	public boolean containsKey(Object name) {
+		return get(name) != null;
+	}
+
+	@Override
+	public String put(String name, String value) {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			return originalEnvironment.put(name, value);
+		if (name == null || value == null)
+			throw new NullPointerException();
+		String previousValue = get(name);
+		currentOverlay.put(name, value);
+		return previousValue;
+	}
+
+	@Override
+	public String remove(Object name) {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			return originalEnvironment.remove(name);
+		String previousValue = get(name);
+		if (name instanceof String)
+			currentOverlay.remove(name);
+		return previousValue;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		return view().entrySet();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return view().keySet();
+	}
+
+	/**
+	 * Returns the original environment for threads without an overlay and
+	 * a copy of the merged environment for all other threads.
+	 */
+	private Map<String, String> view() {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			return originalEnvironment;
+		Map<String, String> merged = new HashMap<String, String>(originalEnvironment);
+		currentOverlay.applyTo(merged);
+		return merged;
+	}
+}
@@ -0,0 +1,82 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.Boolean.TRUE;
+import static java.lang.System.in;
+import static java.lang.System.setIn;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@code ThreadRoutedInputStream} replaces {@code System.in} while at
+ * least one thread has its own route. Each thread (and every thread that is
+ * created by it afterwards) reads from its own stream. All other threads
+ * read from the original {@code System.in}. The original {@code System.in}
+ * is restored when the last route is removed.
+ */
+public class ThreadRoutedInputStream extends InputStream {
+	private static final Object LOCK = new Object();
+	private static ThreadRoutedInputStream installedStream = null;
+	private static int numberOfRoutes = 0;
+
+	private final InputStream originalStream;
+	private final InheritableThreadLocal<InputStream> route
+		= new InheritableThreadLocal<InputStream>();
+	private final ThreadLocal<Boolean> ownsRoute = new ThreadLocal<Boolean>();
+
+	private ThreadRoutedInputStream(InputStream originalStream) {
+		this.originalStream = originalStream;
+	}
+
+	public static void routeCurrentThreadTo(InputStream stream) {
+		synchronized (LOCK) {
+			if (installedStream == null) {
+				installedStream = new ThreadRoutedInputStream(in);
+				setIn(installedStream);
+			}
+			if (installedStream.ownsRoute.get() == null) {
+				installedStream.ownsRoute.set(TRUE);
+				++numberOfRoutes;
+			}
+			installedStream.route.set(stream);
+		}
+	}
+
+	public static void removeRouteOfCurrentThread() {
+		synchronized (LOCK) {
+			if (installedStream == null || installedStream.ownsRoute.get() == null)
+				return;
+			installedStream.ownsRoute.remove();
+			installedStream.route.remove();
+			if (--numberOfRoutes == 0) {
+				setIn(installedStream.originalStream);
+				installedStream = null;
+			}
+		}
+	}
+
+	private InputStream currentStream() {
+		InputStream stream = route.get();
+		return (stream == null) ? originalStream : stream;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return currentStream().read();
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		return currentStream().read(b, off, len);
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		return currentStream().skip(n);
+	}
+
+	@Override
+	public int available() throws IOException {
+		return currentStream().available();
+	}
+}
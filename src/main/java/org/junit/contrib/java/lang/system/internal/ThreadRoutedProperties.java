@@ -0,0 +1,234 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.System.getProperties;
+import static java.lang.System.setProperties;
+import static org.junit.contrib.java.lang.system.internal.ThreadOverlays.REMOVED;
+
+import java.io.ObjectStreamException;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.contrib.java.lang.system.internal.ThreadOverlays.Overlay;
+
+/**
+ * {@code ThreadRoutedProperties} replace the system properties while at
+ * least one thread has an overlay (see {@link ThreadOverlays}). Threads
+ * with an overlay read the values of their overlays and of the original
+ * properties beneath them. All their changes are stored by the overlay and
+ * discarded with the overlay. All other threads read and write the
+ * original properties. The original properties are restored when the last
+ * overlay is removed.
+ *
+ * <p>Reading a property doesn't need a lock. Bulk operations like
+ * {@link #entrySet()} of a thread with an overlay work on a copy of the
+ * merged properties. The {@code Map} methods of Java 8 are routed like
+ * {@link #get(Object)}, {@link #put(Object, Object)} and
+ * {@link #remove(Object)} (see {@link Java8Properties}).
+ */
+public class ThreadRoutedProperties extends DelegatingProperties {
+	private static final long serialVersionUID = 2380948572059823475L;
+	private static final Object LOCK = new Object();
+	private static ThreadRoutedProperties installedProperties = null;
+
+	private final transient ThreadOverlays overlays = new ThreadOverlays();
+
+	private ThreadRoutedProperties(Properties originalProperties) {
+		super(originalProperties);
+	}
+
+	/**
+	 * Adds an overlay for the current thread. If the thread already has an
+	 * overlay then the new overlay is put on top of it.
+	 *
+	 * @return the new overlay.
+	 */
+	public static Overlay addOverlayForCurrentThread() {
+		synchronized (LOCK) {
+			if (installedProperties == null) {
+				installedProperties = new ThreadRoutedProperties(getProperties());
+				setProperties(installedProperties.asSystemProperties());
+			}
+			return installedProperties.overlays.add();
+		}
+	}
+
+	/**
+	 * Removes the specified overlay of the current thread and discards its
+	 * values. The thread uses the overlay beneath it again.
+	 *
+	 * @param overlay the overlay that has been created by
+	 * {@link #addOverlayForCurrentThread()}.
+	 */
+	public static void removeOverlay(Overlay overlay) {
+		synchronized (LOCK) {
+			if (installedProperties == null)
+				return;
+			if (installedProperties.overlays.remove(overlay)) {
+				if (getProperties() == installedProperties.asSystemProperties())
+					setProperties(installedProperties.originalProperties);
+				installedProperties = null;
+			}
+		}
+	}
+
+	@Override
+	public String getProperty(String key) {
+		Overlay currentOverlay = overlays.current();
+		Object value = (currentOverlay == null) ? null : currentOverlay.get(key);
+		if (value == null)
+			return originalProperties.getProperty(key);
+		else
+			return (value instanceof String) ? (String) value : null;
+	}
+
+	@Override
+	public Object get(Object key) {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			return originalProperties.get(key);
+		Object value = currentOverlay.get(key);
+		if (value == null)
+			return originalProperties.get(key);
+		else if (value == REMOVED)
+			return null;
+		else
+			return value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public Object put(Object key, Object value) {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			return originalProperties.put(key, value);
+		Object previousValue = get(key);
+		currentOverlay.put(key, value);
+		return previousValue;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			return originalProperties.remove(key);
+		Object previousValue = get(key);
+		currentOverlay.remove(key);
+		return previousValue;
+	}
+
+	@Override
+	public void clear() {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			originalProperties.clear();
+		else
+			for (Object key : view().keySet())
+				currentOverlay.remove(key);
+	}
+
+	@Override
+	public int size() {
+		return view().size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return view().isEmpty();
+	}
+
+	@Override
+	public Enumeration<Object> keys() {
+		return view().keys();
+	}
+
+	@Override
+	public Enumeration<Object> elements() {
+		return view().elements();
+	}
+
+	@Override
+	public Set<Object> keySet() {
+		return view().keySet();
+	}
+
+	@Override
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		return view().entrySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return view().values();
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return view().contains(value);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return view().containsValue(value);
+	}
+
+	@Override
+	public Enumeration<?> propertyNames() {
+		return view().propertyNames();
+	}
+
+	@Override
+	public Set<String> stringPropertyNames() {
+		return view().stringPropertyNames();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return view().equals(other);
+	}
+
+	@Override
+	public int hashCode() {
+		return view().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return view().toString();
+	}
+
+	@Override
+	Properties snapshot() {
+		Properties view = view();
+		return (view == originalProperties) ? super.snapshot() : view;
+	}
+
+	/**
+	 * The overlays are not restored by deserialization. Therefore a
+	 * deserialized object is replaced with its original properties. Usually
+	 * no such object exists, because {@link #writeReplace()} writes a copy
+	 * of the merged properties instead.
+	 */
+	private Object readResolve() throws ObjectStreamException {
+		return originalProperties;
+	}
+
+	/**
+	 * Returns the original properties for threads without an overlay and a
+	 * copy of the merged properties for all other threads.
+	 */
+	private Properties view() {
+		Overlay currentOverlay = overlays.current();
+		if (currentOverlay == null)
+			return originalProperties;
+		Properties merged = (Properties) originalProperties.clone();
+		currentOverlay.applyTo(merged);
+		return merged;
+	}
+}
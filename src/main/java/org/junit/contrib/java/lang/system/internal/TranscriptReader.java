@@ -0,0 +1,143 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static org.junit.contrib.java.lang.system.internal.TranscriptWriter.END_OF_INPUT;
+import static org.junit.contrib.java.lang.system.internal.TranscriptWriter.INPUT;
+import static org.junit.contrib.java.lang.system.internal.TranscriptWriter.MAGIC;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the records of a single type from a transcript that has been
+ * written by a {@link TranscriptWriter}. The content of all other records
+ * is skipped without being read into memory.
+ */
+public class TranscriptReader extends InputStream {
+	private final InputStream in;
+	private final int type;
+	private int remainingBytesOfRecord = 0;
+	private boolean endOfInputReached = false;
+
+	public TranscriptReader(File file, int type) throws IOException {
+		this.in = new BufferedInputStream(new FileInputStream(file));
+		this.type = type;
+		readMagic();
+	}
+
+	/**
+	 * Reads the input of a transcript. Every text of the returned list ends
+	 * where the reader of the recorded session got an end of stream.
+	 *
+	 * @param file the transcript.
+	 * @return the texts that have been read from {@code System.in}.
+	 * @throws IOException if the transcript cannot be read.
+	 */
+	public static List<String> readInputTexts(File file) throws IOException {
+		TranscriptReader reader = new TranscriptReader(file, INPUT);
+		try {
+			List<String> texts = new ArrayList<String>();
+			ByteArrayOutputStream text = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int length;
+			while ((length = reader.read(buffer, 0, buffer.length)) != -1
+					|| reader.endOfInputReached) {
+				if (length > 0)
+					text.write(buffer, 0, length);
+				else {
+					texts.add(text.toString("ISO-8859-1"));
+					text.reset();
+					reader.endOfInputReached = false;
+				}
+			}
+			if (text.size() != 0)
+				texts.add(text.toString("ISO-8859-1"));
+			return texts;
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		int length = read(b, 0, 1);
+		return (length == -1) ? -1 : b[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (remainingBytesOfRecord == 0 && !moveToNextRecordOfType())
+			return -1;
+		int length = in.read(b, off, Math.min(len, remainingBytesOfRecord));
+		if (length == -1)
+			throw new EOFException("The transcript is truncated.");
+		remainingBytesOfRecord -= length;
+		return length;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private boolean moveToNextRecordOfType() throws IOException {
+		int recordType;
+		while ((recordType = in.read()) != -1) {
+			if (recordType == END_OF_INPUT) {
+				if (type == INPUT) {
+					endOfInputReached = true;
+					return false;
+				}
+			} else {
+				int length = readUnsignedVarInt();
+				if (recordType == type && length != 0) {
+					remainingBytesOfRecord = length;
+					return true;
+				}
+				skip(length);
+			}
+		}
+		return false;
+	}
+
+	private void skip(int length) throws IOException {
+		long remaining = length;
+		while (remaining > 0) {
+			long skipped = in.skip(remaining);
+			if (skipped <= 0)
+				throw new EOFException("The transcript is truncated.");
+			remaining -= skipped;
+		}
+	}
+
+	private int readUnsignedVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.read();
+			if (b == -1)
+				throw new EOFException("The transcript is truncated.");
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("The transcript is corrupt.");
+	}
+
+	private void readMagic() throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		for (int i = 0; i < magic.length; ++i)
+			magic[i] = (byte) in.read();
+		if (!Arrays.equals(magic, MAGIC))
+			throw new IOException("The file is not a transcript.");
+	}
+}
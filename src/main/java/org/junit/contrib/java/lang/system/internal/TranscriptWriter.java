@@ -0,0 +1,103 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the transcript of a session to a file. A transcript starts with
+ * the magic bytes {@code SRT1}, followed by a sequence of records in the
+ * order of the session's events. Each record starts with its type. Records
+ * of the types {@link #INPUT}, {@link #OUTPUT} and {@link #ERROR_OUTPUT}
+ * continue with the number of bytes (unsigned LEB128) and the bytes
+ * themselves. Records of the type {@link #END_OF_INPUT} have no content.
+ * Consecutive events of the same stream are merged into a single record.
+ */
+public class TranscriptWriter {
+	static final byte[] MAGIC = { 'S', 'R', 'T', '1' };
+	public static final int INPUT = 0;
+	public static final int OUTPUT = 1;
+	public static final int ERROR_OUTPUT = 2;
+	public static final int END_OF_INPUT = 3;
+	private static final int MAX_RECORD_LENGTH = 64 * 1024;
+	private static final int NO_RECORD = -1;
+
+	private final OutputStream out;
+	private final ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream();
+	private int pendingType = NO_RECORD;
+	private IOException firstException = null;
+
+	public TranscriptWriter(File file) throws IOException {
+		out = new BufferedOutputStream(new FileOutputStream(file));
+		out.write(MAGIC);
+	}
+
+	public synchronized void appendInput(int b) {
+		if (b == -1) {
+			flushPendingRecord();
+			writeRecordType(END_OF_INPUT);
+		} else
+			append(INPUT, new byte[] { (byte) b }, 0, 1);
+	}
+
+	public synchronized void append(int type, byte[] buffer, int offset, int length) {
+		if (type != pendingType || pendingBytes.size() >= MAX_RECORD_LENGTH)
+			flushPendingRecord();
+		pendingType = type;
+		pendingBytes.write(buffer, offset, length);
+	}
+
+	/**
+	 * Writes all pending records and closes the file.
+	 *
+	 * @throws IOException if one of the writes failed.
+	 */
+	public synchronized void close() throws IOException {
+		flushPendingRecord();
+		try {
+			out.close();
+		} catch (IOException e) {
+			rememberException(e);
+		}
+		if (firstException != null)
+			throw firstException;
+	}
+
+	private void flushPendingRecord() {
+		if (pendingType == NO_RECORD)
+			return;
+		writeRecordType(pendingType);
+		try {
+			writeUnsignedVarInt(pendingBytes.size());
+			pendingBytes.writeTo(out);
+		} catch (IOException e) {
+			rememberException(e);
+		}
+		pendingBytes.reset();
+		pendingType = NO_RECORD;
+	}
+
+	private void writeRecordType(int type) {
+		try {
+			out.write(type);
+		} catch (IOException e) {
+			rememberException(e);
+		}
+	}
+
+	private void writeUnsignedVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private void rememberException(IOException e) {
+		if (firstException == null)
+			firstException = e;
+	}
+}
@@ -0,0 +1,181 @@
+package org.junit.contrib.java.lang.system;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runners.model.Statement;
+
+public class ChildJvmRuleTest {
+	private final ChildJvmRule rule = new ChildJvmRule();
+
+	@Test
+	public void providesOutputOfMainMethod() throws Throwable {
+		executeRuleWithStatement(new RunMain(WriteArguments.class, "out", "err"));
+		assertThat(rule.getLogWithNormalizedLineSeparator(), is(equalTo("out\n")));
+		assertThat(rule.getErrorLogWithNormalizedLineSeparator(), is(equalTo("err\n")));
+	}
+
+	@Test
+	public void providesNoExitStatusIfMainMethodReturns() throws Throwable {
+		executeRuleWithStatement(new RunMain(WriteArguments.class, "out", "err"));
+		assertThat(rule.getExitStatus(), is(nullValue()));
+	}
+
+	@Test
+	public void succeedsOnExitWithSelectedStatus() throws Throwable {
+		rule.expectSystemExitWithStatus(3);
+		executeRuleWithStatement(new RunMain(ExitWithStatus.class, "3"));
+		assertThat(rule.getExitStatus(), is(3));
+	}
+
+	@Test
+	public void failsForUnexpectedSystemExit() throws Throwable {
+		Throwable exception = exceptionThrownByRuleForStatement(
+			new RunMain(ExitWithStatus.class, "0"));
+		assertThat(exception, hasMessage("Unexpected call of System.exit(0)."));
+	}
+
+	@Test
+	public void failsBecauseOfMissingSystemExitCall() throws Throwable {
+		rule.expectSystemExit();
+		Throwable exception = exceptionThrownByRuleForStatement(
+			new RunMain(WriteArguments.class, "out", "err"));
+		assertThat(exception, hasMessage("System.exit has not been called."));
+	}
+
+	@Test
+	public void failsForWrongStatus() throws Throwable {
+		rule.expectSystemExitWithStatus(1);
+		Throwable exception = exceptionThrownByRuleForStatement(
+			new RunMain(ExitWithStatus.class, "0"));
+		assertThat(exception, hasMessage("Wrong exit status expected:<1> but was:<0>"));
+	}
+
+	@Test
+	public void providesExceptionOfMainMethod() throws Throwable {
+		rule.expectSystemExit();
+		executeRuleWithStatement(new RunMain(ThrowException.class));
+		assertThat(rule.getErrorLog(), startsWith(
+			"Exception in thread \"main\" java.lang.IllegalStateException: failed"));
+	}
+
+	@Test
+	public void reportsExceptionOfMainMethodAsStatus1() throws Throwable {
+		Throwable exception = exceptionThrownByRuleForStatement(
+			new RunMain(ThrowException.class));
+		assertThat(exception, hasMessage("Unexpected call of System.exit(1)."));
+	}
+
+	@Test
+	public void failsForClassWithoutMainMethod() throws Throwable {
+		Throwable exception = exceptionThrownByRuleForStatement(
+			new RunMain(WithoutMainMethod.class));
+		assertThat(exception, allOf(
+			instanceOf(IllegalArgumentException.class),
+			hasMessage("The class " + WithoutMainMethod.class.getName()
+				+ " has no method public static void main(String[]).")));
+	}
+
+	@Test
+	public void waitsForNonDaemonThreads() throws Throwable {
+		executeRuleWithStatement(new RunMain(WriteInThread.class));
+		assertThat(rule.getLogWithNormalizedLineSeparator(), is(equalTo("thread\n")));
+	}
+
+	@Test
+	public void runsEachMainMethodInNewJvm() throws Throwable {
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				rule.runMain(IncrementCounter.class);
+				rule.runMain(IncrementCounter.class);
+			}
+		});
+		assertThat(rule.getLog(), is(equalTo("1")));
+	}
+
+	private Throwable exceptionThrownByRuleForStatement(final Statement statement) {
+		return exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				executeRuleWithStatement(statement);
+			}
+		});
+	}
+
+	private void executeRuleWithStatement(Statement statement) throws Throwable {
+		rule.apply(statement, null).evaluate();
+	}
+
+	private Matcher<Throwable> hasMessage(String message) {
+		return hasProperty("message", equalTo(message));
+	}
+
+	private class RunMain extends Statement {
+		private final Class<?> mainClass;
+		private final String[] arguments;
+
+		RunMain(Class<?> mainClass, String... arguments) {
+			this.mainClass = mainClass;
+			this.arguments = arguments;
+		}
+
+		@Override
+		public void evaluate() throws Throwable {
+			rule.runMain(mainClass, arguments);
+		}
+	}
+
+	public static class WriteArguments {
+		public static void main(String[] args) {
+			System.out.println(args[0]);
+			System.err.println(args[1]);
+		}
+	}
+
+	public static class ExitWithStatus {
+		public static void main(String[] args) {
+			System.exit(Integer.parseInt(args[0]));
+		}
+	}
+
+	public static class ThrowException {
+		public static void main(String[] args) {
+			throw new IllegalStateException("failed");
+		}
+	}
+
+	public static class WithoutMainMethod {
+	}
+
+	public static class WriteInThread {
+		public static void main(String[] args) {
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						sleep(200);
+					} catch (InterruptedException ignored) {
+					}
+					System.out.println("thread");
+				}
+			}.start();
+		}
+	}
+
+	public static class IncrementCounter {
+		private static int counter = 0;
+
+		public static void main(String[] args) {
+			System.out.print(++counter);
+		}
+	}
+}
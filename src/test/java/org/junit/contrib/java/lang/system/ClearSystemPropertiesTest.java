@@ -3,10 +3,13 @@ package org.junit.contrib.java.lang.system;
 import static java.lang.System.clearProperty;
 import static java.lang.System.getProperty;
 import static java.lang.System.setProperty;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.contrib.java.lang.system.Matchers.hasPropertyWithValue;
 import static org.junit.contrib.java.lang.system.Matchers.notHasProperty;
 
 import org.junit.Rule;
@@ -54,6 +57,67 @@ public class ClearSystemPropertiesTest {
 		assertThat(getProperty("another property"), is("dummy value"));
 	}
 
+	@Test
+	public void clearsPropertyForTestThreadsOnlyIfRoutedPerThread() throws Throwable {
+		setProperty(SECOND_ARBITRARY_NAME, ARBITRARY_VALUE);
+		final PropertyReaders readers = new PropertyReaders();
+		final String[] values = new String[3];
+		new ClearSystemProperties(SECOND_ARBITRARY_NAME).routePerThread().apply(
+			new Statement() {
+				@Override
+				public void evaluate() throws Throwable {
+					values[0] = getProperty(SECOND_ARBITRARY_NAME);
+					values[1] = readers.readInNewThread(SECOND_ARBITRARY_NAME);
+					values[2] = readers.readInExistingThread(SECOND_ARBITRARY_NAME);
+				}
+			}, null).evaluate();
+		readers.shutdown();
+		assertThat(values, is(arrayContaining(null, null, ARBITRARY_VALUE)));
+		assertThat(getProperty(SECOND_ARBITRARY_NAME), is(equalTo(ARBITRARY_VALUE)));
+	}
+
+	@Test
+	public void clearsPropertiesWithPrefixAndRestoresThemAfterwards() throws Throwable {
+		setProperty("app.first", ARBITRARY_VALUE);
+		setProperty("app.second", ARBITRARY_VALUE);
+		setProperty("apple", ARBITRARY_VALUE);
+		TestThatCapturesProperties test = new TestThatCapturesProperties();
+		new ClearSystemProperties().andPropertiesWithPrefix("app.")
+			.apply(test, null).evaluate();
+		assertThat(test.propertiesAtStart, allOf(notHasProperty("app.first"),
+			notHasProperty("app.second"), hasPropertyWithValue("apple", ARBITRARY_VALUE)));
+		assertThat(getProperty("app.first"), is(equalTo(ARBITRARY_VALUE)));
+		assertThat(getProperty("app.second"), is(equalTo(ARBITRARY_VALUE)));
+	}
+
+	@Test
+	public void clearsPropertiesMatchingGlobPattern() throws Throwable {
+		setProperty("db.main.url", ARBITRARY_VALUE);
+		setProperty("db.main.user", ARBITRARY_VALUE);
+		setProperty("db.url", ARBITRARY_VALUE);
+		TestThatCapturesProperties test = new TestThatCapturesProperties();
+		new ClearSystemProperties().andPropertiesMatching("db.*.url")
+			.apply(test, null).evaluate();
+		assertThat(test.propertiesAtStart, allOf(notHasProperty("db.main.url"),
+			hasPropertyWithValue("db.main.user", ARBITRARY_VALUE),
+			hasPropertyWithValue("db.url", ARBITRARY_VALUE)));
+		assertThat(getProperty("db.main.url"), is(equalTo(ARBITRARY_VALUE)));
+	}
+
+	@Test
+	public void clearsPropertiesMatchingRegularExpression() throws Throwable {
+		setProperty("proxy.host", ARBITRARY_VALUE);
+		setProperty("proxy.port", ARBITRARY_VALUE);
+		setProperty("proxy.user", ARBITRARY_VALUE);
+		TestThatCapturesProperties test = new TestThatCapturesProperties();
+		new ClearSystemProperties().andPropertiesMatchingRegex("proxy\\.(host|port)")
+			.apply(test, null).evaluate();
+		assertThat(test.propertiesAtStart, allOf(notHasProperty("proxy.host"),
+			notHasProperty("proxy.port"),
+			hasPropertyWithValue("proxy.user", ARBITRARY_VALUE)));
+		assertThat(getProperty("proxy.host"), is(equalTo(ARBITRARY_VALUE)));
+	}
+
 	private void applyRuleToStatement(Statement statement) throws Throwable {
 		rule.apply(statement, null).evaluate();
 	}
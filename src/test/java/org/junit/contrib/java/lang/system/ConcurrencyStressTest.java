@@ -0,0 +1,283 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.getProperties;
+import static java.lang.System.getProperty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.runner.Description.EMPTY;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.internal.CheckExitCalled;
+import org.junit.rules.TestRule;
+import org.junit.runners.model.Statement;
+
+/**
+ * Writes, mutes, reads and restores the global state from many threads at
+ * the same time and checks that no output is lost, duplicated or reordered.
+ * Each thread writes numbered records {@code "<thread>:<number>\n"}, so
+ * that the log can be verified per thread.
+ *
+ * <p>The tests run a single round by default. Run more rounds locally
+ * after changing the synchronization of the rules:
+ * <pre>
+ * mvn test -Dtest=ConcurrencyStressTest -DsystemRules.stressRounds=1000
+ * </pre>
+ */
+public class ConcurrencyStressTest {
+	private static final int ROUNDS = Integer.getInteger("systemRules.stressRounds", 1);
+	private static final int THREADS = 8;
+	private static final int RECORDS_PER_THREAD = 2000;
+
+	@Test
+	public void logContainsEveryRecordOfEveryThreadInOrder() throws Throwable {
+		for (int round = 0; round < ROUNDS; ++round) {
+			final SystemOutRule rule = new SystemOutRule().mute().enableLog();
+			evaluate(rule, new Task() {
+				public void run(int thread) {
+					writeRecords(thread, 0, RECORDS_PER_THREAD);
+				}
+			});
+			assertCompleteRecords(rule.getLog());
+		}
+	}
+
+	@Test
+	public void mutingWhileThreadsAreWritingLosesNothingFromTheLog()
+			throws Throwable {
+		for (int round = 0; round < ROUNDS; ++round) {
+			ByteArrayOutputStream originalOutput = new ByteArrayOutputStream();
+			PrintStream originalOut = System.out;
+			System.setOut(new PrintStream(originalOutput));
+			try {
+				final SystemOutRule rule = new SystemOutRule().enableLog();
+				final CyclicBarrier halfWritten = new CyclicBarrier(THREADS + 1);
+				final CyclicBarrier muted = new CyclicBarrier(THREADS + 1);
+				evaluate(rule, new Task() {
+					public void run(int thread) throws Exception {
+						if (thread == THREADS) {
+							halfWritten.await();
+							rule.mute();
+							muted.await();
+						} else {
+							writeRecords(thread, 0, RECORDS_PER_THREAD / 2);
+							halfWritten.await();
+							muted.await();
+							writeRecords(thread, RECORDS_PER_THREAD / 2, RECORDS_PER_THREAD);
+						}
+					}
+				}, THREADS + 1);
+				assertCompleteRecords(rule.getLog());
+				assertFirstHalfOfRecords(originalOutput.toString());
+			} finally {
+				System.setOut(originalOut);
+			}
+		}
+	}
+
+	@Test
+	public void logCanBeReadWhileThreadsAreWriting() throws Throwable {
+		for (int round = 0; round < ROUNDS; ++round) {
+			final SystemOutRule rule = new SystemOutRule().mute().enableLog();
+			final AtomicInteger finishedWriters = new AtomicInteger();
+			evaluate(rule, new Task() {
+				public void run(int thread) {
+					if (thread == THREADS)
+						while (finishedWriters.get() < THREADS)
+							assertRecordsArePrefixes(rule.getLog());
+					else {
+						writeRecords(thread, 0, RECORDS_PER_THREAD);
+						finishedWriters.incrementAndGet();
+					}
+				}
+			}, THREADS + 1);
+			assertCompleteRecords(rule.getLog());
+		}
+	}
+
+	@Test
+	public void everyCallOfSystemExitIsRecorded() throws Throwable {
+		for (int round = 0; round < ROUNDS; ++round) {
+			SecurityManager originalSecurityManager = System.getSecurityManager();
+			ExpectedSystemExit rule = ExpectedSystemExit.none();
+			rule.expectSystemExit();
+			evaluate(rule, new Task() {
+				public void run(int thread) {
+					try {
+						System.exit(thread);
+					} catch (CheckExitCalled expected) {
+					}
+				}
+			});
+			Set<Integer> statuses = new HashSet<Integer>();
+			for (SystemExitCall call : rule.getExitCalls())
+				statuses.add(call.getStatus());
+			assertThat(rule.getExitCalls().size(), is(THREADS));
+			assertThat(statuses.size(), is(THREADS));
+			assertThat(System.getSecurityManager(),
+				is(sameInstance(originalSecurityManager)));
+		}
+	}
+
+	@Test
+	public void propertiesOfConcurrentTestsAreRestored() throws Throwable {
+		for (int round = 0; round < ROUNDS; ++round) {
+			Properties originalProperties = getProperties();
+			runConcurrently(THREADS, new Task() {
+				public void run(final int thread) throws Throwable {
+					new ProvideSystemProperty("stress property", "value " + thread)
+						.routePerThread()
+						.apply(new Statement() {
+							@Override
+							public void evaluate() {
+								for (int i = 0; i < 100; ++i)
+									assertThat(getProperty("stress property"),
+										is(equalTo("value " + thread)));
+							}
+						}, EMPTY).evaluate();
+				}
+			});
+			assertThat(getProperty("stress property"), is(nullValue()));
+			assertThat(getProperties(), is(sameInstance(originalProperties)));
+		}
+	}
+
+	@Test
+	public void inputOfConcurrentTestsIsRestored() throws Throwable {
+		for (int round = 0; round < ROUNDS; ++round) {
+			InputStream originalIn = System.in;
+			runConcurrently(THREADS, new Task() {
+				public void run(final int thread) throws Throwable {
+					TextFromStandardInputStream rule
+						= TextFromStandardInputStream.emptyStandardInputStream()
+							.routePerThread();
+					rule.provideLines("line " + thread);
+					rule.apply(new Statement() {
+						@Override
+						public void evaluate() throws Throwable {
+							String line = new BufferedReader(
+								new InputStreamReader(System.in)).readLine();
+							assertThat(line, is(equalTo("line " + thread)));
+						}
+					}, EMPTY).evaluate();
+				}
+			});
+			assertThat(System.in, is(sameInstance(originalIn)));
+		}
+	}
+
+	private static void writeRecords(int thread, int from, int to) {
+		for (int number = from; number < to; ++number)
+			System.out.print(thread + ":" + number + "\n");
+	}
+
+	/**
+	 * Every thread has written all its records in order.
+	 */
+	private static void assertCompleteRecords(String log) {
+		int[] numberOfRecords = numberOfRecordsPerThread(log);
+		for (int thread = 0; thread < THREADS; ++thread)
+			if (numberOfRecords[thread] != RECORDS_PER_THREAD)
+				fail("Thread " + thread + " has " + numberOfRecords[thread]
+					+ " records instead of " + RECORDS_PER_THREAD + ".");
+	}
+
+	/**
+	 * Every thread has written the records before the muting and none of
+	 * the records after it.
+	 */
+	private static void assertFirstHalfOfRecords(String log) {
+		int[] numberOfRecords = numberOfRecordsPerThread(log);
+		for (int thread = 0; thread < THREADS; ++thread)
+			if (numberOfRecords[thread] != RECORDS_PER_THREAD / 2)
+				fail("Thread " + thread + " has " + numberOfRecords[thread]
+					+ " records instead of " + RECORDS_PER_THREAD / 2 + ".");
+	}
+
+	/**
+	 * The records of each thread start with the first record and have no
+	 * gaps, but the last records may be missing.
+	 */
+	private static void assertRecordsArePrefixes(String log) {
+		numberOfRecordsPerThread(log);
+	}
+
+	private static int[] numberOfRecordsPerThread(String log) {
+		int[] nextNumber = new int[THREADS];
+		for (String record : log.split("\n")) {
+			if (record.length() == 0)
+				continue;
+			int separator = record.indexOf(':');
+			int thread = Integer.parseInt(record.substring(0, separator));
+			int number = Integer.parseInt(record.substring(separator + 1));
+			if (number != nextNumber[thread])
+				fail("Thread " + thread + " wrote record " + number
+					+ " but record " + nextNumber[thread] + " was expected.");
+			++nextNumber[thread];
+		}
+		return nextNumber;
+	}
+
+	private static void evaluate(TestRule rule, final Task task)
+			throws Throwable {
+		evaluate(rule, task, THREADS);
+	}
+
+	private static void evaluate(TestRule rule, final Task task,
+			final int numberOfThreads) throws Throwable {
+		rule.apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				runConcurrently(numberOfThreads, task);
+			}
+		}, EMPTY).evaluate();
+	}
+
+	private static void runConcurrently(int numberOfThreads, final Task task)
+			throws Throwable {
+		final CyclicBarrier start = new CyclicBarrier(numberOfThreads);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < numberOfThreads; ++i) {
+			final int thread = i;
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						task.run(thread);
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+		}
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join();
+		if (failure.get() != null)
+			throw failure.get();
+	}
+
+	private interface Task {
+		void run(int thread) throws Throwable;
+	}
+}
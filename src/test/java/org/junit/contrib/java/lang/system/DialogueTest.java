@@ -0,0 +1,138 @@
+package org.junit.contrib.java.lang.system;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.lang.System.out;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.contrib.java.lang.system.TextFromStandardInputStream.emptyStandardInputStream;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.Timeout;
+import org.junit.runners.model.Statement;
+
+public class DialogueTest {
+	@Rule
+	public final Timeout timeout = new Timeout(1000);
+
+	private final SystemOutRule systemOutRule = new SystemOutRule().mute().enableLog();
+	private final TextFromStandardInputStream systemInMock = emptyStandardInputStream();
+	private final Dialogue dialogue = new Dialogue(systemOutRule, systemInMock);
+
+	@Test
+	public void providesAnswersAfterPrompts() throws Throwable {
+		dialogue.answerLine("Name: ", "Alice").answerLine("Age: ", "42");
+		executeRulesWithStatement(new AskForNameAndAge());
+		assertThat(systemOutRule.getLogWithNormalizedLineSeparator(),
+			is(equalTo("Name: Age: Alice is 42.\n")));
+	}
+
+	@Test
+	public void detectsPromptThatIsWrittenByMultipleWrites() throws Throwable {
+		dialogue.answerText("Name: ", "Alice");
+		executeRulesWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("Na");
+				out.print("me");
+				out.print(": ");
+				assertThat(readLine(), is(equalTo("Alice")));
+			}
+		});
+	}
+
+	@Test
+	public void detectsPromptAfterPartialMatch() throws Throwable {
+		dialogue.answerText("aab", "answer");
+		executeRulesWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("aaab");
+				assertThat(readLine(), is(equalTo("answer")));
+			}
+		});
+	}
+
+	@Test
+	public void providesAnswerAfterPreviousAnswerHasBeenRead() throws Throwable {
+		dialogue.answerText("Name: ", "A").answerText("Age: ", "4");
+		executeRulesWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("Name: ");
+				assertThat(System.in.read(), is((int) 'A'));
+				out.print("Age: ");
+				assertThat(System.in.read(), is((int) '4'));
+			}
+		});
+	}
+
+	@Test
+	public void providesNoAnswerBeforePrompt() throws Throwable {
+		dialogue.answerLine("Name: ", "Alice");
+		executeRulesWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("Age: ");
+				assertThat(readLine(), is(nullValue()));
+			}
+		});
+	}
+
+	@Test
+	public void isCompleteAfterAllPromptsHaveBeenWritten() throws Throwable {
+		dialogue.answerLine("Name: ", "Alice").answerLine("Age: ", "42");
+		executeRulesWithStatement(new AskForNameAndAge());
+		assertThat(dialogue.isComplete(), is(true));
+	}
+
+	@Test
+	public void isNotCompleteIfPromptIsMissing() throws Throwable {
+		dialogue.answerLine("Name: ", "Alice").answerLine("Address: ", "Main St");
+		executeRulesWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("Name: ");
+			}
+		});
+		assertThat(dialogue.isComplete(), is(false));
+	}
+
+	@Test
+	public void rejectsEmptyPrompt() {
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				dialogue.answerText("", "text");
+			}
+		});
+		assertThat(exception, instanceOf(IllegalArgumentException.class));
+	}
+
+	private void executeRulesWithStatement(Statement statement) throws Throwable {
+		RuleChain.outerRule(systemOutRule).around(systemInMock)
+			.apply(statement, null).evaluate();
+	}
+
+	private static String readLine() throws Exception {
+		return new BufferedReader(new InputStreamReader(System.in)).readLine();
+	}
+
+	private static class AskForNameAndAge extends Statement {
+		@Override
+		public void evaluate() throws Throwable {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+			out.print("Name: ");
+			String name = reader.readLine();
+			out.print("Age: ");
+			String age = reader.readLine();
+			out.println(name + " is " + age + ".");
+		}
+	}
+}
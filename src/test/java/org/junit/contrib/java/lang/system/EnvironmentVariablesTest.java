@@ -0,0 +1,145 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.getenv;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runners.model.Statement;
+
+public class EnvironmentVariablesTest {
+	private static final String ARBITRARY_NAME = "SYSTEM_RULES_ARBITRARY_VARIABLE";
+	private static final String ARBITRARY_VALUE = "arbitrary value";
+
+	@Test
+	public void providesVariableToTest() throws Throwable {
+		final String[] valueDuringTest = new String[1];
+		new EnvironmentVariables().set(ARBITRARY_NAME, ARBITRARY_VALUE).apply(
+			new Statement() {
+				@Override
+				public void evaluate() throws Throwable {
+					valueDuringTest[0] = getenv(ARBITRARY_NAME);
+				}
+			}, null).evaluate();
+		assertThat(valueDuringTest[0], is(equalTo(ARBITRARY_VALUE)));
+	}
+
+	@Test
+	public void providesVariableToMapOfAllVariables() throws Throwable {
+		final Map<String, String> variablesDuringTest = new HashMap<String, String>();
+		new EnvironmentVariables().set(ARBITRARY_NAME, ARBITRARY_VALUE).apply(
+			new Statement() {
+				@Override
+				public void evaluate() throws Throwable {
+					variablesDuringTest.putAll(getenv());
+				}
+			}, null).evaluate();
+		assertThat(variablesDuringTest, hasEntry(ARBITRARY_NAME, ARBITRARY_VALUE));
+	}
+
+	@Test
+	public void removesVariableAfterTest() throws Throwable {
+		new EnvironmentVariables().set(ARBITRARY_NAME, ARBITRARY_VALUE).apply(
+			new EmptyStatement(), null).evaluate();
+		assertThat(getenv(ARBITRARY_NAME), is(nullValue()));
+		assertThat(getenv(), not(Matchers.<String>hasKey(ARBITRARY_NAME)));
+	}
+
+	@Test
+	public void setsVariableWhileTestIsRunning() throws Throwable {
+		final EnvironmentVariables rule = new EnvironmentVariables();
+		final String[] valueDuringTest = new String[1];
+		rule.apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				rule.set(ARBITRARY_NAME, ARBITRARY_VALUE);
+				valueDuringTest[0] = getenv(ARBITRARY_NAME);
+			}
+		}, null).evaluate();
+		assertThat(valueDuringTest[0], is(equalTo(ARBITRARY_VALUE)));
+		assertThat(getenv(ARBITRARY_NAME), is(nullValue()));
+	}
+
+	@Test
+	public void clearsVariableAndRestoresItAfterwards() throws Throwable {
+		final String name = getenv().keySet().iterator().next();
+		String originalValue = getenv(name);
+		final String[] valueDuringTest = new String[] { "not cleared" };
+		new EnvironmentVariables().clear(name).apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				valueDuringTest[0] = getenv(name);
+			}
+		}, null).evaluate();
+		assertThat(valueDuringTest[0], is(nullValue()));
+		assertThat(getenv(name), is(equalTo(originalValue)));
+	}
+
+	@Test
+	public void providesVariableToTestThreadsOnlyIfRoutedPerThread() throws Throwable {
+		final ExecutorService existingThread = Executors.newSingleThreadExecutor();
+		existingThread.submit(new ReadVariable()).get();
+		final String[] values = new String[3];
+		new EnvironmentVariables().set(ARBITRARY_NAME, ARBITRARY_VALUE)
+			.routePerThread().apply(new Statement() {
+				@Override
+				public void evaluate() throws Throwable {
+					values[0] = getenv(ARBITRARY_NAME);
+					values[1] = readInNewThread();
+					values[2] = existingThread.submit(new ReadVariable()).get();
+				}
+			}, null).evaluate();
+		existingThread.shutdown();
+		assertThat(values, is(arrayContaining(
+			ARBITRARY_VALUE, ARBITRARY_VALUE, null)));
+		assertThat(getenv(ARBITRARY_NAME), is(nullValue()));
+	}
+
+	@Test
+	public void threadThatOutlivesTestDoesNotSeeVariablesOfTest() throws Throwable {
+		final ExecutorService threadOfInnerTest = Executors.newSingleThreadExecutor();
+		final String[] values = new String[2];
+		new EnvironmentVariables().routePerThread().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				new EnvironmentVariables().set(ARBITRARY_NAME, ARBITRARY_VALUE)
+					.routePerThread().apply(new Statement() {
+						@Override
+						public void evaluate() throws Throwable {
+							values[0] = threadOfInnerTest.submit(new ReadVariable()).get();
+						}
+					}, null).evaluate();
+				values[1] = threadOfInnerTest.submit(new ReadVariable()).get();
+			}
+		}, null).evaluate();
+		threadOfInnerTest.shutdown();
+		assertThat(values, is(arrayContaining(ARBITRARY_VALUE, null)));
+	}
+
+	private String readInNewThread() throws Exception {
+		ExecutorService newThread = Executors.newSingleThreadExecutor();
+		try {
+			return newThread.submit(new ReadVariable()).get();
+		} finally {
+			newThread.shutdown();
+		}
+	}
+
+	private static class ReadVariable implements Callable<String> {
+		public String call() {
+			return getenv(ARBITRARY_NAME);
+		}
+	}
+}
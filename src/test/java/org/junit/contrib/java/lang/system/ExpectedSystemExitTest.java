@@ -1,11 +1,22 @@
 package org.junit.contrib.java.lang.system;
 
 import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.lang.System.currentTimeMillis;
 import static java.lang.System.getSecurityManager;
 import static java.lang.System.setSecurityManager;
+import static java.lang.Thread.currentThread;
 import static java.lang.Thread.sleep;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -13,8 +24,11 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.security.Permission;
+import java.util.List;
 
 import org.hamcrest.Matcher;
+import org.hamcrest.Matchers;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runners.model.Statement;
 
@@ -33,6 +47,12 @@ public class ExpectedSystemExitTest {
 	};
 
 	private final ExpectedSystemExit rule = ExpectedSystemExit.none();
+	private final SecurityManager originalSecurityManager = getSecurityManager();
+
+	@After
+	public void restoreSecurityManager() {
+		setSecurityManager(originalSecurityManager);
+	}
 
 	@Test
 	public void succeedWithoutExit() throws Throwable {
@@ -127,6 +147,181 @@ public class ExpectedSystemExitTest {
 		executeRuleWithStatement(new SystemExitInThread());
 	}
 
+	@Test
+	public void waitsForExitInThread() throws Throwable {
+		rule.expectSystemExitWithStatus(ARBITRARY_EXIT_STATUS);
+		rule.awaitSystemExit(1, MINUTES);
+		long start = currentTimeMillis();
+		executeRuleWithStatement(new DelayedSystemExitInThread());
+		assertThat(currentTimeMillis() - start, is(lessThan(30000L)));
+	}
+
+	@Test
+	public void failsIfExitIsNotCalledWithinTimeout() throws Throwable {
+		rule.expectSystemExit();
+		rule.awaitSystemExit(100, MILLISECONDS);
+		Throwable exception = exceptionThrownByRuleForStatement(new EmptyStatement());
+		assertThat(exception, hasMessage("System.exit has not been called."));
+	}
+
+	@Test
+	public void succeedsOnHaltWithSelectedStatus() throws Throwable {
+		rule.expectSystemExitWithStatus(2);
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Runtime.getRuntime().halt(2);
+			}
+		});
+		assertThat(rule.getExitCalls().get(0).isHalt(), is(true));
+	}
+
+	@Test
+	public void runsShutdownHooksAfterExit() throws Throwable {
+		rule.expectSystemExit();
+		rule.runShutdownHooks(1, MINUTES);
+		SetFlag hook = new SetFlag();
+		executeRuleWithStatement(new AddHookAndExit(hook));
+		assertThat(hook.executed, is(true));
+	}
+
+	@Test
+	public void removesShutdownHooksThatHaveBeenAddedDuringTest() throws Throwable {
+		rule.expectSystemExit();
+		rule.runShutdownHooks(1, MINUTES);
+		SetFlag hook = new SetFlag();
+		executeRuleWithStatement(new AddHookAndExit(hook));
+		assertThat(Runtime.getRuntime().removeShutdownHook(hook), is(false));
+	}
+
+	@Test
+	public void doesNotRunShutdownHooksWithoutExit() throws Throwable {
+		rule.runShutdownHooks(1, MINUTES);
+		final SetFlag hook = new SetFlag();
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Runtime.getRuntime().addShutdownHook(hook);
+			}
+		});
+		assertThat(hook.executed, is(false));
+		assertThat(Runtime.getRuntime().removeShutdownHook(hook), is(false));
+	}
+
+	@Test
+	public void removesShutdownHooksOfFailingTest() throws Throwable {
+		rule.runShutdownHooks(1, MINUTES);
+		final SetFlag hook = new SetFlag();
+		exceptionThrownByRuleForStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Runtime.getRuntime().addShutdownHook(hook);
+				fail("Test failed.");
+			}
+		});
+		assertThat(hook.executed, is(false));
+		assertThat(Runtime.getRuntime().removeShutdownHook(hook), is(false));
+	}
+
+	@Test
+	public void doesNotRunShutdownHooksAfterHalt() throws Throwable {
+		rule.expectSystemExit();
+		rule.runShutdownHooks(1, MINUTES);
+		final SetFlag hook = new SetFlag();
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Runtime.getRuntime().addShutdownHook(hook);
+				Runtime.getRuntime().halt(0);
+			}
+		});
+		assertThat(hook.executed, is(false));
+	}
+
+	@Test
+	public void failsForShutdownHookThatDoesNotFinishWithinTimeout() throws Throwable {
+		rule.expectSystemExit();
+		rule.runShutdownHooks(100, MILLISECONDS);
+		final Thread hook = new Thread() {
+			@Override
+			public void run() {
+				try {
+					sleep(10000);
+				} catch (InterruptedException ignored) {
+				}
+			}
+		};
+		Throwable exception = exceptionThrownByRuleForStatement(new AddHookAndExit(hook));
+		hook.interrupt();
+		assertThat(exception, hasMessage("The shutdown hook \"" + hook.getName()
+			+ "\" has not finished within 100 milliseconds."));
+	}
+
+	@Test
+	public void failsForShutdownHookThatThrowsException() throws Throwable {
+		rule.expectSystemExit();
+		rule.runShutdownHooks(1, MINUTES);
+		Thread hook = new Thread() {
+			@Override
+			public void run() {
+				throw new IllegalStateException("Hook failed.");
+			}
+		};
+		Throwable exception = exceptionThrownByRuleForStatement(new AddHookAndExit(hook));
+		assertThat(exception, hasMessage("Hook failed."));
+	}
+
+	@Test
+	public void providesAllExitCalls() throws Throwable {
+		rule.expectSystemExitWithStatus(0);
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				try {
+					System.exit(0);
+				} catch (SecurityException ignored) {
+				}
+				System.exit(1);
+			}
+		});
+		List<SystemExitCall> calls = rule.getExitCalls();
+		assertThat(calls, hasSize(2));
+		assertThat(calls.get(0).getStatus(), is(0));
+		assertThat(calls.get(1).getStatus(), is(1));
+	}
+
+	@Test
+	public void providesThreadOfExitCall() throws Throwable {
+		rule.expectSystemExit();
+		executeRuleWithExitStatus0();
+		SystemExitCall call = rule.getExitCalls().get(0);
+		assertThat(call.getThreadName(), is(equalTo(currentThread().getName())));
+		assertThat(call.getThreadId(), is(equalTo(currentThread().getId())));
+	}
+
+	@Test
+	public void providesNoStackTraceByDefault() throws Throwable {
+		rule.expectSystemExit();
+		executeRuleWithExitStatus0();
+		assertThat(rule.getExitCalls().get(0).getStackTrace(), is(nullValue()));
+	}
+
+	@Test
+	public void providesStackTraceOfExitCall() throws Throwable {
+		rule.expectSystemExit();
+		rule.recordStackTraces();
+		executeRuleWithExitStatus0();
+		StackTraceElement[] stackTrace = rule.getExitCalls().get(0).getStackTrace();
+		assertThat(asList(stackTrace), hasItem(
+			Matchers.<StackTraceElement>hasProperty("className",
+				equalTo(SystemExit0.class.getName()))));
+	}
+
+	@Test
+	public void providesNoExitCallsBeforeTest() {
+		assertThat(rule.getExitCalls(), is(empty()));
+	}
+
 	private Throwable exceptionThrownByRuleForStatement(final Statement statement) {
 		return exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
 			public void evaluate() throws Throwable {
@@ -179,6 +374,45 @@ public class ExpectedSystemExitTest {
 		}
 	}
 
+	private static class DelayedSystemExitInThread extends Statement {
+		@Override
+		public void evaluate() throws Throwable {
+			Runnable callSystemExit = new Runnable() {
+				public void run() {
+					try {
+						sleep(100);
+					} catch (InterruptedException ignored) {
+					}
+					System.exit(ARBITRARY_EXIT_STATUS);
+				}
+			};
+			new Thread(callSystemExit).start();
+		}
+	}
+
+	private static class SetFlag extends Thread {
+		volatile boolean executed = false;
+
+		@Override
+		public void run() {
+			executed = true;
+		}
+	}
+
+	private static class AddHookAndExit extends Statement {
+		private final Thread hook;
+
+		AddHookAndExit(Thread hook) {
+			this.hook = hook;
+		}
+
+		@Override
+		public void evaluate() throws Throwable {
+			Runtime.getRuntime().addShutdownHook(hook);
+			System.exit(0);
+		}
+	}
+
 	private static class ArbitrarySecurityManager extends SecurityManager {
 		@Override
 		public Object getSecurityContext() {
@@ -0,0 +1,112 @@
+package org.junit.contrib.java.lang.system;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.lang.System.getSecurityManager;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.internal.ExitHook;
+import org.junit.contrib.java.lang.system.internal.ExitInterceptionAgent;
+import org.junit.runners.model.Statement;
+
+/**
+ * These tests are executed by a JVM that is started with the
+ * {@link ExitInterceptionAgent}. They are skipped otherwise.
+ */
+public class ExpectedSystemExitWithAgentTest {
+	private final ExpectedSystemExit rule = ExpectedSystemExit.none();
+
+	@Before
+	public void agentIsInstalled() {
+		assumeTrue(ExitInterceptionAgent.isInstalled());
+	}
+
+	@Test
+	public void succeedsOnExitWithSelectedStatus() throws Throwable {
+		rule.expectSystemExitWithStatus(3);
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				System.exit(3);
+			}
+		});
+	}
+
+	@Test
+	public void succeedsOnHaltWithSelectedStatus() throws Throwable {
+		rule.expectSystemExitWithStatus(4);
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Runtime.getRuntime().halt(4);
+			}
+		});
+		assertThat(rule.getExitCalls().get(0).isHalt(), is(true));
+	}
+
+	@Test
+	public void runsShutdownHooksAfterExit() throws Throwable {
+		rule.expectSystemExit();
+		rule.runShutdownHooks(1, MINUTES);
+		final boolean[] executed = new boolean[1];
+		final Thread hook = new Thread() {
+			@Override
+			public void run() {
+				executed[0] = true;
+			}
+		};
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Runtime.getRuntime().addShutdownHook(hook);
+				System.exit(0);
+			}
+		});
+		assertThat(executed[0], is(true));
+	}
+
+	@Test
+	public void failsForUnexpectedSystemExit() throws Throwable {
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				executeRuleWithStatement(new Statement() {
+					@Override
+					public void evaluate() throws Throwable {
+						System.exit(0);
+					}
+				});
+			}
+		});
+		assertThat(exception, hasProperty("message",
+			equalTo("Unexpected call of System.exit(0).")));
+	}
+
+	@Test
+	public void doesNotInstallSecurityManager() throws Throwable {
+		final SecurityManager[] managerDuringTest = new SecurityManager[1];
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				managerDuringTest[0] = getSecurityManager();
+			}
+		});
+		assertThat(managerDuringTest[0], is(nullValue()));
+	}
+
+	@Test
+	public void removesInterceptorAfterTest() throws Throwable {
+		executeRuleWithStatement(new EmptyStatement());
+		assertThat(ExitHook.getInterceptor(), is(nullValue()));
+	}
+
+	private void executeRuleWithStatement(Statement statement) throws Throwable {
+		rule.apply(statement, null).evaluate();
+	}
+}
@@ -0,0 +1,50 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.getProperty;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads system properties in other threads.
+ */
+class PropertyReaders {
+	private final ExecutorService existingThread = Executors.newSingleThreadExecutor();
+
+	/**
+	 * Creates a thread that exists before the test starts.
+	 */
+	PropertyReaders() throws Exception {
+		existingThread.submit(new ReadProperty("java.version")).get();
+	}
+
+	String readInExistingThread(String name) throws Exception {
+		return existingThread.submit(new ReadProperty(name)).get();
+	}
+
+	String readInNewThread(String name) throws Exception {
+		ExecutorService newThread = Executors.newSingleThreadExecutor();
+		try {
+			return newThread.submit(new ReadProperty(name)).get();
+		} finally {
+			newThread.shutdown();
+		}
+	}
+
+	void shutdown() {
+		existingThread.shutdown();
+	}
+
+	private static class ReadProperty implements Callable<String> {
+		private final String name;
+
+		ReadProperty(String name) {
+			this.name = name;
+		}
+
+		public String call() {
+			return getProperty(name);
+		}
+	}
+}
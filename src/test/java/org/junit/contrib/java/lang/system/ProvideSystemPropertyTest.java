@@ -1,8 +1,10 @@
 package org.junit.contrib.java.lang.system;
 
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
 import static java.lang.System.clearProperty;
 import static java.lang.System.getProperty;
 import static java.lang.System.setProperty;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.apache.commons.io.IOUtils.copy;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
@@ -12,6 +14,7 @@ import static org.junit.contrib.java.lang.system.ProvideSystemProperty.fromFile;
 import static org.junit.contrib.java.lang.system.ProvideSystemProperty.fromResource;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 
@@ -38,6 +41,41 @@ public class ProvideSystemPropertyTest {
 	@Rule
 	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
 
+	@Test
+	public void providesValueToTestThreadsOnlyIfRoutedPerThread() throws Throwable {
+		setProperty(ARBITRARY_NAME, A_DIFFERENT_VALUE);
+		final PropertyReaders readers = new PropertyReaders();
+		final String[] values = new String[3];
+		rule = new ProvideSystemProperty(ARBITRARY_NAME, ARBITRARY_VALUE)
+			.routePerThread();
+		evaluateRuleForStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				values[0] = getProperty(ARBITRARY_NAME);
+				values[1] = readers.readInNewThread(ARBITRARY_NAME);
+				values[2] = readers.readInExistingThread(ARBITRARY_NAME);
+			}
+		});
+		readers.shutdown();
+		assertThat(values, is(arrayContaining(
+			ARBITRARY_VALUE, ARBITRARY_VALUE, A_DIFFERENT_VALUE)));
+		assertThat(getProperty(ARBITRARY_NAME), is(equalTo(A_DIFFERENT_VALUE)));
+	}
+
+	@Test
+	public void discardsChangesOfTestIfRoutedPerThread() throws Throwable {
+		clearProperty(ANOTHER_PROPERTY);
+		rule = new ProvideSystemProperty(ARBITRARY_NAME, ARBITRARY_VALUE)
+			.routePerThread();
+		evaluateRuleForStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setProperty(ANOTHER_PROPERTY, ARBITRARY_VALUE);
+			}
+		});
+		assertThat(getProperty(ANOTHER_PROPERTY), is(nullValue()));
+	}
+
 	@Test
 	public void removeProperty() throws Throwable {
 		setProperty(ARBITRARY_NAME, ARBITRARY_VALUE);
@@ -92,6 +130,32 @@ public class ProvideSystemPropertyTest {
 			hasPropertyWithValue(ARBITRARY_NAME, ARBITRARY_VALUE));
 	}
 
+	@Test
+	public void providePropertyFromModifiedFile() throws Throwable {
+		File file = temporaryFolder.newFile();
+		writeStringToFile(file, "arbitrary\\ property=original value of file", "UTF-8");
+		fromFile(file.getAbsolutePath());
+		writeStringToFile(file, "arbitrary\\ property=different value", "UTF-8");
+		rule = fromFile(file.getAbsolutePath());
+		TestThatCapturesProperties test = new TestThatCapturesProperties();
+		evaluateRuleForStatement(test);
+		assertThat(test.propertiesAtStart,
+			hasPropertyWithValue(ARBITRARY_NAME, A_DIFFERENT_VALUE));
+	}
+
+	@Test
+	public void failsForMissingResource() {
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				fromResource("missing.properties");
+			}
+		});
+		assertThat(exception, allOf(
+			instanceOf(FileNotFoundException.class),
+			org.hamcrest.Matchers.<Throwable>hasProperty("message", equalTo(
+				"The resource \"missing.properties\" does not exist."))));
+	}
+
 	@Test
 	public void restoresMultipleProperties() throws Throwable {
 		setProperty(ANOTHER_PROPERTY, ARBITRARY_VALUE);
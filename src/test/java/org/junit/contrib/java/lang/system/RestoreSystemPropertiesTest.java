@@ -1,14 +1,29 @@
 package org.junit.contrib.java.lang.system;
 
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
 import static java.lang.System.clearProperty;
+import static java.lang.System.getProperties;
 import static java.lang.System.getProperty;
+import static java.lang.System.setProperties;
 import static java.lang.System.setProperty;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.contrib.java.lang.system.Matchers.hasPropertyWithValue;
 
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+
+import org.hamcrest.Matchers;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.rules.TestRule;
@@ -54,6 +69,213 @@ public class RestoreSystemPropertiesTest {
 			hasPropertyWithValue(PROPERTY_KEY, "dummy value"));
 	}
 
+	@Test
+	public void removesPropertyThatHasBeenAddedByStatement() throws Throwable {
+		clearProperty(PROPERTY_KEY);
+		evaluateRuleThatWrapsStatementThatSetsThePropertyValue();
+		assertThat(getProperties().containsKey(PROPERTY_KEY), is(false));
+	}
+
+	@Test
+	public void restoresPropertyThatHasBeenRemovedByStatement() throws Throwable {
+		setPropertyValue("dummy value");
+		evaluateRuleThatWrapsStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				clearProperty(PROPERTY_KEY);
+			}
+		});
+		assertThat(getPropertyValue(), is(equalTo("dummy value")));
+	}
+
+	@Test
+	public void keepsPropertiesObjectDuringTest() throws Throwable {
+		final Properties originalProperties = getProperties();
+		final Properties[] propertiesDuringTest = new Properties[1];
+		evaluateRuleThatWrapsStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				propertiesDuringTest[0] = getProperties();
+			}
+		});
+		assertThat(propertiesDuringTest[0], is(sameInstance(originalProperties)));
+	}
+
+	@Test
+	public void restoresPropertiesObjectThatHasBeenReplacedByStatement() throws Throwable {
+		Properties originalProperties = getProperties();
+		evaluateRuleThatWrapsStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setProperties(new Properties());
+			}
+		});
+		assertThat(getProperties(), is(sameInstance(originalProperties)));
+	}
+
+	@Test
+	public void restoresPropertiesOfNestedRules() throws Throwable {
+		setPropertyValue("dummy value");
+		new RestoreSystemProperties().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setPropertyValue("outer value");
+				evaluateRuleThatWrapsStatementThatSetsThePropertyValue();
+				assertThat(getPropertyValue(), is(equalTo("outer value")));
+			}
+		}, NO_DESCRIPTION).evaluate();
+		assertThat(getPropertyValue(), is(equalTo("dummy value")));
+	}
+
+	@Test
+	public void isolatesChangesOfTestThreadsIfRoutedPerThread() throws Throwable {
+		setPropertyValue("dummy value");
+		final PropertyReaders readers = new PropertyReaders();
+		final String[] values = new String[2];
+		new RestoreSystemProperties().routePerThread().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setPropertyValue("value set by statement");
+				values[0] = readers.readInNewThread(PROPERTY_KEY);
+				values[1] = readers.readInExistingThread(PROPERTY_KEY);
+			}
+		}, NO_DESCRIPTION).evaluate();
+		readers.shutdown();
+		assertThat(values, is(arrayContaining(
+			"value set by statement", "dummy value")));
+		assertThat(getPropertyValue(), is(equalTo("dummy value")));
+	}
+
+	@Test
+	public void providesMergedPropertiesIfRoutedPerThread() throws Throwable {
+		setPropertyValue("dummy value");
+		final Properties[] propertiesDuringTest = new Properties[1];
+		new RestoreSystemProperties().routePerThread().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				clearProperty("java.version");
+				setPropertyValue("value set by statement");
+				propertiesDuringTest[0] = (Properties) getProperties().clone();
+			}
+		}, NO_DESCRIPTION).evaluate();
+		assertThat(propertiesDuringTest[0],
+			hasPropertyWithValue(PROPERTY_KEY, "value set by statement"));
+		assertThat(propertiesDuringTest[0].containsKey("java.version"), is(false));
+		assertThat(getProperty("java.version"), is(notNullValue()));
+	}
+
+	@Test
+	public void restoresChangedPropertiesIfChangesAreTracked() throws Throwable {
+		setPropertyValue("dummy value");
+		final String versionBeforeTest = getProperty("java.version");
+		new RestoreSystemProperties().trackChanges().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setPropertyValue("value set by statement");
+				clearProperty("java.version");
+				setProperty("another dummy property", "dummy value");
+			}
+		}, NO_DESCRIPTION).evaluate();
+		assertThat(getPropertyValue(), is(equalTo("dummy value")));
+		assertThat(getProperty("java.version"), is(equalTo(versionBeforeTest)));
+		assertThat(getProperties().containsKey("another dummy property"), is(false));
+	}
+
+	@Test
+	public void restoresPropertiesThatHaveBeenClearedIfChangesAreTracked() throws Throwable {
+		setPropertyValue("dummy value");
+		new RestoreSystemProperties().trackChanges().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperties().clear();
+			}
+		}, NO_DESCRIPTION).evaluate();
+		assertThat(getPropertyValue(), is(equalTo("dummy value")));
+	}
+
+	@Test
+	public void restoresPropertiesThatHaveBeenRemovedByIteratorIfChangesAreTracked() throws Throwable {
+		setPropertyValue("dummy value");
+		new RestoreSystemProperties().trackChanges().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				Iterator<Object> names = getProperties().keySet().iterator();
+				while (names.hasNext())
+					if (names.next().equals(PROPERTY_KEY))
+						names.remove();
+			}
+		}, NO_DESCRIPTION).evaluate();
+		assertThat(getPropertyValue(), is(equalTo("dummy value")));
+	}
+
+	@Test
+	public void restoresPropertiesThatHaveBeenAddedByPutIfAbsentIfChangesAreTracked() throws Throwable {
+		clearProperty(PROPERTY_KEY);
+		final String[] valueDuringTest = new String[1];
+		new RestoreSystemProperties().trackChanges().apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperties().putIfAbsent(PROPERTY_KEY, "value set by statement");
+				valueDuringTest[0] = getPropertyValue();
+			}
+		}, NO_DESCRIPTION).evaluate();
+		assertThat(valueDuringTest[0], is(equalTo("value set by statement")));
+		assertThat(getPropertyValue(), is(nullValue()));
+	}
+
+	@Test
+	public void restoresPropertiesObjectIfChangesAreTracked() throws Throwable {
+		Properties originalProperties = getProperties();
+		new RestoreSystemProperties().trackChanges().apply(
+			new SetValueOfProperty(PROPERTY_KEY), NO_DESCRIPTION).evaluate();
+		assertThat(getProperties(), is(sameInstance(originalProperties)));
+	}
+
+	@Test
+	public void reportsPropertiesThatHaveBeenChangedByTest() throws Throwable {
+		setPropertyValue("dummy value");
+		setProperty("another dummy property", "dummy value");
+		RestoreSystemProperties rule = new RestoreSystemProperties().trackChanges();
+		rule.apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setPropertyValue("value set by statement");
+				setProperty("another dummy property", "other value");
+				setProperty("another dummy property", "dummy value");
+			}
+		}, NO_DESCRIPTION).evaluate();
+		clearProperty("another dummy property");
+		assertThat(rule.getChangedProperties(), contains(PROPERTY_KEY));
+	}
+
+	@Test
+	public void reportsPropertiesThatHaveBeenChangedSoFar() throws Throwable {
+		final RestoreSystemProperties rule = new RestoreSystemProperties().trackChanges();
+		final Set<String> changedProperties = new HashSet<String>();
+		rule.apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setPropertyValue("value set by statement");
+				changedProperties.addAll(rule.getChangedProperties());
+			}
+		}, NO_DESCRIPTION).evaluate();
+		assertThat(changedProperties, contains(PROPERTY_KEY));
+	}
+
+	@Test
+	public void doesNotReportChangedPropertiesIfChangesAreNotTracked() {
+		final RestoreSystemProperties rule = new RestoreSystemProperties();
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				rule.getChangedProperties();
+			}
+		});
+		assertThat(exception, allOf(
+			instanceOf(IllegalStateException.class),
+			Matchers.<Throwable>hasProperty("message", equalTo(
+				"Changes are only recorded if trackChanges() has been called."))));
+	}
+
 	private String getPropertyValue() {
 		return getProperty("dummy property");
 	}
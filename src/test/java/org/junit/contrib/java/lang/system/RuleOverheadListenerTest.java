@@ -0,0 +1,118 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.contrib.java.lang.system.RuleOverheadSink.Phase.SETUP;
+import static org.junit.contrib.java.lang.system.RuleOverheadSink.Phase.TEARDOWN;
+import static org.junit.runner.Description.EMPTY;
+import static org.junit.runner.Description.createTestDescription;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+public class RuleOverheadListenerTest {
+	private static final Description FIRST_TEST = createTestDescription(
+		RuleOverheadListenerTest.class, "first");
+	private static final Description SECOND_TEST = createTestDescription(
+		RuleOverheadListenerTest.class, "second");
+
+	private final ByteArrayOutputStream report = new ByteArrayOutputStream();
+	private final RuleOverheadListener listener
+		= new RuleOverheadListener(new PrintStream(report), 1);
+
+	@After
+	public void removeSink() {
+		RuleOverheadMetrics.setSink(null);
+	}
+
+	@Test
+	public void printsOverheadOfRulesAndTestWithHighestOverhead() throws Exception {
+		listener.testRunStarted(EMPTY);
+		listener.testStarted(FIRST_TEST);
+		listener.record("SystemOutRule", SETUP, 1000000, 100);
+		listener.record("SystemOutRule", TEARDOWN, 500000, 50);
+		listener.testFinished(FIRST_TEST);
+		listener.testStarted(SECOND_TEST);
+		listener.record("SystemOutRule", SETUP, 2000000, 100);
+		listener.record("ExpectedSystemExit", SETUP, 4000000, 200);
+		listener.record("ExpectedSystemExit", TEARDOWN, 1000000, 10);
+		listener.record("SystemOutRule", TEARDOWN, 500000, 50);
+		listener.testFinished(SECOND_TEST);
+		listener.testRunFinished(new Result());
+		assertThat(report.toString(), is(equalTo(
+			"Overhead of System Rules:\n"
+			+ "  ExpectedSystemExit: 1 setups 4.000 ms, 1 teardowns 1.000 ms, 210 bytes\n"
+			+ "  SystemOutRule: 2 setups 3.000 ms, 2 teardowns 1.000 ms, 300 bytes\n"
+			+ "Tests with the highest overhead:\n"
+			+ "  " + SECOND_TEST + ": 7.500 ms, 360 bytes\n")));
+	}
+
+	@Test
+	public void omitsBytesIfTheyCannotBeMeasured() throws Exception {
+		listener.testRunStarted(EMPTY);
+		listener.record("SystemOutRule", SETUP, 1000000, -1);
+		listener.record("SystemOutRule", TEARDOWN, 1000000, -1);
+		listener.testRunFinished(new Result());
+		assertThat(report.toString(), is(equalTo(
+			"Overhead of System Rules:\n"
+			+ "  SystemOutRule: 1 setups 1.000 ms, 1 teardowns 1.000 ms\n")));
+	}
+
+	@Test
+	public void measuresRulesOfTests() {
+		runWithListener(TestWithSystemOutRule.class);
+		assertThat(report.toString(),
+			containsString("  SystemOutRule: 2 setups "));
+	}
+
+	@Test
+	public void restoresPreviousSink() {
+		RuleOverheadSink previousSink = new RuleOverheadListener();
+		RuleOverheadMetrics.setSink(previousSink);
+		runWithListener(TestWithSystemOutRule.class);
+		assertThat(RuleOverheadMetrics.getSink(), is(sameInstance(previousSink)));
+	}
+
+	@Test
+	public void printsNothingIfNoRuleHasBeenUsed() {
+		runWithListener(TestWithoutRule.class);
+		assertThat(report.toString(), is(equalTo("")));
+		assertThat(RuleOverheadMetrics.getSink(), is(nullValue()));
+	}
+
+	private void runWithListener(Class<?> testClass) {
+		JUnitCore core = new JUnitCore();
+		core.addListener(listener);
+		core.run(testClass);
+	}
+
+	public static class TestWithSystemOutRule {
+		@Rule
+		public final SystemOutRule systemOut = new SystemOutRule().mute();
+
+		@Test
+		public void first() {
+		}
+
+		@Test
+		public void second() {
+		}
+	}
+
+	public static class TestWithoutRule {
+		@Test
+		public void test() {
+		}
+	}
+}
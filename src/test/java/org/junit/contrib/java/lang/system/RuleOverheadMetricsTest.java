@@ -0,0 +1,86 @@
+package org.junit.contrib.java.lang.system;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.contrib.java.lang.system.TextFromStandardInputStream.emptyStandardInputStream;
+import static org.junit.runner.Description.EMPTY;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.runners.model.Statement;
+
+public class RuleOverheadMetricsTest {
+	private final RecordingSink sink = new RecordingSink();
+
+	@After
+	public void removeSink() {
+		RuleOverheadMetrics.setSink(null);
+	}
+
+	@Test
+	public void setupAndTeardownOfPrintStreamRuleAreRecorded() throws Throwable {
+		RuleOverheadMetrics.setSink(sink);
+		evaluateRule(new SystemOutRule().mute());
+		assertThat(sink.records, contains("SystemOutRule SETUP", "SystemOutRule TEARDOWN"));
+	}
+
+	@Test
+	public void setupAndTeardownOfExternalResourceAreRecorded() throws Throwable {
+		RuleOverheadMetrics.setSink(sink);
+		evaluateRule(new ProvideSystemProperty("arbitrary property", "arbitrary value"));
+		evaluateRule(emptyStandardInputStream());
+		assertThat(sink.records, contains(
+			"ProvideSystemProperty SETUP", "ProvideSystemProperty TEARDOWN",
+			"TextFromStandardInputStream SETUP", "TextFromStandardInputStream TEARDOWN"));
+	}
+
+	@Test
+	public void setupAndTeardownOfExpectedSystemExitAreRecorded() throws Throwable {
+		RuleOverheadMetrics.setSink(sink);
+		evaluateRule(ExpectedSystemExit.none());
+		assertThat(sink.records, contains(
+			"ExpectedSystemExit SETUP", "ExpectedSystemExit TEARDOWN"));
+	}
+
+	@Test
+	public void teardownIsRecordedIfTestFails() throws Throwable {
+		RuleOverheadMetrics.setSink(sink);
+		try {
+			new RestoreSystemProperties().apply(new Statement() {
+				@Override
+				public void evaluate() throws Throwable {
+					throw new IllegalStateException();
+				}
+			}, EMPTY).evaluate();
+		} catch (IllegalStateException expected) {
+		}
+		assertThat(sink.records, contains(
+			"RestoreSystemProperties SETUP", "RestoreSystemProperties TEARDOWN"));
+	}
+
+	@Test
+	public void nothingIsRecordedWithoutSink() throws Throwable {
+		evaluateRule(new SystemOutRule().mute());
+		assertThat(sink.records, is(empty()));
+	}
+
+	private void evaluateRule(TestRule rule) throws Throwable {
+		rule.apply(new EmptyStatement(), EMPTY).evaluate();
+	}
+
+	private static class RecordingSink implements RuleOverheadSink {
+		final List<String> records = new ArrayList<String>();
+
+		public void record(String rule, Phase phase, long nanos,
+				long allocatedBytes) {
+			if (nanos >= 0)
+				records.add(rule + " " + phase);
+		}
+	}
+}
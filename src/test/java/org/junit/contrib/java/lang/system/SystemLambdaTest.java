@@ -0,0 +1,182 @@
+package org.junit.contrib.java.lang.system;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.lang.System.clearProperty;
+import static java.lang.System.getProperty;
+import static java.lang.System.getSecurityManager;
+import static java.lang.System.setProperty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.contrib.java.lang.system.SystemLambda.catchSystemExit;
+import static org.junit.contrib.java.lang.system.SystemLambda.restoreSystemProperties;
+import static org.junit.contrib.java.lang.system.SystemLambda.tapSystemErr;
+import static org.junit.contrib.java.lang.system.SystemLambda.tapSystemOut;
+import static org.junit.contrib.java.lang.system.SystemLambda.withSystemProperty;
+import static org.junit.contrib.java.lang.system.SystemLambda.withTextFromSystemIn;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SystemLambdaTest {
+	@Rule
+	public final RestoreSystemProperties restoreSystemProperties
+		= new RestoreSystemProperties();
+
+	@Test
+	public void tapsSystemOutAndRestoresIt() throws Exception {
+		PrintStream originalOut = System.out;
+		String output = tapSystemOut(new SystemLambda.Statement() {
+			public void execute() {
+				System.out.print("arbitrary text");
+			}
+		});
+		assertThat(output, is(equalTo("arbitrary text")));
+		assertThat(System.out, is(sameInstance(originalOut)));
+	}
+
+	@Test
+	public void tapsSystemErrAndRestoresIt() throws Exception {
+		PrintStream originalErr = System.err;
+		String output = tapSystemErr(new SystemLambda.Statement() {
+			public void execute() {
+				System.err.print("arbitrary text");
+			}
+		});
+		assertThat(output, is(equalTo("arbitrary text")));
+		assertThat(System.err, is(sameInstance(originalErr)));
+	}
+
+	@Test
+	public void repeatedTapsDontReturnTextOfPreviousTaps() throws Exception {
+		for (int i = 0; i < 3; ++i) {
+			final int number = i;
+			String output = tapSystemOut(new SystemLambda.Statement() {
+				public void execute() {
+					System.out.print(number);
+				}
+			});
+			assertThat(output, is(equalTo(Integer.toString(i))));
+		}
+	}
+
+	@Test
+	public void nestedTapsCaptureTheirOwnOutput() throws Exception {
+		final String[] innerOutput = new String[1];
+		String outerOutput = tapSystemOut(new SystemLambda.Statement() {
+			public void execute() throws Exception {
+				System.out.print("outer");
+				innerOutput[0] = tapSystemOut(new SystemLambda.Statement() {
+					public void execute() {
+						System.out.print("inner");
+					}
+				});
+			}
+		});
+		assertThat(outerOutput, is(equalTo("outer")));
+		assertThat(innerOutput[0], is(equalTo("inner")));
+	}
+
+	@Test
+	public void restoresSystemOutIfStatementFails() {
+		PrintStream originalOut = System.out;
+		Throwable exception = exceptionThrownBy(
+			new com.github.stefanbirkner.fishbowl.Statement() {
+				public void evaluate() throws Throwable {
+					tapSystemOut(new SystemLambda.Statement() {
+						public void execute() {
+							throw new IllegalStateException();
+						}
+					});
+				}
+			});
+		assertThat(exception, is(instanceOf(IllegalStateException.class)));
+		assertThat(System.out, is(sameInstance(originalOut)));
+	}
+
+	@Test
+	public void providesLinesToSystemInAndRestoresIt() throws Exception {
+		InputStream originalIn = System.in;
+		final String[] lines = new String[2];
+		withTextFromSystemIn("first line", "second line")
+			.execute(new SystemLambda.Statement() {
+				public void execute() throws Exception {
+					BufferedReader reader = new BufferedReader(
+						new InputStreamReader(System.in));
+					lines[0] = reader.readLine();
+					lines[1] = reader.readLine();
+				}
+			});
+		assertThat(lines[0], is(equalTo("first line")));
+		assertThat(lines[1], is(equalTo("second line")));
+		assertThat(System.in, is(sameInstance(originalIn)));
+	}
+
+	@Test
+	public void returnsStatusOfSystemExit() throws Exception {
+		SecurityManager originalSecurityManager = getSecurityManager();
+		int status = catchSystemExit(new SystemLambda.Statement() {
+			public void execute() {
+				System.exit(42);
+			}
+		});
+		assertThat(status, is(42));
+		assertThat(getSecurityManager(), is(sameInstance(originalSecurityManager)));
+	}
+
+	@Test
+	public void failsIfSystemExitIsNotCalled() {
+		Throwable exception = exceptionThrownBy(
+			new com.github.stefanbirkner.fishbowl.Statement() {
+				public void evaluate() throws Throwable {
+					catchSystemExit(new SystemLambda.Statement() {
+						public void execute() {
+						}
+					});
+				}
+			});
+		assertThat(exception, is(instanceOf(AssertionError.class)));
+		assertThat(exception.getMessage(),
+			is(equalTo("System.exit has not been called.")));
+	}
+
+	@Test
+	public void providesSystemPropertiesAndRestoresThem() throws Exception {
+		setProperty("first property", "original value");
+		clearProperty("second property");
+		final String[] values = new String[2];
+		withSystemProperty("first property", "first value")
+			.and("second property", "second value")
+			.execute(new SystemLambda.Statement() {
+				public void execute() {
+					values[0] = getProperty("first property");
+					values[1] = getProperty("second property");
+				}
+			});
+		assertThat(values[0], is(equalTo("first value")));
+		assertThat(values[1], is(equalTo("second value")));
+		assertThat(getProperty("first property"), is(equalTo("original value")));
+		assertThat(getProperty("second property"), is(nullValue()));
+	}
+
+	@Test
+	public void restoresPropertiesThatAreChangedByStatement() throws Exception {
+		setProperty("arbitrary property", "original value");
+		restoreSystemProperties(new SystemLambda.Statement() {
+			public void execute() {
+				setProperty("arbitrary property", "changed value");
+				setProperty("another property", "arbitrary value");
+			}
+		});
+		assertThat(getProperty("arbitrary property"), is(equalTo("original value")));
+		assertThat(getProperty("another property"), is(nullValue()));
+	}
+}
@@ -1,10 +1,14 @@
 package org.junit.contrib.java.lang.system;
 
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
 import static java.lang.String.format;
 import static java.lang.System.out;
 import static java.lang.System.setOut;
 import static java.lang.System.setProperty;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isEmptyString;
@@ -13,20 +17,34 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestRule;
 import org.junit.runners.model.Statement;
 
 public class SystemOutRuleTest {
+	private static final byte[] ALL_BYTE_VALUES = new byte[256];
+
+	static {
+		for (int i = 0; i < ALL_BYTE_VALUES.length; ++i)
+			ALL_BYTE_VALUES[i] = (byte) i;
+	}
+
 	private final PrintStream originalOut = out;
 
 	@Rule
 	public TestRule restoreSystemProperties = new RestoreSystemProperties();
 
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	@After
 	public void restoreSystemOut() {
 		setOut(originalOut);
@@ -187,6 +205,102 @@ public class SystemOutRuleTest {
 		assertThat(rule.getLogWithNormalizedLineSeparator(), is(equalTo("arbitrary\ntext\n")));
 	}
 
+	@Test
+	public void acceptsLogThatIsEqualToFile() throws Throwable {
+		final SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		final File file = createFileWithText("first line\nsecond line\n");
+		evaluateRuleWithStatement(rule, new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("first line\nsecond line\n");
+				rule.assertLogEqualsFile(file);
+			}
+		});
+	}
+
+	@Test
+	public void rejectsLogThatDiffersFromFile() throws Throwable {
+		final SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		final File file = createFileWithText("first line\nsecond line\n");
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				rule.apply(new Statement() {
+					@Override
+					public void evaluate() throws Throwable {
+						out.print("first line\nother line\n");
+						rule.assertLogEqualsFile(file);
+					}
+				}, null).evaluate();
+			}
+		});
+		assertThat(exception, hasProperty("message", equalTo(
+			"System.out differs from the file " + file + " at byte 11.\n"
+				+ "Expected: \"first line\\n[second line\\n]\"\n"
+				+ "Actual:   \"first line\\n[other line\\n]...\"")));
+	}
+
+	@Test
+	public void acceptsLogWithDifferentLineSeparatorsIfNormalized() throws Throwable {
+		final SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		final File file = createFileWithText("first line\r\nsecond line\r\n");
+		evaluateRuleWithStatement(rule, new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("first line\nsecond line\n");
+				rule.assertLogWithNormalizedLineSeparatorEqualsFile(file);
+			}
+		});
+	}
+
+	@Test
+	public void writesLogToFileInUpdateMode() throws Throwable {
+		setProperty("systemRules.updateGoldenFiles", "true");
+		final SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		final File file = new File(temporaryFolder.getRoot(), "golden.txt");
+		evaluateRuleWithStatement(rule, new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("arbitrary text");
+				rule.assertLogEqualsFile(file);
+			}
+		});
+		assertThat(readFileToString(file, "UTF-8"), is(equalTo("arbitrary text")));
+	}
+
+	@Test
+	public void providesLogAsBytesWithoutDecoding() throws Throwable {
+		SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		executeRuleWithStatement(rule, writeBytesToSystemOut(ALL_BYTE_VALUES));
+		assertThat(rule.getLogAsBytes(), is(equalTo(ALL_BYTE_VALUES)));
+	}
+
+	@Test
+	public void providesLogAsReadOnlyByteBuffer() throws Throwable {
+		SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		executeRuleWithStatement(rule, writeBytesToSystemOut(ALL_BYTE_VALUES));
+		ByteBuffer log = rule.getLogAsByteBuffer();
+		assertThat(log.isReadOnly(), is(true));
+		assertThat(log, is(equalTo(ByteBuffer.wrap(ALL_BYTE_VALUES))));
+	}
+
+	@Test
+	public void writesLogToOutputStream() throws Throwable {
+		SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		executeRuleWithStatement(rule, writeBytesToSystemOut(ALL_BYTE_VALUES));
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		rule.writeLogTo(stream);
+		assertThat(stream.toByteArray(), is(equalTo(ALL_BYTE_VALUES)));
+	}
+
+	@Test
+	public void writesLogToChannel() throws Throwable {
+		SystemOutRule rule = new SystemOutRule().enableLog().mute();
+		executeRuleWithStatement(rule, writeBytesToSystemOut(ALL_BYTE_VALUES));
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		rule.writeLogTo(Channels.newChannel(stream));
+		assertThat(stream.toByteArray(), is(equalTo(ALL_BYTE_VALUES)));
+	}
+
 	private ByteArrayOutputStream useReadableSystemOut() {
 		ByteArrayOutputStream readableStream = new ByteArrayOutputStream();
 		setOut(new PrintStream(readableStream));
@@ -202,6 +316,26 @@ public class SystemOutRuleTest {
 		};
 	}
 
+	private Statement writeBytesToSystemOut(final byte[] bytes) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.write(bytes);
+			}
+		};
+	}
+
+	private void evaluateRuleWithStatement(TestRule rule, Statement statement)
+			throws Throwable {
+		rule.apply(statement, null).evaluate();
+	}
+
+	private File createFileWithText(String text) throws Exception {
+		File file = temporaryFolder.newFile();
+		writeStringToFile(file, text, "UTF-8");
+		return file;
+	}
+
 	private void executeRuleWithStatement(TestRule rule, Statement statement)
 			throws Throwable {
 		try {
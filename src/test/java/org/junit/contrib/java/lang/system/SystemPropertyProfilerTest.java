@@ -0,0 +1,183 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.clearProperty;
+import static java.lang.System.getProperties;
+import static java.lang.System.getProperty;
+import static java.lang.System.setProperty;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+public class SystemPropertyProfilerTest {
+	private static final String ARBITRARY_NAME = "arbitrary property";
+	private static final String ANOTHER_NAME = "another property";
+
+	@Rule
+	public final RestoreSystemProperties restoreSystemProperties
+		= new RestoreSystemProperties();
+
+	private final SystemPropertyProfiler profiler = new SystemPropertyProfiler();
+
+	@Test
+	public void countsReadsOfProperty() throws Throwable {
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				for (int i = 0; i < 3; ++i)
+					getProperty(ARBITRARY_NAME);
+			}
+		});
+		SystemPropertyAccess access = profiler.getAccesses().get(0);
+		assertThat(access.getName(), is(equalTo(ARBITRARY_NAME)));
+		assertThat(access.getReads(), is(3L));
+	}
+
+	@Test
+	public void countsWritesOfProperty() throws Throwable {
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setProperty(ARBITRARY_NAME, "arbitrary value");
+				clearProperty(ARBITRARY_NAME);
+			}
+		});
+		SystemPropertyAccess access = profiler.getAccesses().get(0);
+		assertThat(access.getWrites(), is(2L));
+	}
+
+	@Test
+	public void countsWritesOfJava8MapMethods() throws Throwable {
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperties().putIfAbsent(ARBITRARY_NAME, "arbitrary value");
+				getProperties().remove(ARBITRARY_NAME, "arbitrary value");
+			}
+		});
+		SystemPropertyAccess access = profiler.getAccesses().get(0);
+		assertThat(access.getWrites(), is(2L));
+	}
+
+	@Test
+	public void sortsAccessesByNumberOfReads() throws Throwable {
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperty(ARBITRARY_NAME);
+				getProperty(ANOTHER_NAME);
+				getProperty(ANOTHER_NAME);
+			}
+		});
+		assertThat(namesOf(profiler.getAccesses()),
+			is(equalTo(asList(ANOTHER_NAME, ARBITRARY_NAME))));
+	}
+
+	@Test
+	public void measuresTimeOfReads() throws Throwable {
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				for (int i = 0; i < 1000; ++i)
+					getProperty(ARBITRARY_NAME);
+			}
+		});
+		assertThat(profiler.getAccesses().get(0).getReadNanos(), is(greaterThan(0L)));
+	}
+
+	@Test
+	public void recordsStackTraceOfFirstAccess() throws Throwable {
+		Statement statement = new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperty(ARBITRARY_NAME);
+			}
+		};
+		applyProfilerToStatement(statement);
+		assertThat(asList(profiler.getAccesses().get(0).getFirstAccess()),
+			hasItem(Matchers.<StackTraceElement>hasProperty("className",
+				equalTo(statement.getClass().getName()))));
+	}
+
+	@Test
+	public void stackTraceOfFirstAccessCannotBeChanged() throws Throwable {
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperty(ARBITRARY_NAME);
+			}
+		});
+		SystemPropertyAccess access = profiler.getAccesses().get(0);
+		StackTraceElement firstElement = access.getFirstAccess()[0];
+		access.getFirstAccess()[0] = null;
+		assertThat(access.getFirstAccess()[0], is(equalTo(firstElement)));
+	}
+
+	@Test
+	public void providesAccessesWhileTestIsRunning() throws Throwable {
+		final List<SystemPropertyAccess> accesses = new ArrayList<SystemPropertyAccess>();
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperty(ARBITRARY_NAME);
+				accesses.addAll(profiler.getAccesses());
+			}
+		});
+		assertThat(namesOf(accesses), is(equalTo(asList(ARBITRARY_NAME))));
+	}
+
+	@Test
+	public void restoresPropertiesObject() throws Throwable {
+		Properties originalProperties = getProperties();
+		applyProfilerToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperty(ARBITRARY_NAME);
+			}
+		});
+		assertThat(getProperties(), is(sameInstance(originalProperties)));
+	}
+
+	@Test
+	public void notifiesListenerAboutAccesses() throws Throwable {
+		final List<String> notifications = new ArrayList<String>();
+		Description description = Description.createTestDescription(
+			SystemPropertyProfilerTest.class, "test");
+		profiler.withListener(new SystemPropertyProfiler.Listener() {
+			public void testFinished(Description test,
+					List<SystemPropertyAccess> accesses) {
+				notifications.add(test.getMethodName() + " " + namesOf(accesses));
+			}
+		}).apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				getProperty(ARBITRARY_NAME);
+			}
+		}, description).evaluate();
+		assertThat(notifications, is(equalTo(asList("test [" + ARBITRARY_NAME + "]"))));
+	}
+
+	private void applyProfilerToStatement(Statement statement) throws Throwable {
+		profiler.apply(statement, null).evaluate();
+	}
+
+	private static List<String> namesOf(List<SystemPropertyAccess> accesses) {
+		List<String> names = new ArrayList<String>();
+		for (SystemPropertyAccess access : accesses)
+			names.add(access.getName());
+		return names;
+	}
+}
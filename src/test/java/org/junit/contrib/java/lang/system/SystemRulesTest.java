@@ -0,0 +1,103 @@
+package org.junit.contrib.java.lang.system;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.lang.System.getProperty;
+import static java.lang.System.getSecurityManager;
+import static java.lang.System.setProperty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runners.model.Statement;
+
+public class SystemRulesTest {
+	private final SystemRules rules = SystemRules.builder()
+		.interceptSystemExit()
+		.captureSystemOut(new SystemOutRule().mute().enableLog())
+		.captureSystemErr(new SystemErrRule().mute().enableLog())
+		.provideSystemIn()
+		.restoreSystemProperties()
+		.build();
+
+	@Test
+	public void providesInputAndCapturesOutput() throws Throwable {
+		rules.systemIn().provideLines("arbitrary text");
+		applyRulesToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				String line = new BufferedReader(new InputStreamReader(System.in)).readLine();
+				System.out.print(line);
+				System.err.print("error");
+			}
+		});
+		assertThat(rules.systemOut().getLog(), is(equalTo("arbitrary text")));
+		assertThat(rules.systemErr().getLog(), is(equalTo("error")));
+	}
+
+	@Test
+	public void restoresAllState() throws Throwable {
+		PrintStream originalOut = System.out;
+		PrintStream originalErr = System.err;
+		InputStream originalIn = System.in;
+		SecurityManager originalSecurityManager = getSecurityManager();
+		rules.exit().expectSystemExitWithStatus(1);
+		applyRulesToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				setProperty("arbitrary property", "arbitrary value");
+				System.exit(1);
+			}
+		});
+		assertThat(System.out, is(sameInstance(originalOut)));
+		assertThat(System.err, is(sameInstance(originalErr)));
+		assertThat(System.in, is(sameInstance(originalIn)));
+		assertThat(getSecurityManager(), is(sameInstance(originalSecurityManager)));
+		assertThat(getProperty("arbitrary property"), is(nullValue()));
+	}
+
+	@Test
+	public void checksAssertionOfExitWhileOutputIsStillCaptured() throws Throwable {
+		final PrintStream[] outDuringAssertion = new PrintStream[1];
+		final PrintStream[] outDuringTest = new PrintStream[1];
+		rules.exit().expectSystemExit();
+		rules.exit().checkAssertionAfterwards(new Assertion() {
+			public void checkAssertion() throws Exception {
+				outDuringAssertion[0] = System.out;
+			}
+		});
+		applyRulesToStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				outDuringTest[0] = System.out;
+				System.exit(0);
+			}
+		});
+		assertThat(outDuringAssertion[0], is(sameInstance(outDuringTest[0])));
+	}
+
+	@Test
+	public void rejectsAccessToRuleThatHasNotBeenAdded() {
+		final SystemRules rulesWithoutExit = SystemRules.builder()
+			.captureSystemOut().build();
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				rulesWithoutExit.exit();
+			}
+		});
+		assertThat(exception, Matchers.<Throwable>hasProperty("message", equalTo(
+			"The rule has not been added. Please call interceptSystemExit() of the builder.")));
+	}
+
+	private void applyRulesToStatement(Statement statement) throws Throwable {
+		rules.apply(statement, null).evaluate();
+	}
+}
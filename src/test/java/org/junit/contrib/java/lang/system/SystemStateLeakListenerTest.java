@@ -0,0 +1,94 @@
+package org.junit.contrib.java.lang.system;
+
+import static java.lang.System.setProperty;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.runner.Description.createTestDescription;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+
+public class SystemStateLeakListenerTest {
+	private static final Description TEST = createTestDescription(
+		SystemStateLeakListenerTest.class, "test");
+
+	@Rule
+	public final RestoreSystemProperties restoreSystemProperties
+		= new RestoreSystemProperties();
+
+	private final ByteArrayOutputStream report = new ByteArrayOutputStream();
+	private final SystemStateLeakListener listener
+		= new SystemStateLeakListener(new PrintStream(report));
+
+	@Test
+	public void detectsChangedSystemProperty() throws Exception {
+		listener.testStarted(TEST);
+		setProperty("arbitrary property", "arbitrary value");
+		listener.testFinished(TEST);
+		assertThat(listener.getLeaks().get(TEST),
+			contains("The system properties have been changed."));
+	}
+
+	@Test
+	public void detectsReplacedStandardOutputStream() throws Exception {
+		PrintStream originalOut = System.out;
+		listener.testStarted(TEST);
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		try {
+			listener.testFinished(TEST);
+		} finally {
+			System.setOut(originalOut);
+		}
+		assertThat(listener.getLeaks().get(TEST),
+			contains("System.out has been replaced."));
+	}
+
+	@Test
+	public void doesNotReportTestThatRestoresState() throws Exception {
+		listener.testStarted(TEST);
+		setProperty("arbitrary property", "arbitrary value");
+		System.clearProperty("arbitrary property");
+		listener.testFinished(TEST);
+		assertThat(listener.getLeaks(),
+			is(equalTo(Collections.<Description, List<String>>emptyMap())));
+	}
+
+	@Test
+	public void printsLeaksWhenAllTestsHaveFinished() throws Exception {
+		listener.testStarted(TEST);
+		setProperty("arbitrary property", "arbitrary value");
+		listener.testFinished(TEST);
+		listener.testRunFinished(new Result());
+		assertThat(report.toString(), is(equalTo(
+			"The global state of the JVM has been changed by 1 test(s):\n"
+			+ "  test(org.junit.contrib.java.lang.system.SystemStateLeakListenerTest):"
+			+ " The system properties have been changed.\n")));
+	}
+
+	@Test
+	public void printsNothingWithoutLeaks() throws Exception {
+		listener.testStarted(TEST);
+		listener.testFinished(TEST);
+		listener.testRunFinished(new Result());
+		assertThat(report.toString(), is(equalTo("")));
+	}
+
+	@Test
+	public void providesUnmodifiableLeaks() throws Exception {
+		Map<Description, List<String>> leaks = listener.getLeaks();
+		listener.testStarted(TEST);
+		setProperty("arbitrary property", "arbitrary value");
+		listener.testFinished(TEST);
+		assertThat(leaks.isEmpty(), is(true));
+	}
+}
@@ -0,0 +1,68 @@
+package org.junit.contrib.java.lang.system;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.lang.System.setProperty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.model.Statement;
+
+public class SystemStateLeakRuleTest {
+	@Rule
+	public final RestoreSystemProperties restoreSystemProperties
+		= new RestoreSystemProperties();
+
+	private final SystemStateLeakRule rule = new SystemStateLeakRule();
+
+	@Test
+	public void failsTestThatChangesSystemProperty() {
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				rule.apply(new Statement() {
+					@Override
+					public void evaluate() throws Throwable {
+						setProperty("arbitrary property", "arbitrary value");
+					}
+				}, null).evaluate();
+			}
+		});
+		assertThat(exception, Matchers.<Throwable>hasProperty("message", equalTo(
+			"The test changed the global state of the JVM:\n"
+			+ "- The system properties have been changed.")));
+	}
+
+	@Test
+	public void acceptsTestThatRestoresState() throws Throwable {
+		rule.apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				new RestoreSystemProperties().apply(new Statement() {
+					@Override
+					public void evaluate() throws Throwable {
+						setProperty("arbitrary property", "arbitrary value");
+					}
+				}, null).evaluate();
+			}
+		}, null).evaluate();
+	}
+
+	@Test
+	public void doesNotCheckStateOfFailingTest() {
+		final RuntimeException failure = new RuntimeException();
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				rule.apply(new Statement() {
+					@Override
+					public void evaluate() throws Throwable {
+						setProperty("arbitrary property", "arbitrary value");
+						throw failure;
+					}
+				}, null).evaluate();
+			}
+		});
+		assertThat(exception, Matchers.<Throwable>sameInstance(failure));
+	}
+}
@@ -6,8 +6,13 @@ import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.contrib.java.lang.system.TextFromStandardInputStream.emptyStandardInputStream;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -94,7 +99,116 @@ public class TextFromStandardInputStreamTest {
 		assertThat(System.in, is(sameInstance(originalSystemIn)));
 	}
 
+	@Test
+	public void providesTextToThreadOfTestIfRoutedPerThread() throws Throwable {
+		systemInMock.routePerThread();
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				systemInMock.provideText("arbitrary text");
+				assertThat(readLine(), is(equalTo("arbitrary text")));
+			}
+		});
+	}
+
+	@Test
+	public void providesTextToChildThreadIfRoutedPerThread() throws Throwable {
+		systemInMock.routePerThread();
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				systemInMock.provideText("arbitrary text");
+				assertThat(readLineInNewThread(), is(equalTo("arbitrary text")));
+			}
+		});
+	}
+
+	@Test
+	public void doesNotProvideTextToOtherThreadsIfRoutedPerThread() throws Throwable {
+		InputStream originalSystemIn = System.in;
+		System.setIn(new ByteArrayInputStream("original text".getBytes()));
+		final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+		try {
+			otherThread.submit(new EmptyRunnable()).get();
+			systemInMock.routePerThread();
+			executeRuleWithStatement(new Statement() {
+				@Override
+				public void evaluate() throws Throwable {
+					systemInMock.provideText("arbitrary text");
+					String text = otherThread.submit(new ReadLine()).get();
+					assertThat(text, is(equalTo("original text")));
+				}
+			});
+		} finally {
+			otherThread.shutdown();
+			System.setIn(originalSystemIn);
+		}
+	}
+
+	@Test
+	public void providesDifferentTextsToParallelTests() throws Throwable {
+		final TextFromStandardInputStream otherSystemInMock
+			= emptyStandardInputStream().routePerThread();
+		systemInMock.routePerThread();
+		executeRuleWithStatement(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				systemInMock.provideText("first text");
+				FutureTask<String> otherTest = new FutureTask<String>(
+					new Callable<String>() {
+						public String call() throws Exception {
+							final String[] text = new String[1];
+							try {
+								otherSystemInMock.apply(new Statement() {
+									@Override
+									public void evaluate() throws Throwable {
+										otherSystemInMock.provideText("second text");
+										text[0] = readLine();
+									}
+								}, null).evaluate();
+							} catch (Throwable e) {
+								throw new Exception(e);
+							}
+							return text[0];
+						}
+					});
+				new Thread(otherTest).start();
+				assertThat(otherTest.get(), is(equalTo("second text")));
+				assertThat(readLine(), is(equalTo("first text")));
+			}
+		});
+	}
+
+	@Test
+	public void restoreSystemInIfRoutedPerThread() throws Throwable {
+		InputStream originalSystemIn = System.in;
+		systemInMock.routePerThread();
+		executeRuleWithStatement(new EmptyStatement());
+		assertThat(System.in, is(sameInstance(originalSystemIn)));
+	}
+
 	private void executeRuleWithStatement(Statement statement) throws Throwable {
 		systemInMock.apply(statement, null).evaluate();
 	}
+
+	private static String readLine() {
+		return new Scanner(System.in).nextLine();
+	}
+
+	private static String readLineInNewThread() throws Exception {
+		FutureTask<String> task = new FutureTask<String>(new ReadLine());
+		new Thread(task).start();
+		return task.get();
+	}
+
+	private static class ReadLine implements Callable<String> {
+		public String call() throws Exception {
+			return readLine();
+		}
+	}
+
+	private static class EmptyRunnable implements Runnable {
+		public void run() {
+		}
+	}
 }
@@ -0,0 +1,157 @@
+package org.junit.contrib.java.lang.system;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.lang.System.err;
+import static java.lang.System.out;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.contrib.java.lang.system.TextFromStandardInputStream.emptyStandardInputStream;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+
+import org.hamcrest.Matcher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.model.Statement;
+
+public class TranscriptTest {
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void replaysRecordedSession() throws Throwable {
+		File file = recordSessionOf(new AskForName("Hello"));
+		replaySessionOf(file, new AskForName("Hello"));
+	}
+
+	@Test
+	public void providesRecordedInputDuringReplay() throws Throwable {
+		File file = recordSessionOf(new AskForName("Hello"));
+		final String[] name = new String[1];
+		replaySessionOf(file, new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				out.print("Name: ");
+				name[0] = new BufferedReader(new InputStreamReader(System.in)).readLine();
+				out.println("Hello " + name[0] + ".");
+				err.print("done");
+			}
+		});
+		assertThat(name[0], is(equalTo("Alice")));
+	}
+
+	@Test
+	public void failsForDifferentOutput() throws Throwable {
+		final File file = recordSessionOf(new AskForName("Hello"));
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				replaySessionOf(file, new AskForName("Hi"));
+			}
+		});
+		assertThat(exception, hasMessage(
+			"System.out differs from the transcript at byte 7.\n"
+				+ "Expected: \"Name: H[ello Alice.\\n]\"\n"
+				+ "Actual:   \"Name: H[i Alice.\\n]...\""));
+	}
+
+	@Test
+	public void failsForMissingOutput() throws Throwable {
+		final File file = recordSessionOf(new AskForName("Hello"));
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				replaySessionOf(file, new Statement() {
+					@Override
+					public void evaluate() throws Throwable {
+						out.print("Name: ");
+					}
+				});
+			}
+		});
+		assertThat(exception, hasMessage(startsWith(
+			"System.out ended at byte 6, but the transcript continues.")));
+	}
+
+	@Test
+	public void failsForOutputOnOtherStream() throws Throwable {
+		final File file = recordSessionOf(new AskForName("Hello"));
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				replaySessionOf(file, new Statement() {
+					@Override
+					public void evaluate() throws Throwable {
+						new AskForName("Hello").evaluate();
+						err.print("!");
+					}
+				});
+			}
+		});
+		assertThat(exception, hasMessage(startsWith(
+			"System.err differs from the transcript at byte 4.")));
+	}
+
+	private File recordSessionOf(Statement statement) throws Throwable {
+		File file = temporaryFolder.newFile();
+		SystemOutRule systemOutRule = new SystemOutRule().mute();
+		SystemErrRule systemErrRule = new SystemErrRule().mute();
+		TextFromStandardInputStream systemInMock = emptyStandardInputStream();
+		new Dialogue(systemOutRule, systemInMock).answerLine("Name: ", "Alice");
+		Transcript transcript = Transcript.recordTo(file)
+			.withInput(systemInMock)
+			.withOutput(systemOutRule)
+			.withErrorOutput(systemErrRule);
+		executeRulesWithStatement(systemOutRule, systemErrRule, systemInMock,
+			transcript, statement);
+		return file;
+	}
+
+	private void replaySessionOf(File file, Statement statement) throws Throwable {
+		SystemOutRule systemOutRule = new SystemOutRule().mute();
+		SystemErrRule systemErrRule = new SystemErrRule().mute();
+		TextFromStandardInputStream systemInMock = emptyStandardInputStream();
+		Transcript transcript = Transcript.replayFrom(file)
+			.withInput(systemInMock)
+			.withOutput(systemOutRule)
+			.withErrorOutput(systemErrRule);
+		executeRulesWithStatement(systemOutRule, systemErrRule, systemInMock,
+			transcript, statement);
+	}
+
+	private void executeRulesWithStatement(SystemOutRule systemOutRule,
+			SystemErrRule systemErrRule, TextFromStandardInputStream systemInMock,
+			Transcript transcript, Statement statement) throws Throwable {
+		RuleChain.outerRule(systemOutRule).around(systemErrRule)
+			.around(systemInMock).around(transcript)
+			.apply(statement, null).evaluate();
+	}
+
+	private Matcher<Throwable> hasMessage(String message) {
+		return hasMessage(equalTo(message));
+	}
+
+	private Matcher<Throwable> hasMessage(Matcher<String> message) {
+		return hasProperty("message", message);
+	}
+
+	private static class AskForName extends Statement {
+		private final String greeting;
+
+		AskForName(String greeting) {
+			this.greeting = greeting;
+		}
+
+		@Override
+		public void evaluate() throws Throwable {
+			out.print("Name: ");
+			String name = new BufferedReader(new InputStreamReader(System.in)).readLine();
+			out.print(greeting + " " + name + ".\n");
+			err.print("done");
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class ChangeTrackingPropertiesTest {
+	private static final BiFunction<Object, Object, Object> CONCATENATE
+		= new BiFunction<Object, Object, Object>() {
+			public Object apply(Object first, Object second) {
+				return first + " " + second;
+			}
+		};
+	private static final BiFunction<Object, Object, Object> NULL
+		= new BiFunction<Object, Object, Object>() {
+			public Object apply(Object first, Object second) {
+				return null;
+			}
+		};
+
+	private final Properties originalProperties = new Properties();
+	private final ChangeTrackingProperties properties;
+	private final Properties systemProperties;
+
+	public ChangeTrackingPropertiesTest() {
+		originalProperties.setProperty("existing", "original value");
+		properties = new ChangeTrackingProperties(originalProperties);
+		systemProperties = properties.asSystemProperties();
+	}
+
+	@Test
+	public void equalsOriginalProperties() {
+		Properties copy = (Properties) originalProperties.clone();
+		assertThat(properties.equals(copy), is(true));
+		assertThat(systemProperties.equals(copy), is(true));
+		assertThat(properties.hashCode(), is(copy.hashCode()));
+	}
+
+	@Test
+	public void systemPropertiesAreSameForEachCall() {
+		assertThat(properties.asSystemProperties(), is(sameInstance(systemProperties)));
+	}
+
+	@Test
+	public void getOrDefaultReadsOriginalProperties() {
+		assertThat(systemProperties.getOrDefault("existing", "default"),
+			is(equalTo((Object) "original value")));
+		assertThat(systemProperties.getOrDefault("missing", "default"),
+			is(equalTo((Object) "default")));
+	}
+
+	@Test
+	public void forEachVisitsOriginalProperties() {
+		final List<Object> visited = new ArrayList<Object>();
+		systemProperties.forEach(new BiConsumer<Object, Object>() {
+			public void accept(Object key, Object value) {
+				visited.add(key + "=" + value);
+			}
+		});
+		assertThat(visited, contains((Object) "existing=original value"));
+	}
+
+	@Test
+	public void changesOfPutIfAbsentAreRestored() {
+		systemProperties.putIfAbsent("missing", "new value");
+		assertThat(originalProperties.getProperty("missing"), is(equalTo("new value")));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfRemoveWithValueAreRestored() {
+		systemProperties.remove("existing", "original value");
+		assertThat(originalProperties.getProperty("existing"), is(nullValue()));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfReplaceWithOldValueAreRestored() {
+		systemProperties.replace("existing", "original value", "new value");
+		assertThat(originalProperties.getProperty("existing"), is(equalTo("new value")));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfReplaceAreRestored() {
+		systemProperties.replace("existing", "new value");
+		assertThat(originalProperties.getProperty("existing"), is(equalTo("new value")));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfReplaceAllAreRestored() {
+		systemProperties.replaceAll(CONCATENATE);
+		assertThat(originalProperties.getProperty("existing"),
+			is(equalTo("existing original value")));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfComputeIfAbsentAreRestored() {
+		systemProperties.computeIfAbsent("missing", new Function<Object, Object>() {
+			public Object apply(Object key) {
+				return "new value";
+			}
+		});
+		assertThat(originalProperties.getProperty("missing"), is(equalTo("new value")));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfComputeIfPresentAreRestored() {
+		systemProperties.computeIfPresent("existing", NULL);
+		assertThat(originalProperties.getProperty("existing"), is(nullValue()));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfComputeAreRestored() {
+		systemProperties.compute("existing", CONCATENATE);
+		assertThat(originalProperties.getProperty("existing"),
+			is(equalTo("existing original value")));
+		assertRestored();
+	}
+
+	@Test
+	public void changesOfMergeAreRestored() {
+		systemProperties.merge("existing", "new value", CONCATENATE);
+		assertThat(originalProperties.getProperty("existing"),
+			is(equalTo("original value new value")));
+		assertRestored();
+	}
+
+	private void assertRestored() {
+		properties.restore();
+		assertThat(originalProperties.getProperty("existing"),
+			is(equalTo("original value")));
+		assertThat(originalProperties.size(), is(1));
+	}
+}
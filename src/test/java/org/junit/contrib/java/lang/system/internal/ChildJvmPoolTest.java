@@ -0,0 +1,30 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ChildJvmPoolTest {
+	private final ChildJvmPool pool = ChildJvmPool.withOptions(
+		Collections.<String>emptyList());
+
+	@Test
+	public void failsForMissingMainClass() {
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				pool.run("org.example.MissingMainClass", new String[0]);
+			}
+		});
+		assertThat(exception, allOf(
+			instanceOf(IllegalArgumentException.class),
+			hasProperty("message", equalTo("The main class"
+				+ " org.example.MissingMainClass cannot be found by the child JVM."))));
+	}
+}
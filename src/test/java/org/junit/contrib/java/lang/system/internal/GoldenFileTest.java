@@ -0,0 +1,87 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static java.lang.System.setProperty;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TemporaryFolder;
+
+public class GoldenFileTest {
+	private static final long SMALL_REGION_SIZE = 4;
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Rule
+	public final RestoreSystemProperties restoreSystemProperties
+		= new RestoreSystemProperties();
+
+	@Test
+	public void comparesFileThatSpansManyRegions() throws Exception {
+		File file = createFileWithText("first line\nsecond line\n");
+		new GoldenFile(file, false, SMALL_REGION_SIZE)
+			.assertEqualsLog("System.out", log("first line\nsecond line\n"));
+	}
+
+	@Test
+	public void detectsDifferenceInLaterRegion() throws Exception {
+		final File file = createFileWithText("first line\nsecond line\n");
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				new GoldenFile(file, false, SMALL_REGION_SIZE)
+					.assertEqualsLog("System.out", log("first line\nother line\n"));
+			}
+		});
+		assertThat(exception, hasProperty("message", containsString("at byte 11.")));
+	}
+
+	@Test
+	public void detectsMissingTextAtEndOfFile() throws Exception {
+		final File file = createFileWithText("first line\nsecond line\n");
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				new GoldenFile(file, false, SMALL_REGION_SIZE)
+					.assertEqualsLog("System.out", log("first line\n"));
+			}
+		});
+		assertThat(exception, hasProperty("message", containsString("ended at byte 11, but the file")));
+	}
+
+	@Test
+	public void failsIfDirectoryCannotBeCreatedInUpdateMode() throws Exception {
+		setProperty(GoldenFile.UPDATE_PROPERTY, "true");
+		File fileInsteadOfDirectory = createFileWithText("arbitrary text");
+		final File file = new File(fileInsteadOfDirectory, "golden.txt");
+		Throwable exception = exceptionThrownBy(new com.github.stefanbirkner.fishbowl.Statement() {
+			public void evaluate() throws Throwable {
+				new GoldenFile(file, false)
+					.assertEqualsLog("System.out", log("arbitrary text"));
+			}
+		});
+		assertThat(exception, instanceOf(IOException.class));
+		assertThat(exception, hasProperty("message",
+			containsString(fileInsteadOfDirectory + " cannot be created.")));
+	}
+
+	private File createFileWithText(String text) throws Exception {
+		File file = temporaryFolder.newFile();
+		writeStringToFile(file, text, "UTF-8");
+		return file;
+	}
+
+	private static InputStream log(String text) throws Exception {
+		return new ByteArrayInputStream(text.getBytes("UTF-8"));
+	}
+}
@@ -4,8 +4,10 @@ import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -14,6 +16,9 @@ import static org.mockito.Mockito.when;
 import java.io.FileDescriptor;
 import java.net.InetAddress;
 import java.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import com.github.stefanbirkner.fishbowl.Statement;
 import org.junit.Rule;
@@ -43,6 +48,49 @@ public class NoExitSecurityManagerTest {
 			hasProperty("status", equalTo(DUMMY_STATUS))));
 	}
 
+	@Test
+	public void recordsCallsOfAllThreadsWithFirstCallAsFirstElement() throws Exception {
+		final int numberOfThreads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < numberOfThreads; ++i) {
+			final int status = i;
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						managerWithoutOriginal.checkExit(status);
+					} catch (InterruptedException ignored) {
+					} catch (CheckExitCalled expected) {
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+		List<ExitLog.Call> calls = managerWithoutOriginal.getExitLog().getCalls();
+		assertThat(calls, hasSize(numberOfThreads));
+		assertThat(calls.get(0), is(sameInstance(
+			managerWithoutOriginal.getExitLog().getFirstCall())));
+	}
+
+	@Test
+	public void providesStatusOfFirstCall() {
+		try {
+			managerWithoutOriginal.checkExit(2);
+		} catch (CheckExitCalled ignored) {
+		}
+		try {
+			managerWithoutOriginal.checkExit(3);
+		} catch (CheckExitCalled ignored) {
+		}
+		assertThat(managerWithoutOriginal.getStatusOfFirstCheckExitCall(), is(2));
+	}
+
 	@Test
 	public void delegateGetInCheck() {
 		when(originalSecurityManager.getInCheck()).thenReturn(true);
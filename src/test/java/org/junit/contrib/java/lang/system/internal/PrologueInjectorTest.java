@@ -0,0 +1,124 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrologueInjectorTest {
+	private static final String SAMPLE = Sample.class.getName();
+	public static final List<String> CALLS = new ArrayList<String>();
+
+	public static void beforeExit(int status) {
+		CALLS.add("beforeExit(" + status + ")");
+	}
+
+	public static void beforeHalt(int status) {
+		CALLS.add("beforeHalt(" + status + ")");
+	}
+
+	@Before
+	public void resetCalls() {
+		CALLS.clear();
+	}
+
+	@Test
+	public void callsHookBeforeMethod() throws Exception {
+		Object sample = createInstrumentedSample();
+		sample.getClass().getMethod("exit", int.class).invoke(sample, 2);
+		assertThat(CALLS, contains("beforeExit(2)", "exit(2)"));
+	}
+
+	@Test
+	public void callsHookOfEachMethod() throws Exception {
+		Object sample = createInstrumentedSample();
+		sample.getClass().getMethod("halt", int.class).invoke(sample, 5);
+		assertThat(CALLS, contains("beforeHalt(5)", "halt(5)"));
+	}
+
+	@Test
+	public void doesNotChangeOtherMethods() throws Exception {
+		Object sample = createInstrumentedSample();
+		sample.getClass().getMethod("exit", long.class).invoke(sample, 7L);
+		assertThat(CALLS, contains("exit(7)"));
+	}
+
+	@Test
+	public void instrumentedMethodHandlesExceptionsAndSwitches() throws Exception {
+		Object sample = createInstrumentedSample();
+		sample.getClass().getMethod("exit", int.class).invoke(sample, -1);
+		assertThat(CALLS, contains("beforeExit(-1)", "caught exit(-1)"));
+	}
+
+	private Object createInstrumentedSample() throws Exception {
+		byte[] instrumented = new PrologueInjector(
+				PrologueInjectorTest.class.getName().replace('.', '/'))
+			.callAtStartOf("exit", "beforeExit")
+			.callAtStartOf("halt", "beforeHalt")
+			.inject(readClassFile(SAMPLE));
+		return new SingleClassLoader(SAMPLE, instrumented).loadClass(SAMPLE)
+			.newInstance();
+	}
+
+	private static byte[] readClassFile(String className) throws IOException {
+		InputStream in = PrologueInjectorTest.class.getClassLoader()
+			.getResourceAsStream(className.replace('.', '/') + ".class");
+		try {
+			return toByteArray(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static class SingleClassLoader extends ClassLoader {
+		private final String name;
+		private final byte[] classFile;
+
+		SingleClassLoader(String name, byte[] classFile) {
+			super(PrologueInjectorTest.class.getClassLoader());
+			this.name = name;
+			this.classFile = classFile;
+		}
+
+		@Override
+		protected synchronized Class<?> loadClass(String className,
+				boolean resolve) throws ClassNotFoundException {
+			if (name.equals(className))
+				return defineClass(name, classFile, 0, classFile.length);
+			else
+				return super.loadClass(className, resolve);
+		}
+	}
+
+	public static class Sample {
+		public void exit(int status) {
+			try {
+				switch (status) {
+				case -1:
+					throw new IllegalArgumentException(new StringBuilder()
+						.append("exit(").append(status).append(")").toString());
+				default:
+					CALLS.add("exit(" + status + ")");
+				}
+			} catch (IllegalArgumentException e) {
+				CALLS.add("caught " + e.getMessage());
+			}
+		}
+
+		public void exit(long status) {
+			CALLS.add("exit(" + status + ")");
+		}
+
+		public void halt(int status) {
+			for (int i = 0; i < 1; ++i)
+				CALLS.add("halt(" + status + ")");
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PropertiesCacheTest {
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final PropertiesCache cache = new PropertiesCache(1);
+
+	@Test
+	public void parsesUnchangedFileOnlyOnce() throws Exception {
+		File file = createFileWithText("name=value");
+		Map<String, String> first = cache.propertiesOfFile(file.getPath());
+		Map<String, String> second = cache.propertiesOfFile(file.getPath());
+		assertThat(second, is(sameInstance(first)));
+	}
+
+	@Test
+	public void parsesFileAgainIfItsModificationTimeHasChanged() throws Exception {
+		File file = createFileWithText("name=value");
+		long lastModified = file.lastModified();
+		cache.propertiesOfFile(file.getPath());
+		writeStringToFile(file, "name=other", "UTF-8");
+		file.setLastModified(lastModified - 10000);
+		assertThat(cache.propertiesOfFile(file.getPath()),
+			hasEntry("name", "other"));
+	}
+
+	@Test
+	public void parsesFileAgainIfItsLengthHasChangedWithinResolutionOfModificationTime() throws Exception {
+		File file = createFileWithText("name=value");
+		long lastModified = file.lastModified();
+		cache.propertiesOfFile(file.getPath());
+		writeStringToFile(file, "name=other value", "UTF-8");
+		file.setLastModified(lastModified);
+		assertThat(cache.propertiesOfFile(file.getPath()),
+			hasEntry("name", "other value"));
+	}
+
+	@Test
+	public void removesLeastRecentlyUsedFile() throws Exception {
+		File file = createFileWithText("name=value");
+		File otherFile = createFileWithText("name=other value");
+		Map<String, String> first = cache.propertiesOfFile(file.getPath());
+		cache.propertiesOfFile(otherFile.getPath());
+		Map<String, String> second = cache.propertiesOfFile(file.getPath());
+		assertThat(second, is(not(sameInstance(first))));
+		assertThat(second, is(equalTo(first)));
+	}
+
+	@Test
+	public void parsesUnchangedResourceOnlyOnce() throws Exception {
+		Map<String, String> first = cache.propertiesOfResource(
+			getClass(), "/org/junit/contrib/java/lang/system/example.properties");
+		Map<String, String> second = cache.propertiesOfResource(
+			getClass(), "/org/junit/contrib/java/lang/system/example.properties");
+		assertThat(second, is(sameInstance(first)));
+	}
+
+	private File createFileWithText(String text) throws Exception {
+		File file = temporaryFolder.newFile();
+		writeStringToFile(file, text, "UTF-8");
+		return file;
+	}
+}
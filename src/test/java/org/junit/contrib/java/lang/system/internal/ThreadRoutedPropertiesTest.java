@@ -0,0 +1,235 @@
+package org.junit.contrib.java.lang.system.internal;
+
+import static java.lang.System.clearProperty;
+import static java.lang.System.getProperties;
+import static java.lang.System.getProperty;
+import static java.lang.System.setProperty;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.addOverlayForCurrentThread;
+import static org.junit.contrib.java.lang.system.internal.ThreadRoutedProperties.removeOverlay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.internal.ThreadOverlays.Overlay;
+
+public class ThreadRoutedPropertiesTest {
+	private static final String EXISTING = "existing routed property";
+	private static final String MISSING = "missing routed property";
+	private static final BiFunction<Object, Object, Object> CONCATENATE
+		= new BiFunction<Object, Object, Object>() {
+			public Object apply(Object first, Object second) {
+				return first + " " + second;
+			}
+		};
+	private static final BiFunction<Object, Object, Object> NULL
+		= new BiFunction<Object, Object, Object>() {
+			public Object apply(Object first, Object second) {
+				return null;
+			}
+		};
+
+	private static final Callable<String> READ_EXISTING = new Callable<String>() {
+		public String call() {
+			return getProperty(EXISTING);
+		}
+	};
+
+	private Overlay overlay;
+
+	@Before
+	public void addOverlay() {
+		setProperty(EXISTING, "original value");
+		clearProperty(MISSING);
+		overlay = addOverlayForCurrentThread();
+	}
+
+	@After
+	public void removeOverlayAndProperty() {
+		if (overlay != null)
+			removeOverlay(overlay);
+		clearProperty(EXISTING);
+		clearProperty(MISSING);
+	}
+
+	@Test
+	public void getOrDefaultReadsOverlay() {
+		getProperties().remove(EXISTING);
+		assertThat(getProperties().getOrDefault(EXISTING, "default"),
+			is(equalTo((Object) "default")));
+	}
+
+	@Test
+	public void forEachVisitsMergedProperties() {
+		setProperty(MISSING, "new value");
+		final List<Object> visited = new ArrayList<Object>();
+		getProperties().forEach(new BiConsumer<Object, Object>() {
+			public void accept(Object key, Object value) {
+				visited.add(key + "=" + value);
+			}
+		});
+		assertThat(visited, hasItem((Object) (MISSING + "=new value")));
+	}
+
+	@Test
+	public void putIfAbsentWritesOverlay() {
+		getProperties().putIfAbsent(MISSING, "new value");
+		assertThat(getProperty(MISSING), is(equalTo("new value")));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void removeWithValueWritesOverlay() {
+		getProperties().remove(EXISTING, "original value");
+		assertThat(getProperty(EXISTING), is(nullValue()));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void replaceWithOldValueWritesOverlay() {
+		getProperties().replace(EXISTING, "original value", "new value");
+		assertThat(getProperty(EXISTING), is(equalTo("new value")));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void replaceWritesOverlay() {
+		getProperties().replace(EXISTING, "new value");
+		assertThat(getProperty(EXISTING), is(equalTo("new value")));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void replaceAllWritesOverlay() {
+		getProperties().replaceAll(CONCATENATE);
+		assertThat(getProperty(EXISTING),
+			is(equalTo(EXISTING + " original value")));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void computeIfAbsentWritesOverlay() {
+		getProperties().computeIfAbsent(MISSING, new Function<Object, Object>() {
+			public Object apply(Object key) {
+				return "new value";
+			}
+		});
+		assertThat(getProperty(MISSING), is(equalTo("new value")));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void computeIfPresentWritesOverlay() {
+		getProperties().computeIfPresent(EXISTING, NULL);
+		assertThat(getProperty(EXISTING), is(nullValue()));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void computeWritesOverlay() {
+		getProperties().compute(EXISTING, CONCATENATE);
+		assertThat(getProperty(EXISTING),
+			is(equalTo(EXISTING + " original value")));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void mergeWritesOverlay() {
+		getProperties().merge(EXISTING, "new value", CONCATENATE);
+		assertThat(getProperty(EXISTING),
+			is(equalTo("original value new value")));
+		assertOriginalProperties();
+	}
+
+	@Test
+	public void cloneIsCopyOfMergedProperties() {
+		setProperty(MISSING, "new value");
+		Properties clone = (Properties) getProperties().clone();
+		assertThat(clone.getClass(), is(equalTo((Object) Properties.class)));
+		assertThat(clone.getProperty(MISSING), is(equalTo("new value")));
+		assertOriginalProperties();
+		assertThat(clone.getProperty(MISSING), is(equalTo("new value")));
+	}
+
+	@Test
+	public void serializesCopyOfMergedProperties() throws Exception {
+		setProperty(MISSING, "new value");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(getProperties());
+		out.close();
+		Properties deserialized = (Properties) new ObjectInputStream(
+			new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertThat(deserialized.getClass(), is(equalTo((Object) Properties.class)));
+		assertThat(deserialized.getProperty(MISSING), is(equalTo("new value")));
+		assertThat(deserialized.getProperty(EXISTING), is(equalTo("original value")));
+	}
+
+	@Test
+	public void threadThatOutlivesOverlayDoesNotSeeItsValues() throws Exception {
+		ExecutorService pool = newSingleThreadExecutor();
+		try {
+			Overlay innerOverlay = addOverlayForCurrentThread();
+			setProperty(EXISTING, "value of inner overlay");
+			assertThat(pool.submit(READ_EXISTING).get(),
+				is(equalTo("value of inner overlay")));
+			removeOverlay(innerOverlay);
+			assertThat(pool.submit(READ_EXISTING).get(), is(equalTo("original value")));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void threadThatOutlivesOverlayWritesOverlayBeneathIt() throws Exception {
+		ExecutorService pool = newSingleThreadExecutor();
+		try {
+			Overlay innerOverlay = addOverlayForCurrentThread();
+			pool.submit(READ_EXISTING).get();
+			removeOverlay(innerOverlay);
+			pool.submit(new Runnable() {
+				public void run() {
+					setProperty(MISSING, "new value");
+				}
+			}).get();
+			assertThat(getProperty(MISSING), is(equalTo("new value")));
+			assertOriginalProperties();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The original properties are not changed and the overlay's values are
+	 * discarded with the overlay.
+	 */
+	private void assertOriginalProperties() {
+		Properties originalProperties
+			= ((DelegatingProperties) getProperties()).getOriginalProperties();
+		assertThat(originalProperties.getProperty(EXISTING),
+			is(equalTo("original value")));
+		assertThat(originalProperties.getProperty(MISSING), is(nullValue()));
+		removeOverlay(overlay);
+		overlay = null;
+		assertThat(getProperty(EXISTING), is(equalTo("original value")));
+		assertThat(getProperty(MISSING), is(nullValue()));
+	}
+}